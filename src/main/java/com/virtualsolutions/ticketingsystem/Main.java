@@ -1,13 +1,50 @@
 package com.virtualsolutions.ticketingsystem;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import com.virtualsolutions.ticketingsystem.analytics.LatencySketch;
+import com.virtualsolutions.ticketingsystem.analytics.ReportAggregator;
+import com.virtualsolutions.ticketingsystem.analytics.ResolutionTimeTracker;
+import com.virtualsolutions.ticketingsystem.analytics.SpaceSaving;
+import com.virtualsolutions.ticketingsystem.analytics.TicketRollupStore;
+import com.virtualsolutions.ticketingsystem.analytics.TicketSpikeDetector;
+import com.virtualsolutions.ticketingsystem.analytics.TicketVolumeTracker;
 import com.virtualsolutions.ticketingsystem.controller.CustomerController;
+import com.virtualsolutions.ticketingsystem.controller.TicketController;
+import com.virtualsolutions.ticketingsystem.dispatch.AutoAssignmentEngine;
+import com.virtualsolutions.ticketingsystem.dispatch.DispatchQueues;
+import com.virtualsolutions.ticketingsystem.dispatch.SlaBreach;
+import com.virtualsolutions.ticketingsystem.dispatch.SlaMonitor;
+import com.virtualsolutions.ticketingsystem.event.ChangeLog;
+import com.virtualsolutions.ticketingsystem.event.TicketChangeStream;
+import com.virtualsolutions.ticketingsystem.event.TicketEventBus;
+import com.virtualsolutions.ticketingsystem.event.TicketStreamServer;
+import com.virtualsolutions.ticketingsystem.model.Agent;
 import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.repository.impl.AgentRepositoryImpl;
 import com.virtualsolutions.ticketingsystem.repository.impl.CustomerRepositoryImpl;
+import com.virtualsolutions.ticketingsystem.repository.impl.TicketRepositoryImpl;
+import com.virtualsolutions.ticketingsystem.search.AutocompleteIndex;
+import com.virtualsolutions.ticketingsystem.search.DuplicateTicketDetector;
+import com.virtualsolutions.ticketingsystem.search.TicketFacets;
+import com.virtualsolutions.ticketingsystem.search.TicketSearchIndex;
+import com.virtualsolutions.ticketingsystem.search.TicketSearchResult;
 import com.virtualsolutions.ticketingsystem.service.impl.CustomerServiceImpl;
+import com.virtualsolutions.ticketingsystem.service.impl.TicketServiceImpl;
 
 /**
  * Main application class for the Call Center Ticket System.
@@ -19,7 +56,18 @@ import com.virtualsolutions.ticketingsystem.service.impl.CustomerServiceImpl;
 public class  Main {
     
     private final CustomerController customerController;
+    private final TicketController ticketController;
+    private final ReportAggregator reportAggregator;
+    private final TicketRollupStore rollupStore;
+    private final ResolutionTimeTracker resolutionTimeTracker;
+    private final TicketVolumeTracker volumeTracker;
+    private final AutocompleteIndex autocompleteIndex;
+    private final AgentRepositoryImpl agentRepository;
+    private final AutoAssignmentEngine assignmentEngine;
+    private final Queue<SlaBreach> pendingEscalations = new ConcurrentLinkedQueue<>();
     private final Scanner scanner;
+    private TicketStreamServer streamServer;
+    private ChangeLog changeLog;
     
     /**
      * Constructor forMain.
@@ -28,12 +76,114 @@ public class  Main {
     public Main() {
         // Initialize repositories
         CustomerRepositoryImpl customerRepository = new CustomerRepositoryImpl();
+        TicketRepositoryImpl ticketRepository = new TicketRepositoryImpl();
+        this.agentRepository = new AgentRepositoryImpl();
         
         // Initialize services
         CustomerServiceImpl customerService = new CustomerServiceImpl(customerRepository);
+        TicketServiceImpl ticketService = new TicketServiceImpl(ticketRepository, agentRepository);
+        
+        // Keep report counters up to date as tickets change
+        this.reportAggregator = new ReportAggregator();
+        reportAggregator.load(ticketRepository.findAll());
+        ticketService.addTicketChangeListener(reportAggregator);
+        this.rollupStore = new TicketRollupStore();
+        rollupStore.load(ticketRepository.findAll());
+        ticketService.addTicketChangeListener(rollupStore);
+        this.resolutionTimeTracker = new ResolutionTimeTracker();
+        ticketService.addTicketChangeListener(resolutionTimeTracker);
+        this.volumeTracker = new TicketVolumeTracker();
+        ticketService.addTicketChangeListener(volumeTracker);
+        
+        // Warn about incident storms as soon as creation in a category spikes
+        TicketSpikeDetector spikeDetector = new TicketSpikeDetector();
+        spikeDetector.addSpikeAlertListener(alert -> System.out.println("\n[ALERT] Ticket spike in category "
+                + alert.getCategoryId() + ": " + alert.getObservedCount() + " new tickets, "
+                + String.format("%.1f", alert.getExpectedCount()) + " expected"));
+        ticketService.addTicketChangeListener(spikeDetector);
+        
+        // Assign new tickets to the least-loaded agent
+        this.assignmentEngine = new AutoAssignmentEngine();
+        agentRepository.findAll().forEach(assignmentEngine::registerAgent);
+        assignmentEngine.load(ticketRepository.findAll());
+        ticketService.setAutoAssignmentEngine(assignmentEngine);
+        
+        // Queue tickets that could not be assigned until an agent pulls them
+        DispatchQueues dispatchQueues = new DispatchQueues();
+        dispatchQueues.load(ticketRepository.findAll());
+        ticketService.setDispatchQueues(dispatchQueues);
+        
+        // Escalate tickets one priority level when they miss an SLA deadline
+        SlaMonitor slaMonitor = new SlaMonitor();
+        slaMonitor.load(ticketRepository.findAll());
+        // The monitor reports breaches on its own thread, so escalations are queued for the console thread,
+        // which applies them the next time it shows a menu
+        slaMonitor.addSlaBreachListener(pendingEscalations::add);
+        ticketService.addTicketChangeListener(slaMonitor);
+        slaMonitor.start();
+        
+        // Publish typed change events for consumers such as indexes and replication
+        TicketEventBus eventBus = new TicketEventBus();
+        eventBus.load(ticketRepository.findAll());
+        ticketService.addTicketChangeListener(eventBus);
+        
+        // Push ticket changes to live dashboards over Server-Sent Events, when a port is configured
+        Integer streamPort = Integer.getInteger("ticketing.stream.port");
+        if (streamPort != null) {
+            TicketChangeStream changeStream = new TicketChangeStream();
+            eventBus.addConsumer("stream", changeStream);
+            String streamHost = System.getProperty("ticketing.stream.host");
+            try {
+                this.streamServer = new TicketStreamServer(changeStream, streamHost == null
+                                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), streamPort)
+                                : new InetSocketAddress(streamHost, streamPort),
+                        Integer.getInteger("ticketing.stream.maxStreams", 64));
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Warning: Failed to start the ticket change stream: " + e.getMessage());
+            }
+        }
+        
+        // Record every ticket and customer mutation in a durable change log, when a directory is configured.
+        // The repositories are in memory and reuse IDs after a restart, so a log left by an earlier run
+        // is not appended to: its records would describe different entities under the same IDs.
+        String changeLogDirectory = System.getProperty("ticketing.cdc.dir");
+        if (changeLogDirectory != null) {
+            try {
+                ChangeLog log = new ChangeLog(Paths.get(changeLogDirectory));
+                if (log.getNextOffset() > 0) {
+                    log.close();
+                    System.out.println("Warning: The change log at " + changeLogDirectory
+                            + " holds records from an earlier run; choose an empty directory to record changes.");
+                } else {
+                    this.changeLog = log;
+                    ticketService.addTicketChangeListener(changeLog);
+                    customerService.addCustomerChangeListener(changeLog);
+                }
+            } catch (UncheckedIOException e) {
+                System.out.println("Warning: Failed to open the change log: " + e.getMessage());
+            }
+        }
+        
+        // Keep type-ahead suggestions for customer names, emails and ticket numbers
+        this.autocompleteIndex = new AutocompleteIndex();
+        autocompleteIndex.loadCustomers(customerRepository.findAll());
+        autocompleteIndex.load(ticketRepository.findAll());
+        customerService.addCustomerChangeListener(autocompleteIndex);
+        ticketService.addTicketChangeListener(autocompleteIndex);
+        
+        // Group near-identical open tickets, such as reports of the same outage
+        DuplicateTicketDetector duplicateDetector = new DuplicateTicketDetector();
+        duplicateDetector.load(ticketRepository.findAll());
+        ticketService.setDuplicateDetector(duplicateDetector);
+        
+        // Rank keyword searches by relevance
+        TicketSearchIndex searchIndex = new TicketSearchIndex();
+        searchIndex.load(ticketRepository.findAll());
+        ticketService.setSearchIndex(searchIndex);
         
         // Initialize controllers
         this.customerController = new CustomerController(customerService);
+        this.ticketController = new TicketController(ticketService);
         this.scanner = new Scanner(System.in);
         
         // Initialize sample data
@@ -59,6 +209,7 @@ public class  Main {
         System.out.println("Welcome to the Call Center Management System!");
         
         while (true) {
+            applyPendingEscalations();
             displayMainMenu();
             int choice = getIntInput("Enter your choice: ");
             
@@ -69,6 +220,12 @@ public class  Main {
                 case 4 -> displayReports();
                 case 0 -> {
                     System.out.println("Thank you for using the Call Center Ticket System!");
+                    if (streamServer != null) {
+                        streamServer.close();
+                    }
+                    if (changeLog != null) {
+                        changeLog.close();
+                    }
                     return;
                 }
                 default -> System.out.println("Invalid choice. Please try again.");
@@ -76,6 +233,32 @@ public class  Main {
         }
     }
     
+    /**
+     * Escalates each ticket that missed an SLA deadline by one priority level.
+     * Breaches are queued by the SLA monitor's thread and applied here, so all
+     * ticket changes are made on the console thread. The queue is drained each
+     * time a menu is shown, so a deadline missed while the console waits for
+     * input is escalated only when the operator's next action returns to a
+     * menu; the repositories are not safe to change from the monitor's thread.
+     */
+    private void applyPendingEscalations() {
+        SlaBreach breach;
+        while ((breach = pendingEscalations.poll()) != null) {
+            TicketPriority priority = breach.getPriority();
+            if (priority == null || priority == TicketPriority.CRITICAL) {
+                continue;
+            }
+            try {
+                Ticket ticket = ticketController.updateTicketPriority(breach.getTicketId(),
+                        TicketPriority.values()[priority.ordinal() + 1]);
+                System.out.println("\n[SLA] Ticket " + ticket.getTicketNumber() + " missed its "
+                        + breach.getKind().name().toLowerCase().replace('_', ' ') + " deadline and was escalated to " + ticket.getPriority());
+            } catch (RuntimeException e) {
+                System.out.println("Warning: Failed to escalate ticket: " + e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Displays the main menu options.
      */
@@ -94,6 +277,7 @@ public class  Main {
      */
     private void manageCustomers() {
         while (true) {
+            applyPendingEscalations();
             System.out.println("\n=== Customer Management ===");
             System.out.println("1. Create Customer");
             System.out.println("2. View All Customers");
@@ -101,6 +285,7 @@ public class  Main {
             System.out.println("4. Find Customer by Email");
             System.out.println("5. Update Customer");
             System.out.println("6. Delete Customer");
+            System.out.println("7. Quick Lookup");
             System.out.println("0. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
@@ -112,6 +297,7 @@ public class  Main {
                 case 4 -> findCustomerByEmail();
                 case 5 -> updateCustomer();
                 case 6 -> deleteCustomer();
+                case 7 -> quickLookup();
                 case 0 -> {
                     return;
                 }
@@ -185,7 +371,14 @@ public class  Main {
             List<Customer> customers = customerController.searchCustomersByName(name);
             
             if (customers.isEmpty()) {
-                System.out.println("No customers found with name containing: " + name);
+                System.out.println("No customers found with a name containing or sounding like: " + name);
+                List<Customer> suggestions = customerController.searchCustomersByNameFuzzy(name, 2);
+                if (!suggestions.isEmpty()) {
+                    System.out.println("Did you mean:");
+                    for (Customer customer : suggestions) {
+                        System.out.println(customer);
+                    }
+                }
             } else {
                 System.out.println("Found " + customers.size() + " customer(s):");
                 for (Customer customer : customers) {
@@ -197,6 +390,43 @@ public class  Main {
         }
     }
     
+    /**
+     * Suggests customers and tickets starting with the typed text, as a
+     * type-ahead field would on each keystroke.
+     */
+    private void quickLookup() {
+        System.out.println("\n=== Quick Lookup ===");
+        
+        String prefix = getStringInput("Enter the start of a name, email or ticket number: ");
+        List<AutocompleteIndex.Suggestion> names = autocompleteIndex.suggestCustomerNames(prefix, 5);
+        List<AutocompleteIndex.Suggestion> emails = autocompleteIndex.suggestCustomerEmails(prefix, 5);
+        List<AutocompleteIndex.Suggestion> tickets = autocompleteIndex.suggestTicketNumbers(prefix, 5);
+        
+        if (names.isEmpty() && emails.isEmpty() && tickets.isEmpty()) {
+            System.out.println("No suggestions for: " + prefix);
+            return;
+        }
+        printSuggestions("Customers", names);
+        printSuggestions("Emails", emails);
+        printSuggestions("Tickets", tickets);
+    }
+    
+    /**
+     * Prints a group of suggestions, skipping empty groups.
+     * 
+     * @param heading The group heading
+     * @param suggestions The suggestions to print
+     */
+    private void printSuggestions(String heading, List<AutocompleteIndex.Suggestion> suggestions) {
+        if (suggestions.isEmpty()) {
+            return;
+        }
+        System.out.println(heading + ":");
+        for (AutocompleteIndex.Suggestion suggestion : suggestions) {
+            System.out.println("  " + suggestion);
+        }
+    }
+    
     /**
      * Finds a customer by email.
      */
@@ -301,9 +531,92 @@ public class  Main {
      * Handles ticket management operations.
      */
     private void manageTickets() {
-        System.out.println("\n=== Ticket Management ===");
-        System.out.println("Ticket management functionality will be implemented here.");
-        System.out.println("This would include creating, viewing, updating, and deleting tickets.");
+        while (true) {
+            applyPendingEscalations();
+            System.out.println("\n=== Ticket Management ===");
+            System.out.println("1. Find Similar Open Tickets");
+            System.out.println("2. Auto-Assign Ticket");
+            System.out.println("3. Assign Next Waiting Ticket to Agent");
+            System.out.println("0. Back to Main Menu");
+            
+            int choice = getIntInput("Enter your choice: ");
+            
+            switch (choice) {
+                case 1 -> findSimilarTickets();
+                case 2 -> autoAssignTicket();
+                case 3 -> assignNextTicket();
+                case 0 -> {
+                    return;
+                }
+                default -> System.out.println("Invalid choice. Please try again.");
+            }
+        }
+    }
+    
+    /**
+     * Lists open tickets that are near duplicates of a ticket.
+     */
+    private void findSimilarTickets() {
+        System.out.println("\n=== Find Similar Open Tickets ===");
+        
+        Long id = getLongInput("Enter ticket ID: ");
+        
+        try {
+            List<Ticket> similar = ticketController.findSimilarOpenTickets(id, 10);
+            if (similar.isEmpty()) {
+                System.out.println("No similar open tickets found.");
+            } else {
+                System.out.println("Found " + similar.size() + " similar open ticket(s):");
+                for (Ticket ticket : similar) {
+                    System.out.printf("  %-18s %-12s %s%n", ticket.getTicketNumber(), ticket.getStatus(),
+                            ticket.getTitle());
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("Error finding similar tickets: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Assigns a ticket to the least-loaded eligible agent.
+     */
+    private void autoAssignTicket() {
+        System.out.println("\n=== Auto-Assign Ticket ===");
+        
+        Long id = getLongInput("Enter ticket ID: ");
+        
+        try {
+            Optional<Ticket> assigned = ticketController.autoAssignTicket(id);
+            if (assigned.isPresent()) {
+                System.out.println("Ticket " + assigned.get().getTicketNumber() + " assigned to "
+                        + assigned.get().getAssignedAgent().getName());
+            } else {
+                System.out.println("No eligible agent is available.");
+            }
+        } catch (Exception e) {
+            System.out.println("Error assigning ticket: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Assigns the best waiting ticket to an agent pulling work.
+     */
+    private void assignNextTicket() {
+        System.out.println("\n=== Assign Next Waiting Ticket ===");
+        
+        Long agentId = getLongInput("Enter agent ID: ");
+        
+        try {
+            Optional<Ticket> assigned = ticketController.assignNextTicket(agentId);
+            if (assigned.isPresent()) {
+                System.out.println("Assigned ticket " + assigned.get().getTicketNumber() + ": "
+                        + assigned.get().getTitle());
+            } else {
+                System.out.println("No ticket is waiting for this agent.");
+            }
+        } catch (Exception e) {
+            System.out.println("Error assigning ticket: " + e.getMessage());
+        }
     }
     
     /**
@@ -311,8 +624,29 @@ public class  Main {
      */
     private void searchTickets() {
         System.out.println("\n=== Search Tickets ===");
-        System.out.println("Ticket search functionality will be implemented here.");
-        System.out.println("This would include searching by various criteria like status, priority, customer, etc.");
+        
+        String keyword = getStringInput("Enter keywords: ");
+        
+        try {
+            TicketSearchResult result = ticketController.searchTicketsWithFacets(keyword, null, null, null, null, null,
+                    20);
+            List<Ticket> tickets = result.getTickets();
+            
+            if (tickets.isEmpty()) {
+                System.out.println("No tickets found for: " + keyword);
+            } else {
+                TicketFacets facets = result.getFacets();
+                System.out.println("Top " + tickets.size() + " of " + facets.getTotal() + " ticket(s):");
+                for (Ticket ticket : tickets) {
+                    System.out.printf("  %-18s %-12s %-9s %s%n", ticket.getTicketNumber(), ticket.getStatus(),
+                            ticket.getPriority(), ticket.getTitle());
+                }
+                System.out.println("By status:   " + facets.getStatusCounts());
+                System.out.println("By priority: " + facets.getPriorityCounts());
+            }
+        } catch (Exception e) {
+            System.out.println("Error searching tickets: " + e.getMessage());
+        }
     }
     
     /**
@@ -320,8 +654,45 @@ public class  Main {
      */
     private void displayReports() {
         System.out.println("\n=== System Reports ===");
-        System.out.println("Reporting functionality will be implemented here.");
-        System.out.println("This would include ticket statistics, agent performance, etc.");
+        System.out.println("Total tickets: " + reportAggregator.getTotalTickets());
+        
+        System.out.println("\nTickets by status:");
+        for (Map.Entry<TicketStatus, Long> entry : reportAggregator.countByStatus().entrySet()) {
+            System.out.printf("  %-12s %d%n", entry.getKey(), entry.getValue());
+        }
+        
+        System.out.println("\nTickets by priority:");
+        for (Map.Entry<TicketPriority, Long> entry : reportAggregator.countByPriority().entrySet()) {
+            System.out.printf("  %-12s %d%n", entry.getKey(), entry.getValue());
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        System.out.println("\nLast 24 hours:");
+        for (TicketRollupStore.Metric metric : TicketRollupStore.Metric.values()) {
+            long count = rollupStore.total(metric, TicketRollupStore.Granularity.HOUR,
+                    now.minusHours(23), now, null, null);
+            System.out.printf("  %-12s %d%n", metric, count);
+        }
+        
+        LatencySketch resolutionTimes = resolutionTimeTracker.getSketch(now.minusDays(29), now, null, null, null);
+        if (resolutionTimes.getCount() > 0) {
+            System.out.println("\nResolution time, last 30 days:");
+            System.out.printf("  %-12s %.0f min%n", "p50", resolutionTimes.getQuantile(0.5) / 60);
+            System.out.printf("  %-12s %.0f min%n", "p90", resolutionTimes.getQuantile(0.9) / 60);
+            System.out.printf("  %-12s %.0f min%n", "p99", resolutionTimes.getQuantile(0.99) / 60);
+        }
+        
+        System.out.println("\nUnique customers today: "
+                + volumeTracker.estimateDistinctCustomers(now.toLocalDate().atStartOfDay(), now));
+        System.out.println("Top categories this hour:");
+        for (SpaceSaving.Entry entry : volumeTracker.getTop(TicketVolumeTracker.Dimension.CATEGORY, now, now, 5)) {
+            System.out.printf("  %-12s %d%n", "Category " + entry.getKey(), entry.getCount());
+        }
+        
+        System.out.println("\nOpen tickets by age:");
+        for (Map.Entry<String, Long> entry : reportAggregator.countOpenTicketsByAge().entrySet()) {
+            System.out.printf("  %-12s %d%n", entry.getKey(), entry.getValue());
+        }
     }
     
     /**
@@ -338,6 +709,11 @@ public class  Main {
             customerController.createCustomer(customer2);
             customerController.createCustomer(customer3);
             
+            // Create sample agents and make them available for automatic assignment
+            createAgent(new Agent(null, "Alice Nakato", "alice.nakato@virtualsolutions.com", "EMP001", "Support"));
+            createAgent(new Agent(null, "Brian Okello", "brian.okello@virtualsolutions.com", "EMP002", "Support"));
+            createAgent(new Agent(null, "Grace Atim", "grace.atim@virtualsolutions.com", "EMP003", "Billing"));
+            
             System.out.println("Sample data initialized successfully.");
             
         } catch (Exception e) {
@@ -345,6 +721,15 @@ public class  Main {
         }
     }
     
+    /**
+     * Saves an agent and registers it for automatic ticket assignment.
+     * 
+     * @param agent The agent to create
+     */
+    private void createAgent(Agent agent) {
+        assignmentEngine.registerAgent(agentRepository.save(agent));
+    }
+    
     /**
      * Gets string input from the user.
      * 
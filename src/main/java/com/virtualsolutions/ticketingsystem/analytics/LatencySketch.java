@@ -0,0 +1,147 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch for durations, in the style of DDSketch.
+ * Values are counted in logarithmically sized buckets, so every quantile is
+ * reported within a fixed relative error of the true value. Two sketches with
+ * the same accuracy merge by adding bucket counts, which makes percentiles over
+ * any combination of sketches as cheap as the merge.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class LatencySketch {
+    
+    private final double relativeAccuracy;
+    private final double logGamma;
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    
+    /**
+     * Creates a sketch.
+     * 
+     * @param relativeAccuracy The relative error bound of reported quantiles, between 0 and 1
+     */
+    public LatencySketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+    }
+    
+    /**
+     * Adds a value to the sketch.
+     * 
+     * @param value The value to add; must not be negative
+     */
+    public void add(double value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative: " + value);
+        }
+        if (value == 0) {
+            zeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / logGamma);
+            ensureIndex(index);
+            counts[index - offset]++;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+    
+    /**
+     * Adds all values of another sketch to this one.
+     * 
+     * @param other The sketch to merge; must have the same relative accuracy
+     */
+    public void merge(LatencySketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            ensureIndex(other.offset);
+            ensureIndex(other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+    
+    /**
+     * Gets the approximate value at a quantile.
+     * 
+     * @param quantile The quantile, between 0 and 1 (0.99 for p99)
+     * @return The approximate value, or NaN if the sketch is empty
+     */
+    public double getQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(quantile * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // The bucket midpoint is within the relative accuracy of every value in it
+                double value = 2 * Math.exp((i + offset) * logGamma) / (1 + Math.exp(logGamma));
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+    
+    /**
+     * Gets the number of values added.
+     * 
+     * @return The value count
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * Gets the relative accuracy of the sketch.
+     * 
+     * @return The relative error bound
+     */
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+    
+    private void ensureIndex(int index) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            offset = index;
+            return;
+        }
+        if (index < offset) {
+            long[] grown = new long[counts.length + (offset - index)];
+            System.arraycopy(counts, 0, grown, offset - index, counts.length);
+            counts = grown;
+            offset = index;
+        } else if (index >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, index - offset + 1);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Incrementally maintained ticket report counters.
+ * The aggregator listens to ticket mutations and keeps a count for every
+ * combination of status, priority, category and agent, including every
+ * roll-up where some of those dimensions are left open. Each mutation adjusts
+ * a fixed number of counters, so any report query is a single map lookup and
+ * always matches the repository exactly.
+ * 
+ * Open tickets (NEW, IN_PROGRESS and PENDING) are also grouped into age
+ * buckets. Tickets move to older buckets lazily when the buckets are read,
+ * and each ticket moves at most once per bucket.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class ReportAggregator implements TicketChangeListener {
+    
+    private static final int ANY = -1;
+    private static final int NO_VALUE = -2;
+    private static final long ANY_ID = Long.MIN_VALUE;
+    private static final long NO_ID = Long.MIN_VALUE + 1;
+    private static final int DIMENSIONS = 4;
+    
+    private static final Duration[] AGE_BOUNDS = {
+        Duration.ZERO, Duration.ofHours(1), Duration.ofHours(4),
+        Duration.ofDays(1), Duration.ofDays(3), Duration.ofDays(7)
+    };
+    private static final String[] AGE_LABELS = {
+        "< 1 hour", "1 - 4 hours", "4 - 24 hours", "1 - 3 days", "3 - 7 days", "> 7 days"
+    };
+    
+    private final Clock clock;
+    private final Map<CubeKey, Long> counts = new HashMap<>();
+    private final Map<Long, TicketState> states = new HashMap<>();
+    private final TreeSet<AgeEntry>[] ageBuckets;
+    
+    /**
+     * Creates an aggregator using the system clock for ticket ages.
+     */
+    public ReportAggregator() {
+        this(Clock.systemDefaultZone());
+    }
+    
+    /**
+     * Creates an aggregator.
+     * 
+     * @param clock The clock used to compute open-ticket ages
+     */
+    public ReportAggregator(Clock clock) {
+        this.clock = clock;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        TreeSet<AgeEntry>[] buckets = new TreeSet[AGE_BOUNDS.length];
+        this.ageBuckets = buckets;
+        for (int i = 0; i < ageBuckets.length; i++) {
+            ageBuckets[i] = new TreeSet<>();
+        }
+    }
+    
+    /**
+     * Loads existing tickets, typically the repository's contents at startup.
+     * 
+     * @param tickets The tickets to count
+     */
+    public synchronized void load(Collection<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            apply(ticket.getId(), TicketState.of(ticket));
+        }
+    }
+    
+    @Override
+    public synchronized void onTicketCreated(Ticket ticket) {
+        apply(ticket.getId(), TicketState.of(ticket));
+    }
+    
+    @Override
+    public synchronized void onTicketUpdated(Ticket ticket) {
+        apply(ticket.getId(), TicketState.of(ticket));
+    }
+    
+    @Override
+    public synchronized void onTicketDeleted(Ticket ticket) {
+        apply(ticket.getId(), null);
+    }
+    
+    /**
+     * Counts tickets matching the given dimensions. A null argument matches any value.
+     * 
+     * @param status The status to match, or null for any
+     * @param priority The priority to match, or null for any
+     * @param categoryId The category ID to match, or null for any
+     * @param agentId The assigned agent ID to match, or null for any
+     * @return The number of matching tickets
+     */
+    public synchronized long count(TicketStatus status, TicketPriority priority, Long categoryId, Long agentId) {
+        CubeKey key = new CubeKey(
+                status == null ? ANY : status.ordinal(),
+                priority == null ? ANY : priority.ordinal(),
+                categoryId == null ? ANY_ID : categoryId,
+                agentId == null ? ANY_ID : agentId);
+        return counts.getOrDefault(key, 0L);
+    }
+    
+    /**
+     * Counts tickets per status.
+     * 
+     * @return A map from status to ticket count, in status order
+     */
+    public synchronized Map<TicketStatus, Long> countByStatus() {
+        Map<TicketStatus, Long> result = new LinkedHashMap<>();
+        for (TicketStatus status : TicketStatus.values()) {
+            result.put(status, count(status, null, null, null));
+        }
+        return result;
+    }
+    
+    /**
+     * Counts tickets per priority.
+     * 
+     * @return A map from priority to ticket count, in priority order
+     */
+    public synchronized Map<TicketPriority, Long> countByPriority() {
+        Map<TicketPriority, Long> result = new LinkedHashMap<>();
+        for (TicketPriority priority : TicketPriority.values()) {
+            result.put(priority, count(null, priority, null, null));
+        }
+        return result;
+    }
+    
+    /**
+     * Gets the total number of tickets.
+     * 
+     * @return The ticket count
+     */
+    public synchronized long getTotalTickets() {
+        return count(null, null, null, null);
+    }
+    
+    /**
+     * Counts open tickets per age bucket.
+     * 
+     * @return A map from bucket label to open-ticket count, youngest bucket first
+     */
+    public synchronized Map<String, Long> countOpenTicketsByAge() {
+        long now = LocalDateTime.now(clock).toEpochSecond(ZoneOffset.UTC);
+        for (int bucket = 0; bucket < ageBuckets.length - 1; bucket++) {
+            long olderThan = now - AGE_BOUNDS[bucket + 1].getSeconds();
+            TreeSet<AgeEntry> entries = ageBuckets[bucket];
+            while (!entries.isEmpty() && entries.first().createdAt <= olderThan) {
+                ageBuckets[bucket + 1].add(entries.pollFirst());
+            }
+        }
+        
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < ageBuckets.length; bucket++) {
+            result.put(AGE_LABELS[bucket], (long) ageBuckets[bucket].size());
+        }
+        return result;
+    }
+    
+    /**
+     * Replaces the recorded state of a ticket, moving it between counters.
+     * 
+     * @param id The ticket ID
+     * @param state The new state, or null if the ticket was deleted
+     */
+    private void apply(Long id, TicketState state) {
+        TicketState previous = state == null ? states.remove(id) : states.put(id, state);
+        if (Objects.equals(previous, state)) {
+            return;
+        }
+        if (previous != null) {
+            adjust(previous, -1);
+            if (previous.isOpen()) {
+                AgeEntry entry = new AgeEntry(previous.createdAt, id);
+                for (TreeSet<AgeEntry> bucket : ageBuckets) {
+                    if (bucket.remove(entry)) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (state != null) {
+            adjust(state, 1);
+            if (state.isOpen()) {
+                // New entries start in the youngest bucket and are aged on the next read
+                ageBuckets[0].add(new AgeEntry(state.createdAt, id));
+            }
+        }
+    }
+    
+    /**
+     * Adds a delta to every counter the state contributes to: one per subset of
+     * dimensions left open.
+     */
+    private void adjust(TicketState state, long delta) {
+        for (int mask = 0; mask < (1 << DIMENSIONS); mask++) {
+            CubeKey key = new CubeKey(
+                    (mask & 1) != 0 ? ANY : state.status,
+                    (mask & 2) != 0 ? ANY : state.priority,
+                    (mask & 4) != 0 ? ANY_ID : state.categoryId,
+                    (mask & 8) != 0 ? ANY_ID : state.agentId);
+            counts.merge(key, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+    }
+    
+    /**
+     * The dimensions of a ticket last seen by the aggregator.
+     */
+    private static final class TicketState {
+        
+        private final int status;
+        private final int priority;
+        private final long categoryId;
+        private final long agentId;
+        private final long createdAt;
+        
+        private TicketState(int status, int priority, long categoryId, long agentId, long createdAt) {
+            this.status = status;
+            this.priority = priority;
+            this.categoryId = categoryId;
+            this.agentId = agentId;
+            this.createdAt = createdAt;
+        }
+        
+        static TicketState of(Ticket ticket) {
+            return new TicketState(
+                    ticket.getStatus() == null ? NO_VALUE : ticket.getStatus().ordinal(),
+                    ticket.getPriority() == null ? NO_VALUE : ticket.getPriority().ordinal(),
+                    ticket.getCategory() == null || ticket.getCategory().getId() == null
+                            ? NO_ID : ticket.getCategory().getId(),
+                    ticket.getAssignedAgent() == null || ticket.getAssignedAgent().getId() == null
+                            ? NO_ID : ticket.getAssignedAgent().getId(),
+                    ticket.getCreatedAt() == null ? 0L : ticket.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+        }
+        
+        boolean isOpen() {
+            return status == TicketStatus.NEW.ordinal() || status == TicketStatus.IN_PROGRESS.ordinal()
+                    || status == TicketStatus.PENDING.ordinal();
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof TicketState)) {
+                return false;
+            }
+            TicketState that = (TicketState) other;
+            return status == that.status && priority == that.priority && categoryId == that.categoryId
+                    && agentId == that.agentId && createdAt == that.createdAt;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(status, priority, categoryId, agentId, createdAt);
+        }
+    }
+    
+    /**
+     * A cell of the counter cube; open dimensions hold ANY or ANY_ID.
+     */
+    private static final class CubeKey {
+        
+        private final int status;
+        private final int priority;
+        private final long categoryId;
+        private final long agentId;
+        
+        private CubeKey(int status, int priority, long categoryId, long agentId) {
+            this.status = status;
+            this.priority = priority;
+            this.categoryId = categoryId;
+            this.agentId = agentId;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CubeKey)) {
+                return false;
+            }
+            CubeKey that = (CubeKey) other;
+            return status == that.status && priority == that.priority
+                    && categoryId == that.categoryId && agentId == that.agentId;
+        }
+        
+        @Override
+        public int hashCode() {
+            int hash = 31 * status + priority;
+            hash = 31 * hash + Long.hashCode(categoryId);
+            return 31 * hash + Long.hashCode(agentId);
+        }
+    }
+    
+    /**
+     * An open ticket in an age bucket, ordered by creation time.
+     */
+    private static final class AgeEntry implements Comparable<AgeEntry> {
+        
+        private final long createdAt;
+        private final long id;
+        
+        private AgeEntry(long createdAt, long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+        
+        @Override
+        public int compareTo(AgeEntry other) {
+            int byCreation = Long.compare(createdAt, other.createdAt);
+            return byCreation != 0 ? byCreation : Long.compare(id, other.id);
+        }
+    }
+}
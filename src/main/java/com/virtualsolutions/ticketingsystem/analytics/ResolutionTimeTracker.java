@@ -0,0 +1,177 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Time-to-resolution percentiles for SLA reporting.
+ * Each ticket's resolution time is recorded once, when it first reaches
+ * RESOLVED, into a latency sketch for its resolution day, agent, category and
+ * priority. Percentiles for any combination of those dimensions and any range
+ * of days are answered by merging the matching sketches, so p50, p90 and p99
+ * never require sorting raw durations.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class ResolutionTimeTracker implements TicketChangeListener {
+    
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final int RETAINED_DAYS = 2 * 365;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final long NO_ID = Long.MIN_VALUE;
+    private static final int NO_VALUE = -1;
+    
+    private final NavigableMap<Long, Map<SketchKey, LatencySketch>> sketchesByDay = new TreeMap<>();
+    private final Set<Long> recordedTickets = new HashSet<>();
+    
+    @Override
+    public synchronized void onTicketCreated(Ticket ticket) {
+        observe(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketUpdated(Ticket ticket) {
+        observe(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketDeleted(Ticket ticket) {
+        recordedTickets.remove(ticket.getId());
+    }
+    
+    /**
+     * Gets a resolution-time percentile.
+     * 
+     * @param quantile The quantile, between 0 and 1 (0.99 for p99)
+     * @param from The start of the resolution time window
+     * @param to The end of the resolution time window; whole days are included
+     * @param agentId The assigned agent, or null for all agents
+     * @param categoryId The category, or null for all categories
+     * @param priority The priority, or null for all priorities
+     * @return The approximate resolution time, or null if no ticket matches
+     */
+    public synchronized Duration getPercentile(double quantile, LocalDateTime from, LocalDateTime to,
+                                               Long agentId, Long categoryId, TicketPriority priority) {
+        LatencySketch sketch = getSketch(from, to, agentId, categoryId, priority);
+        if (sketch.getCount() == 0) {
+            return null;
+        }
+        return Duration.ofSeconds(Math.round(sketch.getQuantile(quantile)));
+    }
+    
+    /**
+     * Gets the merged sketch of resolution times in seconds, for reading several
+     * percentiles from one merge.
+     * 
+     * @param from The start of the resolution time window
+     * @param to The end of the resolution time window; whole days are included
+     * @param agentId The assigned agent, or null for all agents
+     * @param categoryId The category, or null for all categories
+     * @param priority The priority, or null for all priorities
+     * @return A new sketch holding every matching resolution time
+     */
+    public synchronized LatencySketch getSketch(LocalDateTime from, LocalDateTime to,
+                                                Long agentId, Long categoryId, TicketPriority priority) {
+        long firstDay = dayOf(from);
+        long lastDay = dayOf(to);
+        if (lastDay < firstDay) {
+            throw new IllegalArgumentException("Start of range cannot be after its end");
+        }
+        
+        LatencySketch merged = new LatencySketch(RELATIVE_ACCURACY);
+        for (Map<SketchKey, LatencySketch> sketches : sketchesByDay.subMap(firstDay, true, lastDay, true).values()) {
+            for (Map.Entry<SketchKey, LatencySketch> entry : sketches.entrySet()) {
+                SketchKey key = entry.getKey();
+                if ((agentId == null || agentId == key.agentId)
+                        && (categoryId == null || categoryId == key.categoryId)
+                        && (priority == null || priority.ordinal() == key.priority)) {
+                    merged.merge(entry.getValue());
+                }
+            }
+        }
+        return merged;
+    }
+    
+    /**
+     * Records the ticket's resolution time the first time it is seen resolved.
+     * A reopened ticket keeps its original resolution time, so it is not
+     * recorded again. Closed tickets are forgotten, which keeps the set of
+     * recorded tickets to those not yet closed; a closed ticket reopened
+     * straight to RESOLVED is therefore recorded a second time.
+     */
+    private void observe(Ticket ticket) {
+        if (ticket.getStatus() == TicketStatus.CLOSED) {
+            recordedTickets.remove(ticket.getId());
+            return;
+        }
+        if (ticket.getStatus() != TicketStatus.RESOLVED || ticket.getResolvedAt() == null
+                || ticket.getCreatedAt() == null || !recordedTickets.add(ticket.getId())) {
+            return;
+        }
+        long seconds = Math.max(0, Duration.between(ticket.getCreatedAt(), ticket.getResolvedAt()).getSeconds());
+        long day = dayOf(ticket.getResolvedAt());
+        if (!sketchesByDay.isEmpty() && day <= sketchesByDay.lastKey() - RETAINED_DAYS) {
+            return;
+        }
+        
+        SketchKey key = new SketchKey(
+                ticket.getAssignedAgent() == null || ticket.getAssignedAgent().getId() == null
+                        ? NO_ID : ticket.getAssignedAgent().getId(),
+                ticket.getCategory() == null || ticket.getCategory().getId() == null
+                        ? NO_ID : ticket.getCategory().getId(),
+                ticket.getPriority() == null ? NO_VALUE : ticket.getPriority().ordinal());
+        sketchesByDay.computeIfAbsent(day, d -> new HashMap<>())
+                .computeIfAbsent(key, k -> new LatencySketch(RELATIVE_ACCURACY))
+                .add(seconds);
+        // Drop days that have fallen out of the retained window
+        sketchesByDay.headMap(sketchesByDay.lastKey() - RETAINED_DAYS, true).clear();
+    }
+    
+    private static long dayOf(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_DAY);
+    }
+    
+    /**
+     * Identifies the sketch for one agent, category and priority within a day.
+     */
+    private static final class SketchKey {
+        
+        private final long agentId;
+        private final long categoryId;
+        private final int priority;
+        
+        private SketchKey(long agentId, long categoryId, int priority) {
+            this.agentId = agentId;
+            this.categoryId = categoryId;
+            this.priority = priority;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof SketchKey)) {
+                return false;
+            }
+            SketchKey that = (SketchKey) other;
+            return agentId == that.agentId && categoryId == that.categoryId && priority == that.priority;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(agentId, categoryId, priority);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter tracker over long keys.
+ * Monitors a fixed number of keys; when a new key arrives and all slots are
+ * taken, it replaces the key with the lowest count and inherits that count as
+ * its error bound. Any key occurring more than total / capacity times is
+ * guaranteed to be monitored. Counters are kept in a stream summary, a list of
+ * buckets of equal count ordered by count, so every update is constant time.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class SpaceSaving {
+    
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+    private Bucket lowest;
+    private Bucket highest;
+    private long total;
+    
+    /**
+     * Creates a tracker.
+     * 
+     * @param capacity The number of keys monitored
+     */
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+    
+    /**
+     * Counts one occurrence of a key.
+     * 
+     * @param key The key
+     */
+    public void add(long key) {
+        total++;
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter(key, 0, 0);
+                insert(counter, 1);
+                counters.put(key, counter);
+                return;
+            }
+            // Take over the slot of a key with the lowest count
+            counter = lowest.head;
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+            counters.put(key, counter);
+        }
+        increment(counter);
+    }
+    
+    /**
+     * Adds the counts of another tracker to this one. Keys that one tracker
+     * does not monitor are assumed to have occurred as often as its lowest
+     * count, which is added to their error bound; only the keys with the
+     * highest combined counts are kept.
+     * 
+     * @param other The tracker to merge
+     */
+    public void merge(SpaceSaving other) {
+        long ownMinimum = counters.size() < capacity ? 0 : lowest.count;
+        long otherMinimum = other.counters.size() < other.capacity ? 0 : other.lowest.count;
+        Map<Long, Entry> combined = new HashMap<>();
+        for (Counter counter : counters.values()) {
+            Counter match = other.counters.get(counter.key);
+            combined.put(counter.key, match == null
+                    ? new Entry(counter.key, counter.count + otherMinimum, counter.error + otherMinimum)
+                    : new Entry(counter.key, counter.count + match.count, counter.error + match.error));
+        }
+        for (Counter counter : other.counters.values()) {
+            if (!combined.containsKey(counter.key)) {
+                combined.put(counter.key, new Entry(counter.key, counter.count + ownMinimum,
+                        counter.error + ownMinimum));
+            }
+        }
+        
+        List<Entry> entries = new ArrayList<>(combined.values());
+        entries.sort(Comparator.comparingLong(Entry::getCount).reversed());
+        counters.clear();
+        lowest = null;
+        highest = null;
+        // Rebuild the summary from the lowest kept count upwards
+        for (int i = Math.min(capacity, entries.size()) - 1; i >= 0; i--) {
+            Entry entry = entries.get(i);
+            Counter counter = new Counter(entry.key, 0, entry.error);
+            if (highest == null || highest.count != entry.count) {
+                Bucket bucket = new Bucket(entry.count);
+                link(highest, bucket);
+            }
+            attach(counter, highest);
+            counters.put(entry.key, counter);
+        }
+        total += other.total;
+    }
+    
+    /**
+     * Gets the monitored keys with the highest counts.
+     * 
+     * @param k The maximum number of keys to return
+     * @return The keys, highest count first
+     */
+    public List<Entry> getTop(int k) {
+        List<Entry> top = new ArrayList<>(Math.min(k, counters.size()));
+        for (Bucket bucket = highest; bucket != null && top.size() < k; bucket = bucket.lower) {
+            for (Counter counter = bucket.head; counter != null && top.size() < k; counter = counter.next) {
+                top.add(new Entry(counter.key, counter.count, counter.error));
+            }
+        }
+        return top;
+    }
+    
+    /**
+     * Gets the number of occurrences counted, including merged trackers.
+     * 
+     * @return The total count
+     */
+    public long getTotal() {
+        return total;
+    }
+    
+    /**
+     * Gets the number of keys monitored.
+     * 
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Places a new counter in the bucket for the given count at the bottom of the summary.
+     */
+    private void insert(Counter counter, long count) {
+        if (lowest == null || lowest.count != count) {
+            Bucket bucket = new Bucket(count);
+            bucket.higher = lowest;
+            if (lowest != null) {
+                lowest.lower = bucket;
+            } else {
+                highest = bucket;
+            }
+            lowest = bucket;
+        }
+        attach(counter, lowest);
+    }
+    
+    /**
+     * Moves a counter to the bucket one count higher, creating it if needed.
+     */
+    private void increment(Counter counter) {
+        Bucket current = counter.bucket;
+        Bucket target = current.higher;
+        if (target == null || target.count != current.count + 1) {
+            target = new Bucket(current.count + 1);
+            link(current, target);
+        }
+        detach(counter);
+        attach(counter, target);
+    }
+    
+    /**
+     * Links a new bucket directly above another, or as the lowest bucket if there is none.
+     */
+    private void link(Bucket below, Bucket bucket) {
+        bucket.lower = below;
+        if (below == null) {
+            bucket.higher = lowest;
+            if (lowest != null) {
+                lowest.lower = bucket;
+            }
+            lowest = bucket;
+        } else {
+            bucket.higher = below.higher;
+            if (below.higher != null) {
+                below.higher.lower = bucket;
+            }
+            below.higher = bucket;
+        }
+        if (bucket.higher == null) {
+            highest = bucket;
+        }
+    }
+    
+    private void attach(Counter counter, Bucket bucket) {
+        counter.bucket = bucket;
+        counter.count = bucket.count;
+        counter.prev = null;
+        counter.next = bucket.head;
+        if (bucket.head != null) {
+            bucket.head.prev = counter;
+        }
+        bucket.head = counter;
+    }
+    
+    /**
+     * Unlinks a counter from its bucket, dropping the bucket once it is empty.
+     */
+    private void detach(Counter counter) {
+        Bucket bucket = counter.bucket;
+        if (counter.prev != null) {
+            counter.prev.next = counter.next;
+        } else {
+            bucket.head = counter.next;
+        }
+        if (counter.next != null) {
+            counter.next.prev = counter.prev;
+        }
+        if (bucket.head == null) {
+            if (bucket.lower != null) {
+                bucket.lower.higher = bucket.higher;
+            } else {
+                lowest = bucket.higher;
+            }
+            if (bucket.higher != null) {
+                bucket.higher.lower = bucket.lower;
+            } else {
+                highest = bucket.lower;
+            }
+        }
+    }
+    
+    /**
+     * A monitored key with its estimated count.
+     */
+    public static final class Entry {
+        
+        private final long key;
+        private final long count;
+        private final long error;
+        
+        private Entry(long key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+        
+        /**
+         * Gets the key.
+         * 
+         * @return The key
+         */
+        public long getKey() {
+            return key;
+        }
+        
+        /**
+         * Gets the estimated count, which never underestimates the true count.
+         * 
+         * @return The estimated count
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        /**
+         * Gets the maximum overestimation of the count.
+         * 
+         * @return The error bound
+         */
+        public long getError() {
+            return error;
+        }
+    }
+    
+    private static final class Counter {
+        
+        private long key;
+        private long count;
+        private long error;
+        private Bucket bucket;
+        private Counter prev;
+        private Counter next;
+        
+        private Counter(long key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+    
+    private static final class Bucket {
+        
+        private final long count;
+        private Counter head;
+        private Bucket lower;
+        private Bucket higher;
+        
+        private Bucket(long count) {
+            this.count = count;
+        }
+    }
+}
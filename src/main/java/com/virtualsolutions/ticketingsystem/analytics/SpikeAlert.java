@@ -0,0 +1,91 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import java.time.Instant;
+
+/**
+ * Alert raised when ticket creation in a category spikes above its usual rate.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class SpikeAlert {
+    
+    private final Long categoryId;
+    private final Instant detectedAt;
+    private final long observedCount;
+    private final double expectedCount;
+    private final double zScore;
+    
+    /**
+     * Creates an alert.
+     * 
+     * @param categoryId The category that spiked, or null for uncategorized tickets
+     * @param detectedAt When the spike was detected
+     * @param observedCount The tickets created in the current interval so far
+     * @param expectedCount The average tickets created per interval
+     * @param zScore How many standard deviations the observed count lies above the average
+     */
+    public SpikeAlert(Long categoryId, Instant detectedAt, long observedCount, double expectedCount, double zScore) {
+        this.categoryId = categoryId;
+        this.detectedAt = detectedAt;
+        this.observedCount = observedCount;
+        this.expectedCount = expectedCount;
+        this.zScore = zScore;
+    }
+    
+    /**
+     * Gets the category that spiked.
+     * 
+     * @return The category ID, or null for uncategorized tickets
+     */
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    /**
+     * Gets when the spike was detected.
+     * 
+     * @return The detection time
+     */
+    public Instant getDetectedAt() {
+        return detectedAt;
+    }
+    
+    /**
+     * Gets the tickets created in the current interval when the spike was detected.
+     * 
+     * @return The observed count
+     */
+    public long getObservedCount() {
+        return observedCount;
+    }
+    
+    /**
+     * Gets the average tickets created per interval.
+     * 
+     * @return The expected count
+     */
+    public double getExpectedCount() {
+        return expectedCount;
+    }
+    
+    /**
+     * Gets how many standard deviations the observed count lies above the average.
+     * 
+     * @return The z-score
+     */
+    public double getZScore() {
+        return zScore;
+    }
+    
+    @Override
+    public String toString() {
+        return "SpikeAlert{" +
+                "categoryId=" + categoryId +
+                ", detectedAt=" + detectedAt +
+                ", observedCount=" + observedCount +
+                ", expectedCount=" + String.format("%.1f", expectedCount) +
+                ", zScore=" + String.format("%.1f", zScore) +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+/**
+ * Listener notified when a ticket-creation spike is detected.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public interface SpikeAlertListener {
+    
+    /**
+     * Called when a category's ticket creation rate spikes.
+     * 
+     * @param alert The detected spike
+     */
+    void onSpike(SpikeAlert alert);
+}
@@ -0,0 +1,307 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Time-bucketed rollups of ticket volume for capacity planning.
+ * Counts of tickets created, resolved and closed are kept per minute, hour and
+ * day, broken down by category and priority. Each granularity is a fixed-size
+ * ring buffer: minutes cover the last day, hours the last quarter and days the
+ * last two years, so memory stays constant and charts never scan raw tickets.
+ * Every event updates all three tiers, which makes the coarser tiers exact
+ * downsamplings of the finer ones.
+ * 
+ * Events are bucketed by when they happened: creation by the ticket's creation
+ * time, resolution by its resolution time and closure by its last update.
+ * A transition is detected by comparing a ticket's status with the last one
+ * seen, so the store remembers the status of every live ticket; existing
+ * tickets are loaded with {@link #load} before changes are observed.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketRollupStore implements TicketChangeListener {
+    
+    /**
+     * The ticket events that are counted.
+     */
+    public enum Metric {
+        CREATED, RESOLVED, CLOSED
+    }
+    
+    /**
+     * The bucket sizes and retention of the rollup tiers.
+     */
+    public enum Granularity {
+        MINUTE(60, 24 * 60),
+        HOUR(60 * 60, 24 * 92),
+        DAY(24 * 60 * 60, 2 * 365);
+        
+        private final long seconds;
+        private final int buckets;
+        
+        Granularity(long seconds, int buckets) {
+            this.seconds = seconds;
+            this.buckets = buckets;
+        }
+        
+        /**
+         * Gets the length of one bucket.
+         * 
+         * @return The bucket length in seconds
+         */
+        public long getSeconds() {
+            return seconds;
+        }
+        
+        /**
+         * Gets the number of buckets retained.
+         * 
+         * @return The retained bucket count
+         */
+        public int getBuckets() {
+            return buckets;
+        }
+    }
+    
+    private static final long ANY_ID = Long.MIN_VALUE;
+    private static final long NO_ID = Long.MIN_VALUE + 1;
+    private static final int ANY = -1;
+    private static final int NO_VALUE = -2;
+    
+    private final Map<SeriesKey, Ring[]> series = new HashMap<>();
+    private final Map<Long, TicketStatus> lastStatuses = new HashMap<>();
+    
+    /**
+     * Counts the creation, and any resolution or closure, of existing tickets,
+     * typically the repository's contents at startup, and remembers their
+     * statuses so that later changes are compared against them.
+     * 
+     * @param tickets The tickets to load
+     */
+    public synchronized void load(Collection<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            record(Metric.CREATED, ticket, ticket.getCreatedAt());
+            if (ticket.getResolvedAt() != null || ticket.getStatus() == TicketStatus.RESOLVED) {
+                record(Metric.RESOLVED, ticket, ticket.getResolvedAt());
+            }
+            if (ticket.getStatus() == TicketStatus.CLOSED) {
+                record(Metric.CLOSED, ticket, ticket.getUpdatedAt());
+            }
+            if (ticket.getId() != null) {
+                lastStatuses.put(ticket.getId(), ticket.getStatus());
+            }
+        }
+    }
+    
+    @Override
+    public synchronized void onTicketCreated(Ticket ticket) {
+        record(Metric.CREATED, ticket, ticket.getCreatedAt());
+        observeStatus(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketUpdated(Ticket ticket) {
+        observeStatus(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketDeleted(Ticket ticket) {
+        lastStatuses.remove(ticket.getId());
+    }
+    
+    /**
+     * Gets the event counts for consecutive buckets in a time range.
+     * Buckets that fall outside the tier's retention read as zero.
+     * 
+     * @param metric The event to count
+     * @param granularity The bucket size
+     * @param from The start of the range; its bucket is the first one returned
+     * @param to The end of the range; its bucket is the last one returned
+     * @param categoryId The category to count, or null for all categories
+     * @param priority The priority to count, or null for all priorities
+     * @return The count per bucket, oldest first
+     */
+    public synchronized long[] query(Metric metric, Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                     Long categoryId, TicketPriority priority) {
+        long first = bucketOf(from, granularity);
+        long last = bucketOf(to, granularity);
+        if (last < first) {
+            throw new IllegalArgumentException("Start of range cannot be after its end");
+        }
+        if (last - first >= granularity.buckets) {
+            throw new IllegalArgumentException("Range exceeds the " + granularity.buckets
+                    + " buckets retained at " + granularity + " granularity");
+        }
+        
+        long[] counts = new long[(int) (last - first + 1)];
+        Ring[] rings = series.get(new SeriesKey(metric,
+                categoryId == null ? ANY_ID : categoryId,
+                priority == null ? ANY : priority.ordinal()));
+        if (rings != null) {
+            Ring ring = rings[granularity.ordinal()];
+            for (long bucket = first; bucket <= last; bucket++) {
+                counts[(int) (bucket - first)] = ring.get(bucket);
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Gets the total event count over a time range.
+     * 
+     * @param metric The event to count
+     * @param granularity The bucket size used to answer the query
+     * @param from The start of the range
+     * @param to The end of the range
+     * @param categoryId The category to count, or null for all categories
+     * @param priority The priority to count, or null for all priorities
+     * @return The number of events in the buckets covering the range
+     */
+    public synchronized long total(Metric metric, Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                   Long categoryId, TicketPriority priority) {
+        long total = 0;
+        for (long count : query(metric, granularity, from, to, categoryId, priority)) {
+            total += count;
+        }
+        return total;
+    }
+    
+    /**
+     * Records RESOLVED and CLOSED transitions since the ticket was last seen.
+     * A ticket that was never seen, such as one created closed, counts as
+     * entering its current status; only a repeat of the remembered status is
+     * skipped. Closed tickets stay in the status map, which is bounded by the
+     * live tickets because deletions remove them.
+     */
+    private void observeStatus(Ticket ticket) {
+        if (ticket.getId() == null) {
+            return;
+        }
+        TicketStatus current = ticket.getStatus();
+        TicketStatus previous = lastStatuses.put(ticket.getId(), current);
+        if (current == previous) {
+            return;
+        }
+        if (current == TicketStatus.RESOLVED) {
+            record(Metric.RESOLVED, ticket, ticket.getResolvedAt());
+        } else if (current == TicketStatus.CLOSED) {
+            record(Metric.CLOSED, ticket, ticket.getUpdatedAt());
+        }
+    }
+    
+    /**
+     * Counts an event in every tier of the four series it belongs to: its
+     * category and priority, each of those alone, and neither.
+     */
+    private void record(Metric metric, Ticket ticket, LocalDateTime at) {
+        if (at == null) {
+            at = LocalDateTime.now();
+        }
+        long categoryId = ticket.getCategory() == null || ticket.getCategory().getId() == null
+                ? NO_ID : ticket.getCategory().getId();
+        int priority = ticket.getPriority() == null ? NO_VALUE : ticket.getPriority().ordinal();
+        
+        for (int mask = 0; mask < 4; mask++) {
+            SeriesKey key = new SeriesKey(metric,
+                    (mask & 1) != 0 ? ANY_ID : categoryId,
+                    (mask & 2) != 0 ? ANY : priority);
+            Ring[] rings = series.computeIfAbsent(key, k -> newRings());
+            for (Granularity granularity : Granularity.values()) {
+                rings[granularity.ordinal()].increment(bucketOf(at, granularity));
+            }
+        }
+    }
+    
+    private static Ring[] newRings() {
+        Ring[] rings = new Ring[Granularity.values().length];
+        for (Granularity granularity : Granularity.values()) {
+            rings[granularity.ordinal()] = new Ring(granularity.buckets);
+        }
+        return rings;
+    }
+    
+    private static long bucketOf(LocalDateTime dateTime, Granularity granularity) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), granularity.seconds);
+    }
+    
+    /**
+     * Fixed-size ring of bucket counts. Each slot remembers which bucket it
+     * holds, so slots left over from an earlier lap read as zero.
+     */
+    private static final class Ring {
+        
+        private final long[] counts;
+        private final long[] buckets;
+        private long latest = Long.MIN_VALUE;
+        
+        private Ring(int size) {
+            this.counts = new long[size];
+            this.buckets = new long[size];
+            Arrays.fill(buckets, Long.MIN_VALUE);
+        }
+        
+        void increment(long bucket) {
+            if (latest != Long.MIN_VALUE && bucket <= latest - counts.length) {
+                // Older than the retained window
+                return;
+            }
+            int slot = (int) Math.floorMod(bucket, (long) counts.length);
+            if (buckets[slot] != bucket) {
+                if (buckets[slot] > bucket) {
+                    return;
+                }
+                buckets[slot] = bucket;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+            latest = Math.max(latest, bucket);
+        }
+        
+        long get(long bucket) {
+            int slot = (int) Math.floorMod(bucket, (long) counts.length);
+            return buckets[slot] == bucket ? counts[slot] : 0L;
+        }
+    }
+    
+    /**
+     * Identifies one series; open dimensions hold ANY or ANY_ID.
+     */
+    private static final class SeriesKey {
+        
+        private final Metric metric;
+        private final long categoryId;
+        private final int priority;
+        
+        private SeriesKey(Metric metric, long categoryId, int priority) {
+            this.metric = metric;
+            this.categoryId = categoryId;
+            this.priority = priority;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey that = (SeriesKey) other;
+            return metric == that.metric && categoryId == that.categoryId && priority == that.priority;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(metric, categoryId, priority);
+        }
+    }
+}
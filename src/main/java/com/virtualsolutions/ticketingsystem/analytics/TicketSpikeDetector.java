@@ -0,0 +1,214 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Streaming detector for ticket-creation spikes per category.
+ * Ticket creations are counted in fixed intervals, and each category keeps an
+ * exponentially weighted mean and variance of its per-interval counts. As soon
+ * as the count of the current interval lies more than a threshold number of
+ * standard deviations above the mean, an alert is raised, at most once per
+ * interval and category. Each category needs only a few fields, and a creation
+ * costs one map lookup and a handful of arithmetic operations. Alerts are
+ * delivered to listeners on a background thread so they never delay the
+ * ticket service.
+ * 
+ * A category's first interval is usually seen only in part, so it is not
+ * learned from; the mean starts at the count of the first full interval. No
+ * alert is raised until a warm-up of full intervals has been folded in, by
+ * default 1/alpha of them, so that the variance has grown to fit steady
+ * traffic before counts are judged against it.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketSpikeDetector implements TicketChangeListener, AutoCloseable {
+    
+    private static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(10);
+    private static final double DEFAULT_ALPHA = 0.05;
+    private static final double DEFAULT_THRESHOLD = 4.0;
+    private static final long DEFAULT_MINIMUM_COUNT = 10;
+    // Enough empty intervals to decay any history to zero at practical smoothing factors
+    private static final int MAX_IDLE_UPDATES = 1000;
+    private static final long UNCATEGORIZED = Long.MIN_VALUE;
+    
+    private final Clock clock;
+    private final long intervalMillis;
+    private final double alpha;
+    private final double threshold;
+    private final long minimumCount;
+    private final long warmupIntervals;
+    private final Map<Long, CategoryRate> rates = new ConcurrentHashMap<>();
+    private final List<SpikeAlertListener> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService alertExecutor;
+    
+    /**
+     * Creates a detector with 10-second intervals that alerts at 4 standard
+     * deviations above the mean and at least 10 tickets in an interval.
+     */
+    public TicketSpikeDetector() {
+        this(Clock.systemUTC(), DEFAULT_INTERVAL, DEFAULT_ALPHA, DEFAULT_THRESHOLD, DEFAULT_MINIMUM_COUNT);
+    }
+    
+    /**
+     * Creates a detector that warms up for 1/alpha full intervals.
+     * 
+     * @param clock The clock used to time ticket creations
+     * @param interval The length of the intervals in which creations are counted
+     * @param alpha The smoothing factor of the moving mean and variance, between 0 and 1
+     * @param threshold The number of standard deviations above the mean that counts as a spike
+     * @param minimumCount The smallest interval count that can raise an alert
+     */
+    public TicketSpikeDetector(Clock clock, Duration interval, double alpha, double threshold, long minimumCount) {
+        this(clock, interval, alpha, threshold, minimumCount, (long) Math.ceil(1 / alpha));
+    }
+    
+    /**
+     * Creates a detector.
+     * 
+     * @param clock The clock used to time ticket creations
+     * @param interval The length of the intervals in which creations are counted
+     * @param alpha The smoothing factor of the moving mean and variance, between 0 and 1
+     * @param threshold The number of standard deviations above the mean that counts as a spike
+     * @param minimumCount The smallest interval count that can raise an alert
+     * @param warmupIntervals The number of full intervals a category must have before it can raise an alert
+     */
+    public TicketSpikeDetector(Clock clock, Duration interval, double alpha, double threshold, long minimumCount,
+                               long warmupIntervals) {
+        if (interval.toMillis() <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Smoothing factor must be between 0 and 1");
+        }
+        if (warmupIntervals < 1) {
+            throw new IllegalArgumentException("Warm-up must cover at least one interval");
+        }
+        this.clock = clock;
+        this.intervalMillis = interval.toMillis();
+        this.alpha = alpha;
+        this.threshold = threshold;
+        this.minimumCount = minimumCount;
+        this.warmupIntervals = warmupIntervals;
+        this.alertExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-spike-alerts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Registers a listener to be notified of spikes.
+     * 
+     * @param listener The listener to add
+     */
+    public void addSpikeAlertListener(SpikeAlertListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Unregisters a spike listener.
+     * 
+     * @param listener The listener to remove
+     */
+    public void removeSpikeAlertListener(SpikeAlertListener listener) {
+        listeners.remove(listener);
+    }
+    
+    @Override
+    public void onTicketCreated(Ticket ticket) {
+        Long categoryId = ticket.getCategory() == null ? null : ticket.getCategory().getId();
+        CategoryRate rate = rates.computeIfAbsent(categoryId == null ? UNCATEGORIZED : categoryId,
+                id -> new CategoryRate());
+        Instant now = clock.instant();
+        SpikeAlert alert = rate.record(categoryId, now, Math.floorDiv(now.toEpochMilli(), intervalMillis));
+        if (alert != null && !listeners.isEmpty()) {
+            alertExecutor.execute(() -> {
+                for (SpikeAlertListener listener : listeners) {
+                    listener.onSpike(alert);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Stops the alert delivery thread.
+     */
+    @Override
+    public void close() {
+        alertExecutor.shutdown();
+    }
+    
+    /**
+     * The creation-rate statistics of one category.
+     */
+    private final class CategoryRate {
+        
+        private long firstInterval = Long.MIN_VALUE;
+        private long interval = Long.MIN_VALUE;
+        private long count;
+        private long folded;
+        private double mean;
+        private double variance;
+        private boolean alerted;
+        
+        synchronized SpikeAlert record(Long categoryId, Instant now, long currentInterval) {
+            if (currentInterval > interval) {
+                if (interval == Long.MIN_VALUE) {
+                    firstInterval = currentInterval;
+                } else {
+                    // The first interval was joined part way through, so its count is too low to learn from
+                    if (interval != firstInterval) {
+                        update(count);
+                    }
+                    long idle = Math.min(currentInterval - interval - 1, MAX_IDLE_UPDATES);
+                    for (long i = 0; i < idle; i++) {
+                        update(0);
+                    }
+                }
+                interval = currentInterval;
+                count = 0;
+                alerted = false;
+            }
+            count++;
+            
+            if (alerted || count < minimumCount || folded < warmupIntervals) {
+                return null;
+            }
+            // Floor the deviation at one ticket so a quiet category does not alert on noise
+            double deviation = Math.max(Math.sqrt(variance), 1.0);
+            double zScore = (count - mean) / deviation;
+            if (zScore < threshold) {
+                return null;
+            }
+            alerted = true;
+            return new SpikeAlert(categoryId, now, count, mean, zScore);
+        }
+        
+        /**
+         * Folds a completed interval's count into the moving mean and variance.
+         * The first full interval seeds the mean rather than pulling it up from zero.
+         */
+        private void update(long value) {
+            if (folded++ == 0) {
+                mean = value;
+                return;
+            }
+            double difference = value - mean;
+            double increment = alpha * difference;
+            mean += increment;
+            variance = (1 - alpha) * (variance + difference * increment);
+        }
+    }
+}
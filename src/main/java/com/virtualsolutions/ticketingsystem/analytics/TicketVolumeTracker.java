@@ -0,0 +1,179 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Approximate per-hour ticket volume analytics for supervisors.
+ * Each new ticket is counted in the hour it was created: its customer goes into
+ * a HyperLogLog distinct counter, and its customer, category and assigned agent
+ * into Space-Saving heavy-hitter trackers. Hours are kept in a fixed ring
+ * covering the last week, so memory is constant and every update is constant
+ * time. Queries over several hours merge the hourly summaries.
+ * 
+ * A ticket created without an agent, as before automatic assignment picks
+ * one, is remembered in its hour and counted for the first agent it is
+ * assigned while that hour is retained. Later reassignments are not counted,
+ * so every ticket counts toward one agent at most. The remembered IDs are the
+ * only state that grows with volume, and they are dropped with their hour.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketVolumeTracker implements TicketChangeListener {
+    
+    /**
+     * The ticket attributes tracked for heavy hitters.
+     */
+    public enum Dimension {
+        CUSTOMER, CATEGORY, AGENT
+    }
+    
+    private static final int RETAINED_HOURS = 7 * 24;
+    private static final long SECONDS_PER_HOUR = 60 * 60;
+    private static final int HLL_PRECISION = 12;
+    private static final int TRACKED_KEYS = 100;
+    
+    private final Window[] windows = new Window[RETAINED_HOURS];
+    private long latestHour = Long.MIN_VALUE;
+    
+    @Override
+    public synchronized void onTicketCreated(Ticket ticket) {
+        LocalDateTime createdAt = ticket.getCreatedAt() == null ? LocalDateTime.now() : ticket.getCreatedAt();
+        long hour = hourOf(createdAt);
+        if (latestHour != Long.MIN_VALUE && hour <= latestHour - RETAINED_HOURS) {
+            return;
+        }
+        int slot = (int) Math.floorMod(hour, (long) RETAINED_HOURS);
+        Window window = windows[slot];
+        if (window == null || window.hour < hour) {
+            window = new Window(hour);
+            windows[slot] = window;
+        } else if (window.hour > hour) {
+            return;
+        }
+        latestHour = Math.max(latestHour, hour);
+        
+        if (ticket.getCustomer() != null && ticket.getCustomer().getId() != null) {
+            window.customers.add(ticket.getCustomer().getId());
+            window.topKeys[Dimension.CUSTOMER.ordinal()].add(ticket.getCustomer().getId());
+        }
+        if (ticket.getCategory() != null && ticket.getCategory().getId() != null) {
+            window.topKeys[Dimension.CATEGORY.ordinal()].add(ticket.getCategory().getId());
+        }
+        if (ticket.getAssignedAgent() != null && ticket.getAssignedAgent().getId() != null) {
+            window.topKeys[Dimension.AGENT.ordinal()].add(ticket.getAssignedAgent().getId());
+        } else if (ticket.getId() != null) {
+            window.unassigned.add(ticket.getId());
+        }
+    }
+    
+    @Override
+    public synchronized void onTicketUpdated(Ticket ticket) {
+        if (ticket.getAssignedAgent() == null || ticket.getAssignedAgent().getId() == null
+                || ticket.getCreatedAt() == null) {
+            return;
+        }
+        Window window = windowFor(hourOf(ticket.getCreatedAt()));
+        if (window != null && window.unassigned.remove(ticket.getId())) {
+            window.topKeys[Dimension.AGENT.ordinal()].add(ticket.getAssignedAgent().getId());
+        }
+    }
+    
+    @Override
+    public synchronized void onTicketDeleted(Ticket ticket) {
+        if (ticket.getCreatedAt() != null) {
+            Window window = windowFor(hourOf(ticket.getCreatedAt()));
+            if (window != null) {
+                window.unassigned.remove(ticket.getId());
+            }
+        }
+    }
+    
+    /**
+     * Gets the estimated number of distinct customers who created tickets in a time range.
+     * 
+     * @param from The start of the range; its whole hour is included
+     * @param to The end of the range; its whole hour is included
+     * @return The estimated distinct customer count, within about 2%
+     */
+    public synchronized long estimateDistinctCustomers(LocalDateTime from, LocalDateTime to) {
+        HyperLogLog merged = new HyperLogLog(HLL_PRECISION);
+        long first = hourOf(from);
+        long last = checkRange(first, hourOf(to));
+        for (long hour = first; hour <= last; hour++) {
+            Window window = windowFor(hour);
+            if (window != null) {
+                merged.merge(window.customers);
+            }
+        }
+        return merged.estimate();
+    }
+    
+    /**
+     * Gets the keys of a dimension with the most tickets created in a time range.
+     * 
+     * @param dimension The ticket attribute to rank
+     * @param from The start of the range; its whole hour is included
+     * @param to The end of the range; its whole hour is included
+     * @param k The maximum number of keys to return
+     * @return The customer, category or agent IDs with their estimated ticket counts, highest first
+     */
+    public synchronized List<SpaceSaving.Entry> getTop(Dimension dimension, LocalDateTime from, LocalDateTime to,
+                                                       int k) {
+        SpaceSaving merged = new SpaceSaving(TRACKED_KEYS);
+        long first = hourOf(from);
+        long last = checkRange(first, hourOf(to));
+        for (long hour = first; hour <= last; hour++) {
+            Window window = windowFor(hour);
+            if (window != null) {
+                merged.merge(window.topKeys[dimension.ordinal()]);
+            }
+        }
+        return merged.getTop(k);
+    }
+    
+    private Window windowFor(long hour) {
+        Window window = windows[(int) Math.floorMod(hour, (long) RETAINED_HOURS)];
+        return window != null && window.hour == hour ? window : null;
+    }
+    
+    private static long checkRange(long first, long last) {
+        if (last < first) {
+            throw new IllegalArgumentException("Start of range cannot be after its end");
+        }
+        if (last - first >= RETAINED_HOURS) {
+            throw new IllegalArgumentException("Range exceeds the " + RETAINED_HOURS + " hours retained");
+        }
+        return last;
+    }
+    
+    private static long hourOf(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_HOUR);
+    }
+    
+    /**
+     * The summaries of the tickets created in one hour.
+     */
+    private static final class Window {
+        
+        private final long hour;
+        private final HyperLogLog customers = new HyperLogLog(HLL_PRECISION);
+        private final SpaceSaving[] topKeys = new SpaceSaving[Dimension.values().length];
+        // Tickets created this hour that have not had an agent yet
+        private final Set<Long> unassigned = new HashSet<>();
+        
+        private Window(long hour) {
+            this.hour = hour;
+            for (int i = 0; i < topKeys.length; i++) {
+                topKeys[i] = new SpaceSaving(TRACKED_KEYS);
+            }
+        }
+    }
+}
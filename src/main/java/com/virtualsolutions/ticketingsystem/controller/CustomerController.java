@@ -100,7 +100,7 @@ public class CustomerController {
     }
     
     /**
-     * Searches for customers by their name (partial match).
+     * Searches for customers by their name (partial or sound-alike match).
      * 
      * @param name The name to search for
      * @return A list of customers matching the name
@@ -114,6 +114,23 @@ public class CustomerController {
         }
     }
     
+    /**
+     * Searches for customers whose names closely match the given name,
+     * tolerating misspellings.
+     * 
+     * @param name The name to search for
+     * @param maxDistance The most edits allowed per word of the name
+     * @return A list of matching customers, closest match first
+     * @throws RuntimeException if the operation fails
+     */
+    public List<Customer> searchCustomersByNameFuzzy(String name, int maxDistance) {
+        try {
+            return customerService.searchCustomersByNameFuzzy(name, maxDistance);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to search customers by name: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Gets a customer by their email address.
      * 
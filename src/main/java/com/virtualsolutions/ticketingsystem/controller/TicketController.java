@@ -4,6 +4,7 @@ import com.virtualsolutions.ticketingsystem.model.Comment;
 import com.virtualsolutions.ticketingsystem.model.Ticket;
 import com.virtualsolutions.ticketingsystem.model.TicketPriority;
 import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.search.TicketSearchResult;
 import com.virtualsolutions.ticketingsystem.service.TicketService;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -224,6 +225,36 @@ public class TicketController {
         }
     }
     
+    /**
+     * Assigns a ticket to the least-loaded eligible agent.
+     * 
+     * @param ticketId The ID of the ticket to assign
+     * @return The assigned ticket, or empty if no eligible agent is available
+     * @throws RuntimeException if the operation fails
+     */
+    public Optional<Ticket> autoAssignTicket(Long ticketId) {
+        try {
+            return ticketService.autoAssignTicket(ticketId);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to auto-assign ticket: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Assigns the best waiting ticket to an agent pulling work.
+     * 
+     * @param agentId The ID of the agent pulling work
+     * @return The assigned ticket, or empty if no ticket is waiting for the agent
+     * @throws RuntimeException if the operation fails
+     */
+    public Optional<Ticket> assignNextTicket(Long agentId) {
+        try {
+            return ticketService.assignNextTicket(agentId);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to assign next ticket: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Updates the status of a ticket.
      * 
@@ -291,4 +322,66 @@ public class TicketController {
             throw new RuntimeException("Failed to search tickets: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * Searches for the tickets most relevant to a keyword query.
+     * 
+     * @param keyword The words to search for in title, description and comments
+     * @param status The status to filter by (optional)
+     * @param priority The priority to filter by (optional)
+     * @param categoryId The category ID to filter by (optional)
+     * @param agentId The agent ID to filter by (optional)
+     * @param customerId The customer ID to filter by (optional)
+     * @param limit The maximum number of tickets to return
+     * @return The best matching tickets, most relevant first
+     * @throws RuntimeException if the operation fails
+     */
+    public List<Ticket> searchTickets(String keyword, TicketStatus status, TicketPriority priority, 
+                                     Long categoryId, Long agentId, Long customerId, int limit) {
+        try {
+            return ticketService.searchTickets(keyword, status, priority, categoryId, agentId, customerId, limit);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to search tickets: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Searches for the tickets most relevant to a keyword query and counts all
+     * matching tickets by status, priority, category and agent.
+     * 
+     * @param keyword The words to search for, or null to match every ticket passing the filters
+     * @param status The status to filter by (optional)
+     * @param priority The priority to filter by (optional)
+     * @param categoryId The category ID to filter by (optional)
+     * @param agentId The agent ID to filter by (optional)
+     * @param customerId The customer ID to filter by (optional)
+     * @param limit The maximum number of tickets to return
+     * @return The best matching tickets with facet counts over every match
+     * @throws RuntimeException if the operation fails
+     */
+    public TicketSearchResult searchTicketsWithFacets(String keyword, TicketStatus status, TicketPriority priority, 
+                                                      Long categoryId, Long agentId, Long customerId, int limit) {
+        try {
+            return ticketService.searchTicketsWithFacets(keyword, status, priority, categoryId, agentId, customerId,
+                    limit);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to search tickets: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Finds open tickets that are near duplicates of a ticket.
+     * 
+     * @param ticketId The ID of the ticket to compare against
+     * @param limit The maximum number of tickets to return
+     * @return Similar open tickets, most similar first
+     * @throws RuntimeException if the operation fails
+     */
+    public List<Ticket> findSimilarOpenTickets(Long ticketId, int limit) {
+        try {
+            return ticketService.findSimilarOpenTickets(ticketId, limit);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to find similar tickets: " + e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,190 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.virtualsolutions.ticketingsystem.model.Agent;
+
+/**
+ * Indexed binary min-heap of agents ordered by open-ticket load.
+ * Each entry remembers its position in the heap, so an agent's load can be
+ * changed in O(log n) without searching. Agents with equal load are ordered by
+ * when they last received a ticket, so ties rotate between them. Not
+ * thread-safe; callers synchronize externally.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class AgentLoadHeap {
+    
+    private Entry[] heap = new Entry[16];
+    private int size;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long sequence;
+    
+    /**
+     * Adds an agent, or replaces the details of an agent already in the heap.
+     * 
+     * @param agent The agent to add
+     * @param load The agent's current open-ticket load, used if the agent is new
+     */
+    void add(Agent agent, int load) {
+        Entry entry = entries.get(agent.getId());
+        if (entry != null) {
+            entry.agent = agent;
+            return;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        entry = new Entry(agent, load);
+        entries.put(agent.getId(), entry);
+        entry.position = size;
+        heap[size++] = entry;
+        siftUp(entry.position);
+    }
+    
+    /**
+     * Removes an agent.
+     * 
+     * @param agentId The ID of the agent to remove
+     * @return The agent's load at removal, or -1 if the agent was not in the heap
+     */
+    int remove(long agentId) {
+        Entry entry = entries.remove(agentId);
+        if (entry == null) {
+            return -1;
+        }
+        int position = entry.position;
+        Entry last = heap[--size];
+        heap[size] = null;
+        if (position < size) {
+            heap[position] = last;
+            last.position = position;
+            siftDown(position);
+            siftUp(last.position);
+        }
+        return entry.load;
+    }
+    
+    /**
+     * Gives a ticket to the least-loaded agent.
+     * 
+     * @return The agent with the lowest load, whose load has been incremented,
+     *         or null if the heap is empty
+     */
+    Agent takeLeastLoaded() {
+        if (size == 0) {
+            return null;
+        }
+        Entry entry = heap[0];
+        entry.load++;
+        entry.lastAssigned = ++sequence;
+        siftDown(0);
+        return entry.agent;
+    }
+    
+    /**
+     * Gets the lowest load in the heap.
+     * 
+     * @return The lowest load, or Integer.MAX_VALUE if the heap is empty
+     */
+    int peekLoad() {
+        return size == 0 ? Integer.MAX_VALUE : heap[0].load;
+    }
+    
+    /**
+     * Changes an agent's load.
+     * 
+     * @param agentId The ID of the agent
+     * @param delta The change in open tickets
+     * @return true if the agent is in the heap, false otherwise
+     */
+    boolean adjust(long agentId, int delta) {
+        Entry entry = entries.get(agentId);
+        if (entry == null) {
+            return false;
+        }
+        entry.load = Math.max(0, entry.load + delta);
+        if (delta < 0) {
+            siftUp(entry.position);
+        } else {
+            siftDown(entry.position);
+        }
+        return true;
+    }
+    
+    /**
+     * Gets an agent's load.
+     * 
+     * @param agentId The ID of the agent
+     * @return The agent's open-ticket load, or -1 if the agent is not in the heap
+     */
+    int getLoad(long agentId) {
+        Entry entry = entries.get(agentId);
+        return entry == null ? -1 : entry.load;
+    }
+    
+    /**
+     * Gets the number of agents in the heap.
+     * 
+     * @return The agent count
+     */
+    int size() {
+        return size;
+    }
+    
+    private void siftUp(int position) {
+        Entry entry = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!entry.before(heap[parent])) {
+                break;
+            }
+            heap[position] = heap[parent];
+            heap[position].position = position;
+            position = parent;
+        }
+        heap[position] = entry;
+        entry.position = position;
+    }
+    
+    private void siftDown(int position) {
+        Entry entry = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].before(heap[child])) {
+                child++;
+            }
+            if (!heap[child].before(entry)) {
+                break;
+            }
+            heap[position] = heap[child];
+            heap[position].position = position;
+            position = child;
+        }
+        heap[position] = entry;
+        entry.position = position;
+    }
+    
+    private static final class Entry {
+        
+        private Agent agent;
+        private int load;
+        private long lastAssigned;
+        private int position;
+        
+        private Entry(Agent agent, int load) {
+            this.agent = agent;
+            this.load = load;
+        }
+        
+        boolean before(Entry other) {
+            return load != other.load ? load < other.load : lastAssigned < other.lastAssigned;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.virtualsolutions.ticketingsystem.model.Agent;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Load-aware automatic ticket assignment.
+ * Agents are kept in one indexed load heap per department, so the least-loaded
+ * agent of a department is found and charged with a new ticket in O(log n).
+ * Each department heap has its own lock, so assignments in different
+ * departments never contend. A ticket is eligible for the department its
+ * category is mapped to, or for every department if its category is unmapped.
+ * 
+ * Loads count open tickets. The engine listens to ticket changes and moves
+ * load whenever a ticket is assigned or reassigned, resolved, closed, reopened
+ * or deleted, whether the assignment was made by the engine or by hand.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class AutoAssignmentEngine implements TicketChangeListener {
+    
+    private final Map<String, AgentLoadHeap> heaps = new ConcurrentHashMap<>();
+    private final Map<Long, String> agentDepartments = new ConcurrentHashMap<>();
+    private final Map<Long, String> categoryDepartments = new ConcurrentHashMap<>();
+    private final Map<Long, Long> openAssignments = new ConcurrentHashMap<>();
+    
+    /**
+     * Makes an agent available for assignment, or moves the agent to its
+     * current department if it has changed.
+     * 
+     * @param agent The agent to register
+     */
+    public void registerAgent(Agent agent) {
+        if (agent == null || agent.getId() == null) {
+            throw new IllegalArgumentException("Agent and agent ID cannot be null");
+        }
+        String department = normalizeDepartment(agent.getDepartment());
+        String previous = agentDepartments.put(agent.getId(), department);
+        int load = 0;
+        if (previous != null && !previous.equals(department)) {
+            AgentLoadHeap oldHeap = heaps.get(previous);
+            synchronized (oldHeap) {
+                load = Math.max(0, oldHeap.remove(agent.getId()));
+            }
+        }
+        AgentLoadHeap heap = heaps.computeIfAbsent(department, d -> new AgentLoadHeap());
+        synchronized (heap) {
+            heap.add(agent, load);
+        }
+    }
+    
+    /**
+     * Stops assigning tickets to an agent. Tickets already assigned are kept.
+     * 
+     * @param agentId The ID of the agent
+     * @return true if the agent was registered, false otherwise
+     */
+    public boolean unregisterAgent(Long agentId) {
+        String department = agentDepartments.remove(agentId);
+        if (department == null) {
+            return false;
+        }
+        AgentLoadHeap heap = heaps.get(department);
+        synchronized (heap) {
+            heap.remove(agentId);
+        }
+        return true;
+    }
+    
+    /**
+     * Routes tickets of a category to the agents of one department.
+     * 
+     * @param categoryId The ID of the category
+     * @param department The department that handles the category, or null to
+     *                   make the category eligible for every department
+     */
+    public void setCategoryDepartment(Long categoryId, String department) {
+        if (department == null) {
+            categoryDepartments.remove(categoryId);
+        } else {
+            categoryDepartments.put(categoryId, normalizeDepartment(department));
+        }
+    }
+    
+    /**
+     * Counts the open assigned tickets of an existing ticket set, such as the
+     * contents of a repository when the engine is created.
+     * 
+     * @param tickets The tickets to count
+     */
+    public void load(Collection<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            reconcile(ticket);
+        }
+    }
+    
+    /**
+     * Chooses the least-loaded eligible agent for a ticket and charges the
+     * ticket to that agent's load. The caller is expected to assign the ticket
+     * to the returned agent; if it does not, it must call
+     * {@link #release(Long)}.
+     * 
+     * @param ticket The ticket to assign
+     * @return The chosen agent, or empty if no eligible agent is registered
+     */
+    public Optional<Agent> selectAgent(Ticket ticket) {
+        if (ticket == null || ticket.getId() == null) {
+            throw new IllegalArgumentException("Ticket and ticket ID cannot be null");
+        }
+        Long categoryId = ticket.getCategory() == null ? null : ticket.getCategory().getId();
+        String department = categoryId == null ? null : categoryDepartments.get(categoryId);
+        
+        Agent agent = null;
+        if (department != null) {
+            AgentLoadHeap heap = heaps.get(department);
+            if (heap != null) {
+                synchronized (heap) {
+                    agent = heap.takeLeastLoaded();
+                }
+            }
+        } else {
+            agent = takeLeastLoadedOverall();
+        }
+        if (agent == null) {
+            return Optional.empty();
+        }
+        
+        Long agentId = agent.getId();
+        openAssignments.compute(ticket.getId(), (id, previous) -> {
+            if (previous != null) {
+                adjustLoad(previous, -1);
+            }
+            return agentId;
+        });
+        return Optional.of(agent);
+    }
+    
+    /**
+     * Removes a ticket from its agent's load.
+     * 
+     * @param ticketId The ID of the ticket
+     */
+    public void release(Long ticketId) {
+        openAssignments.computeIfPresent(ticketId, (id, agentId) -> {
+            adjustLoad(agentId, -1);
+            return null;
+        });
+    }
+    
+    /**
+     * Gets an agent's current load.
+     * 
+     * @param agentId The ID of the agent
+     * @return The number of open tickets charged to the agent, or -1 if the agent is not registered
+     */
+    public int getLoad(Long agentId) {
+        String department = agentDepartments.get(agentId);
+        if (department == null) {
+            return -1;
+        }
+        AgentLoadHeap heap = heaps.get(department);
+        synchronized (heap) {
+            return heap.getLoad(agentId);
+        }
+    }
+    
+    @Override
+    public void onTicketCreated(Ticket ticket) {
+        reconcile(ticket);
+    }
+    
+    @Override
+    public void onTicketUpdated(Ticket ticket) {
+        reconcile(ticket);
+    }
+    
+    @Override
+    public void onTicketDeleted(Ticket ticket) {
+        release(ticket.getId());
+    }
+    
+    /**
+     * Brings the load charged for a ticket in line with its current agent and status.
+     */
+    private void reconcile(Ticket ticket) {
+        Long agentId = ticket.getAssignedAgent() == null ? null : ticket.getAssignedAgent().getId();
+        boolean open = ticket.getStatus() != TicketStatus.RESOLVED && ticket.getStatus() != TicketStatus.CLOSED;
+        Long charged = open ? agentId : null;
+        openAssignments.compute(ticket.getId(), (id, previous) -> {
+            if (!Objects.equals(previous, charged)) {
+                if (previous != null) {
+                    adjustLoad(previous, -1);
+                }
+                if (charged != null) {
+                    adjustLoad(charged, 1);
+                }
+            }
+            return charged;
+        });
+    }
+    
+    /**
+     * Takes the least-loaded agent across all departments. Each heap is
+     * inspected under its own lock, so the choice may be slightly stale under
+     * contention, but the chosen agent's load is always updated atomically.
+     */
+    private Agent takeLeastLoadedOverall() {
+        AgentLoadHeap best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (AgentLoadHeap heap : heaps.values()) {
+            synchronized (heap) {
+                int load = heap.peekLoad();
+                if (load < bestLoad) {
+                    best = heap;
+                    bestLoad = load;
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        synchronized (best) {
+            return best.takeLeastLoaded();
+        }
+    }
+    
+    private void adjustLoad(Long agentId, int delta) {
+        String department = agentDepartments.get(agentId);
+        if (department == null) {
+            return;
+        }
+        AgentLoadHeap heap = heaps.get(department);
+        synchronized (heap) {
+            heap.adjust(agentId, delta);
+        }
+    }
+    
+    private static String normalizeDepartment(String department) {
+        return department == null ? "" : department.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,330 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.virtualsolutions.ticketingsystem.model.Agent;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Per-category queues of unassigned NEW tickets, ordered by priority and age.
+ * 
+ * A ticket's standing is its waiting time plus one aging interval for every
+ * priority level above LOW, so a LOW ticket that has waited three aging
+ * intervals ranks level with a CRITICAL ticket that just arrived. Because every
+ * ticket ages at the same rate, that order never changes while tickets wait,
+ * and each queue is a concurrent skip list sorted by the fixed key
+ * creation time minus the priority bonus. Dequeuing is lock-free: an agent
+ * takes the best head among its categories' queues, and whichever thread
+ * removes an entry first owns it.
+ * 
+ * Agents whose own department has nothing waiting steal work from other
+ * departments' categories they are skilled in. A thief takes from the tail of
+ * the most backlogged of those queues, leaving the most urgent tickets at the
+ * head for the owning department's agents and rarely contending with them.
+ * 
+ * The queues follow ticket changes: assigned, resolved, closed or deleted
+ * tickets leave their queue, and a priority change repositions a ticket
+ * without resetting its age.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class DispatchQueues implements TicketChangeListener {
+    
+    private static final Duration DEFAULT_AGING_INTERVAL = Duration.ofMinutes(30);
+    private static final long UNCATEGORIZED = Long.MIN_VALUE;
+    
+    private final long agingMillis;
+    private final Map<Long, CategoryQueue> queues = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> departmentCategories = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> agentSkills = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder stolen = new LongAdder();
+    
+    /**
+     * Creates queues in which a ticket gains one priority level per 30 minutes of waiting.
+     */
+    public DispatchQueues() {
+        this(DEFAULT_AGING_INTERVAL);
+    }
+    
+    /**
+     * Creates queues.
+     * 
+     * @param agingInterval The waiting time worth one priority level
+     */
+    public DispatchQueues(Duration agingInterval) {
+        if (agingInterval.toMillis() <= 0) {
+            throw new IllegalArgumentException("Aging interval must be positive");
+        }
+        this.agingMillis = agingInterval.toMillis();
+    }
+    
+    /**
+     * Lets agents of a department pull tickets of a category. Agents of
+     * departments without any category pull from every queue.
+     * 
+     * @param categoryId The ID of the category
+     * @param department The department whose agents handle the category
+     */
+    public void addCategoryDepartment(Long categoryId, String department) {
+        departmentCategories.computeIfAbsent(normalizeDepartment(department), d -> ConcurrentHashMap.newKeySet())
+                .add(categoryId);
+    }
+    
+    /**
+     * Sets the categories an agent may steal from when its own department's
+     * queues are empty. Agents without skills never steal.
+     * 
+     * @param agentId The ID of the agent
+     * @param categoryIds The IDs of the categories the agent can handle
+     */
+    public void setAgentSkills(Long agentId, Set<Long> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            agentSkills.remove(agentId);
+        } else {
+            agentSkills.put(agentId, Set.copyOf(categoryIds));
+        }
+    }
+    
+    /**
+     * Queues the waiting tickets of an existing ticket set, such as the
+     * contents of a repository when the queues are created.
+     * 
+     * @param tickets The tickets to consider
+     */
+    public void load(Collection<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            reconcile(ticket);
+        }
+    }
+    
+    /**
+     * Takes the best waiting ticket among the categories an agent handles, or
+     * steals one from another department if none is waiting.
+     * 
+     * @param agent The agent pulling work
+     * @return The dequeued ticket, or empty if there is no work the agent can take
+     */
+    public Optional<Ticket> pollNext(Agent agent) {
+        Set<Long> categories = departmentCategories.get(normalizeDepartment(agent.getDepartment()));
+        Optional<Ticket> next = pollNext(categories == null ? queues.keySet() : categories);
+        if (next.isPresent() || categories == null) {
+            return next;
+        }
+        return steal(agent.getId(), categories);
+    }
+    
+    /**
+     * Takes the best waiting ticket among some categories.
+     * 
+     * @param categoryIds The IDs of the categories to consider
+     * @return The dequeued ticket, or empty if their queues are empty
+     */
+    public Optional<Ticket> pollNext(Collection<Long> categoryIds) {
+        while (true) {
+            Entry best = null;
+            CategoryQueue bestQueue = null;
+            for (Long categoryId : categoryIds) {
+                CategoryQueue queue = queues.get(categoryId);
+                Entry head = queue == null ? null : queue.entries.ceiling(Entry.LOWEST);
+                if (head != null && (best == null || head.compareTo(best) < 0)) {
+                    best = head;
+                    bestQueue = queue;
+                }
+            }
+            if (best == null) {
+                return Optional.empty();
+            }
+            // Another agent may take the same head first; then look again
+            if (bestQueue.remove(best)) {
+                entries.remove(best.ticket.getId(), best);
+                return Optional.of(best.ticket);
+            }
+        }
+    }
+    
+    /**
+     * Returns a polled ticket to its queue, for example when assigning it to
+     * the agent that took it failed. The ticket keeps its place, since its
+     * ordering key depends only on its creation time and priority. A ticket
+     * that is no longer waiting is not queued.
+     * 
+     * @param ticket The ticket's current state
+     */
+    public void requeue(Ticket ticket) {
+        reconcile(ticket);
+    }
+    
+    /**
+     * Gets the number of tickets waiting in a category.
+     * 
+     * @param categoryId The ID of the category
+     * @return The queue length
+     */
+    public int size(Long categoryId) {
+        CategoryQueue queue = queues.get(categoryId);
+        return queue == null ? 0 : queue.size.get();
+    }
+    
+    /**
+     * Gets the number of tickets taken by agents outside their own department.
+     * 
+     * @return The stolen ticket count
+     */
+    public long getStolenCount() {
+        return stolen.sum();
+    }
+    
+    @Override
+    public void onTicketCreated(Ticket ticket) {
+        reconcile(ticket);
+    }
+    
+    @Override
+    public void onTicketUpdated(Ticket ticket) {
+        reconcile(ticket);
+    }
+    
+    @Override
+    public void onTicketDeleted(Ticket ticket) {
+        Entry entry = entries.remove(ticket.getId());
+        if (entry != null) {
+            queues.get(entry.categoryId).remove(entry);
+        }
+    }
+    
+    /**
+     * Takes the last ticket from the longest queue among the agent's skills
+     * outside its own department's categories.
+     */
+    private Optional<Ticket> steal(Long agentId, Set<Long> ownCategories) {
+        Set<Long> skills = agentSkills.get(agentId);
+        if (skills == null) {
+            return Optional.empty();
+        }
+        while (true) {
+            CategoryQueue victim = null;
+            for (Long categoryId : skills) {
+                CategoryQueue queue = queues.get(categoryId);
+                if (queue != null && !ownCategories.contains(categoryId) && queue.size.get() > 0
+                        && (victim == null || queue.size.get() > victim.size.get())) {
+                    victim = queue;
+                }
+            }
+            if (victim == null) {
+                return Optional.empty();
+            }
+            Entry tail = victim.entries.floor(Entry.HIGHEST);
+            if (tail != null && victim.remove(tail)) {
+                entries.remove(tail.ticket.getId(), tail);
+                stolen.increment();
+                return Optional.of(tail.ticket);
+            }
+        }
+    }
+    
+    /**
+     * Queues, repositions or removes a ticket according to its current state.
+     */
+    private void reconcile(Ticket ticket) {
+        boolean waiting = ticket.getStatus() == TicketStatus.NEW && ticket.getAssignedAgent() == null;
+        long categoryId = ticket.getCategory() == null || ticket.getCategory().getId() == null
+                ? UNCATEGORIZED : ticket.getCategory().getId();
+        long key = waiting ? keyOf(ticket) : 0;
+        entries.compute(ticket.getId(), (id, previous) -> {
+            if (previous != null) {
+                if (waiting && previous.key == key && previous.categoryId == categoryId) {
+                    return previous;
+                }
+                if (!queues.get(previous.categoryId).remove(previous)) {
+                    // Already taken by an agent
+                    return null;
+                }
+            }
+            if (!waiting) {
+                return null;
+            }
+            Entry entry = new Entry(ticket, categoryId, key, sequence.incrementAndGet());
+            queues.computeIfAbsent(categoryId, c -> new CategoryQueue()).add(entry);
+            return entry;
+        });
+    }
+    
+    /**
+     * Computes the fixed ordering key: creation time less one aging interval
+     * per priority level, so lower keys are served first.
+     */
+    private long keyOf(Ticket ticket) {
+        LocalDateTime createdAt = ticket.getCreatedAt() == null ? LocalDateTime.now() : ticket.getCreatedAt();
+        int level = (ticket.getPriority() == null ? TicketPriority.MEDIUM : ticket.getPriority()).ordinal();
+        return createdAt.toInstant(ZoneOffset.UTC).toEpochMilli() - level * agingMillis;
+    }
+    
+    private static String normalizeDepartment(String department) {
+        return department == null ? "" : department.trim().toLowerCase();
+    }
+    
+    /**
+     * The ordered tickets of one category with a constant-time length, which
+     * the skip list itself cannot provide.
+     */
+    private static final class CategoryQueue {
+        
+        private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+        private final AtomicInteger size = new AtomicInteger();
+        
+        void add(Entry entry) {
+            if (entries.add(entry)) {
+                size.incrementAndGet();
+            }
+        }
+        
+        boolean remove(Entry entry) {
+            if (entries.remove(entry)) {
+                size.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+    
+    private static final class Entry implements Comparable<Entry> {
+        
+        private static final Entry LOWEST = new Entry(null, 0, Long.MIN_VALUE, Long.MIN_VALUE);
+        private static final Entry HIGHEST = new Entry(null, 0, Long.MAX_VALUE, Long.MAX_VALUE);
+        
+        private final Ticket ticket;
+        private final long categoryId;
+        private final long key;
+        private final long sequence;
+        
+        private Entry(Ticket ticket, long categoryId, long key, long sequence) {
+            this.ticket = ticket;
+            this.categoryId = categoryId;
+            this.key = key;
+            this.sequence = sequence;
+        }
+        
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = Long.compare(key, other.key);
+            return byKey != 0 ? byKey : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import java.time.LocalDateTime;
+
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+
+/**
+ * Event raised when a ticket misses a service-level deadline.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class SlaBreach {
+    
+    /**
+     * The deadlines a ticket can miss.
+     */
+    public enum Kind {
+        FIRST_RESPONSE, RESOLUTION
+    }
+    
+    private final Long ticketId;
+    private final Kind kind;
+    private final TicketPriority priority;
+    private final LocalDateTime deadline;
+    
+    /**
+     * Creates a breach event.
+     * 
+     * @param ticketId The ID of the ticket
+     * @param kind The deadline that was missed
+     * @param priority The ticket's priority when the deadline was missed
+     * @param deadline The missed deadline
+     */
+    public SlaBreach(Long ticketId, Kind kind, TicketPriority priority, LocalDateTime deadline) {
+        this.ticketId = ticketId;
+        this.kind = kind;
+        this.priority = priority;
+        this.deadline = deadline;
+    }
+    
+    /**
+     * Gets the ID of the ticket.
+     * 
+     * @return The ticket ID
+     */
+    public Long getTicketId() {
+        return ticketId;
+    }
+    
+    /**
+     * Gets the deadline that was missed.
+     * 
+     * @return The breach kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+    
+    /**
+     * Gets the ticket's priority when the deadline was missed.
+     * 
+     * @return The priority
+     */
+    public TicketPriority getPriority() {
+        return priority;
+    }
+    
+    /**
+     * Gets the missed deadline.
+     * 
+     * @return The deadline
+     */
+    public LocalDateTime getDeadline() {
+        return deadline;
+    }
+    
+    @Override
+    public String toString() {
+        return "SlaBreach{" +
+                "ticketId=" + ticketId +
+                ", kind=" + kind +
+                ", priority=" + priority +
+                ", deadline=" + deadline +
+                '}';
+    }
+}
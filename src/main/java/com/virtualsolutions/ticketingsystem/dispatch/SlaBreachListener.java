@@ -0,0 +1,17 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+/**
+ * Listener notified when a ticket misses a service-level deadline.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public interface SlaBreachListener {
+    
+    /**
+     * Called when a deadline passes without the ticket meeting it.
+     * 
+     * @param breach The missed deadline
+     */
+    void onBreach(SlaBreach breach);
+}
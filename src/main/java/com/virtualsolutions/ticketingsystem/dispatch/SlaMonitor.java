@@ -0,0 +1,304 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Tracks the first-response and resolution deadlines of every open ticket and
+ * raises an event when one is missed.
+ * Deadlines are timers in a hierarchical timing wheel with one-second ticks,
+ * so scheduling, rescheduling and cancelling cost O(1) however many tickets
+ * are open, and advancing time only touches timers that are due. Timers are
+ * set when a ticket is created, moved when its priority changes, and
+ * cancelled once the ticket is responded to, resolved, closed or deleted. A
+ * ticket counts as responded to once it leaves NEW, is assigned or receives a
+ * comment. Each deadline is reported at most once per ticket, so escalating a
+ * breached ticket's priority does not breach it again.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class SlaMonitor implements TicketChangeListener, AutoCloseable {
+    
+    private static final long TICK_MILLIS = 1000;
+    
+    private final SlaPolicy policy;
+    private final Clock clock;
+    private final TimingWheel<Deadline> wheel;
+    private final Map<Long, TicketDeadlines> deadlines = new HashMap<>();
+    private final List<SlaBreachListener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder failedNotifications = new LongAdder();
+    private ScheduledExecutorService ticker;
+    
+    /**
+     * Creates a monitor with the default policy and the system clock.
+     */
+    public SlaMonitor() {
+        this(SlaPolicy.defaults(), Clock.systemDefaultZone());
+    }
+    
+    /**
+     * Creates a monitor.
+     * 
+     * @param policy The deadlines per priority
+     * @param clock The clock that deadlines are measured against
+     */
+    public SlaMonitor(SlaPolicy policy, Clock clock) {
+        this.policy = policy;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, nowMillis());
+    }
+    
+    /**
+     * Registers a listener to be notified of missed deadlines.
+     * 
+     * @param listener The listener to add
+     */
+    public void addSlaBreachListener(SlaBreachListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Unregisters a breach listener.
+     * 
+     * @param listener The listener to remove
+     */
+    public void removeSlaBreachListener(SlaBreachListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Sets the deadlines of the open tickets of an existing ticket set, such as
+     * the contents of a repository when the monitor is created.
+     * 
+     * @param tickets The tickets to track
+     */
+    public synchronized void load(Collection<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            reconcile(ticket);
+        }
+    }
+    
+    /**
+     * Starts checking deadlines every second on a background thread.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            throw new IllegalStateException("SLA monitor is already running");
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sla-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Runs one scheduled check. A scheduled task that throws is never run
+     * again, so a failure is reported and the next tick carries on.
+     */
+    private void tick() {
+        try {
+            advance();
+        } catch (RuntimeException e) {
+            System.err.println("Warning: SLA check failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Stops the background thread if it is running.
+     */
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker = null;
+        }
+    }
+    
+    /**
+     * Gets the number of breach notifications whose listener threw an exception.
+     * 
+     * @return The failed notification count
+     */
+    public long getFailedNotificationCount() {
+        return failedNotifications.sum();
+    }
+    
+    /**
+     * Expires every deadline that has passed and notifies listeners of the
+     * breaches. Listeners are called without holding the monitor's lock, so
+     * they may change the breached tickets. A listener that throws is counted
+     * and skipped, and the remaining listeners still receive the breach.
+     */
+    public void advance() {
+        List<SlaBreach> breaches = new ArrayList<>();
+        synchronized (this) {
+            for (Deadline deadline : wheel.advanceTo(nowMillis())) {
+                TicketDeadlines ticketDeadlines = deadlines.get(deadline.ticketId);
+                if (ticketDeadlines == null) {
+                    continue;
+                }
+                if (deadline.kind == SlaBreach.Kind.FIRST_RESPONSE) {
+                    ticketDeadlines.firstResponse = null;
+                    ticketDeadlines.firstResponseBreached = true;
+                } else {
+                    ticketDeadlines.resolution = null;
+                    ticketDeadlines.resolutionBreached = true;
+                }
+                breaches.add(new SlaBreach(deadline.ticketId, deadline.kind, ticketDeadlines.priority,
+                        LocalDateTime.ofEpochSecond(Math.floorDiv(deadline.dueMillis, 1000), 0, ZoneOffset.UTC)));
+            }
+        }
+        for (SlaBreach breach : breaches) {
+            for (SlaBreachListener listener : listeners) {
+                // One faulty listener must not keep the breach from the others
+                try {
+                    listener.onBreach(breach);
+                } catch (RuntimeException e) {
+                    failedNotifications.increment();
+                    System.err.println("Warning: SLA breach listener failed for ticket " + breach.getTicketId()
+                            + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gets the number of pending deadlines.
+     * 
+     * @return The pending deadline count
+     */
+    public synchronized int getPendingDeadlineCount() {
+        return wheel.size();
+    }
+    
+    @Override
+    public synchronized void onTicketCreated(Ticket ticket) {
+        reconcile(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketUpdated(Ticket ticket) {
+        reconcile(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketDeleted(Ticket ticket) {
+        TicketDeadlines removed = deadlines.remove(ticket.getId());
+        if (removed != null) {
+            removed.cancelAll();
+        }
+    }
+    
+    /**
+     * Sets, moves or cancels a ticket's timers to match its current state.
+     */
+    private void reconcile(Ticket ticket) {
+        boolean open = ticket.getStatus() != TicketStatus.RESOLVED && ticket.getStatus() != TicketStatus.CLOSED;
+        if (!open || ticket.getCreatedAt() == null) {
+            TicketDeadlines removed = deadlines.remove(ticket.getId());
+            if (removed != null) {
+                removed.cancelAll();
+            }
+            return;
+        }
+        
+        TicketDeadlines ticketDeadlines = deadlines.computeIfAbsent(ticket.getId(), id -> new TicketDeadlines());
+        boolean priorityChanged = ticketDeadlines.priority != ticket.getPriority();
+        ticketDeadlines.priority = ticket.getPriority();
+        long createdMillis = toMillis(ticket.getCreatedAt());
+        
+        boolean responded = ticket.getStatus() != TicketStatus.NEW || ticket.getAssignedAgent() != null
+                || (ticket.getComments() != null && !ticket.getComments().isEmpty());
+        if (responded || ticketDeadlines.firstResponseBreached) {
+            if (ticketDeadlines.firstResponse != null) {
+                ticketDeadlines.firstResponse.cancel();
+                ticketDeadlines.firstResponse = null;
+            }
+        } else if (priorityChanged || ticketDeadlines.firstResponse == null) {
+            ticketDeadlines.firstResponse = reschedule(ticketDeadlines.firstResponse, ticket.getId(),
+                    SlaBreach.Kind.FIRST_RESPONSE, createdMillis, policy.getFirstResponseTarget(ticket.getPriority()));
+        }
+        
+        if (!ticketDeadlines.resolutionBreached && (priorityChanged || ticketDeadlines.resolution == null)) {
+            ticketDeadlines.resolution = reschedule(ticketDeadlines.resolution, ticket.getId(),
+                    SlaBreach.Kind.RESOLUTION, createdMillis, policy.getResolutionTarget(ticket.getPriority()));
+        }
+    }
+    
+    private TimingWheel.Timer<Deadline> reschedule(TimingWheel.Timer<Deadline> current, Long ticketId,
+                                                   SlaBreach.Kind kind, long createdMillis, Duration target) {
+        if (current != null) {
+            current.cancel();
+        }
+        if (target == null) {
+            return null;
+        }
+        long dueMillis = createdMillis + target.toMillis();
+        return wheel.schedule(dueMillis, new Deadline(ticketId, kind, dueMillis));
+    }
+    
+    private long nowMillis() {
+        return toMillis(LocalDateTime.now(clock));
+    }
+    
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    /**
+     * The payload of one deadline timer.
+     */
+    private static final class Deadline {
+        
+        private final Long ticketId;
+        private final SlaBreach.Kind kind;
+        private final long dueMillis;
+        
+        private Deadline(Long ticketId, SlaBreach.Kind kind, long dueMillis) {
+            this.ticketId = ticketId;
+            this.kind = kind;
+            this.dueMillis = dueMillis;
+        }
+    }
+    
+    /**
+     * The pending timers and breach history of one open ticket.
+     */
+    private static final class TicketDeadlines {
+        
+        private TicketPriority priority;
+        private TimingWheel.Timer<Deadline> firstResponse;
+        private TimingWheel.Timer<Deadline> resolution;
+        private boolean firstResponseBreached;
+        private boolean resolutionBreached;
+        
+        void cancelAll() {
+            if (firstResponse != null) {
+                firstResponse.cancel();
+            }
+            if (resolution != null) {
+                resolution.cancel();
+            }
+        }
+    }
+}
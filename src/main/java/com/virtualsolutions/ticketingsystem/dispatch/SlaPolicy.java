@@ -0,0 +1,67 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+
+/**
+ * Service-level targets per ticket priority: how soon a ticket must receive a
+ * first response and how soon it must be resolved, both measured from creation.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class SlaPolicy {
+    
+    private final Map<TicketPriority, Duration> firstResponseTargets = new EnumMap<>(TicketPriority.class);
+    private final Map<TicketPriority, Duration> resolutionTargets = new EnumMap<>(TicketPriority.class);
+    
+    /**
+     * Creates the default policy: CRITICAL 15 minutes to respond and 4 hours to
+     * resolve, HIGH 1 and 8 hours, MEDIUM 4 and 24 hours, LOW 8 and 72 hours.
+     * 
+     * @return The default policy
+     */
+    public static SlaPolicy defaults() {
+        SlaPolicy policy = new SlaPolicy();
+        policy.setTargets(TicketPriority.CRITICAL, Duration.ofMinutes(15), Duration.ofHours(4));
+        policy.setTargets(TicketPriority.HIGH, Duration.ofHours(1), Duration.ofHours(8));
+        policy.setTargets(TicketPriority.MEDIUM, Duration.ofHours(4), Duration.ofHours(24));
+        policy.setTargets(TicketPriority.LOW, Duration.ofHours(8), Duration.ofHours(72));
+        return policy;
+    }
+    
+    /**
+     * Sets the targets of a priority.
+     * 
+     * @param priority The ticket priority
+     * @param firstResponse The time allowed until first response
+     * @param resolution The time allowed until resolution
+     */
+    public void setTargets(TicketPriority priority, Duration firstResponse, Duration resolution) {
+        firstResponseTargets.put(priority, firstResponse);
+        resolutionTargets.put(priority, resolution);
+    }
+    
+    /**
+     * Gets the first-response target of a priority.
+     * 
+     * @param priority The ticket priority
+     * @return The time allowed until first response, or null if there is no target
+     */
+    public Duration getFirstResponseTarget(TicketPriority priority) {
+        return firstResponseTargets.get(priority);
+    }
+    
+    /**
+     * Gets the resolution target of a priority.
+     * 
+     * @param priority The ticket priority
+     * @return The time allowed until resolution, or null if there is no target
+     */
+    public Duration getResolutionTarget(TicketPriority priority) {
+        return resolutionTargets.get(priority);
+    }
+}
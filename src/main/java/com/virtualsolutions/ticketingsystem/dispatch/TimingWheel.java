@@ -0,0 +1,206 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for very large numbers of timers.
+ * Time advances in fixed ticks. The lowest wheel has one slot per tick, and
+ * each higher wheel has slots covering a whole revolution of the wheel below;
+ * when a higher slot comes due its timers are redistributed to lower wheels.
+ * Scheduling and cancelling are O(1): a timer is linked into, or unlinked from,
+ * the list of one slot. Four wheels of 64 slots cover 16.7 million ticks, and
+ * later deadlines wait in the top wheel until they come into range.
+ * 
+ * The wheel is passive: callers advance it to the current time and receive
+ * the payloads of the timers that expired. Not thread-safe; callers
+ * synchronize externally.
+ * 
+ * @param <T> The type of the timer payloads
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TimingWheel<T> {
+    
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_TICKS = 1L << (SLOT_BITS * LEVELS);
+    
+    private final long tickMillis;
+    private final Timer<T>[][] slots;
+    private long currentTick;
+    private int size;
+    
+    /**
+     * Creates a wheel.
+     * 
+     * @param tickMillis The length of one tick in milliseconds
+     * @param startMillis The current time in milliseconds
+     */
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive");
+        }
+        this.tickMillis = tickMillis;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Timer<T>[][] wheels = new Timer[LEVELS][SLOTS];
+        this.slots = wheels;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+    
+    /**
+     * Schedules a timer. Deadlines in the past expire on the next tick.
+     * 
+     * @param deadlineMillis When the timer should expire, in milliseconds
+     * @param payload The value returned when the timer expires
+     * @return The timer, which can be cancelled
+     */
+    public Timer<T> schedule(long deadlineMillis, T payload) {
+        // Round up so a timer never expires before its deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timer<T> timer = new Timer<>(this, Math.max(deadlineTick, currentTick + 1), payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+    
+    /**
+     * Advances the wheel to a point in time, expiring every timer due by then.
+     * 
+     * @param nowMillis The current time in milliseconds
+     * @return The payloads of the expired timers, in expiry order
+     */
+    public List<T> advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Timer<T> timer = slots[0][(int) (currentTick & SLOT_MASK)];
+            slots[0][(int) (currentTick & SLOT_MASK)] = null;
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.unlinked();
+                size--;
+                expired.add(timer.payload);
+                timer = next;
+            }
+        }
+        return expired;
+    }
+    
+    /**
+     * Gets the number of pending timers.
+     * 
+     * @return The timer count
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Moves the timers of every higher-wheel slot that has come due down to
+     * the wheels below, starting from the highest wheel whose revolution
+     * boundary was just crossed.
+     */
+    private void cascade() {
+        int level = 0;
+        while (level + 1 < LEVELS && (currentTick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Timer<T> timer = slots[level][slot];
+            slots[level][slot] = null;
+            while (timer != null) {
+                Timer<T> next = timer.next;
+                timer.unlinked();
+                place(timer);
+                timer = next;
+            }
+        }
+    }
+    
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        int level = 0;
+        while (level + 1 < LEVELS && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // Deadlines beyond the top wheel wait in its last slot before wrapping around
+        long tick = delta >= MAX_TICKS ? currentTick + MAX_TICKS - 1 : timer.deadlineTick;
+        int slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        
+        timer.level = level;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        slots[level][slot] = timer;
+        timer.linked = true;
+    }
+    
+    /**
+     * A scheduled timer.
+     * 
+     * @param <T> The type of the payload
+     */
+    public static final class Timer<T> {
+        
+        private final TimingWheel<T> wheel;
+        private final long deadlineTick;
+        private final T payload;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private int level;
+        private int slot;
+        private boolean linked;
+        
+        private Timer(TimingWheel<T> wheel, long deadlineTick, T payload) {
+            this.wheel = wheel;
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+        
+        /**
+         * Cancels the timer.
+         * 
+         * @return true if the timer was pending, false if it had already expired or been cancelled
+         */
+        public boolean cancel() {
+            if (!linked) {
+                return false;
+            }
+            if (prev != null) {
+                prev.next = next;
+            } else {
+                wheel.slots[level][slot] = next;
+            }
+            if (next != null) {
+                next.prev = prev;
+            }
+            unlinked();
+            wheel.size--;
+            return true;
+        }
+        
+        /**
+         * Gets the payload of the timer.
+         * 
+         * @return The payload
+         */
+        public T getPayload() {
+            return payload;
+        }
+        
+        private void unlinked() {
+            prev = null;
+            next = null;
+            linked = false;
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.repository.impl.TicketCodec;
+import com.virtualsolutions.ticketingsystem.service.CustomerChangeListener;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Durable change-data-capture log of ticket and customer mutations.
+ * 
+ * Every mutation reported by the ticket and customer services is appended as a
+ * {@link ChangeRecord} with the next offset, and forced to disk before the
+ * service call returns. The log is split into segment files named after the
+ * offset of their first record; a new segment starts once the current one
+ * passes the segment size, and whole segments that every consumer has moved
+ * past can be deleted. When the log is reopened, a torn record at the end of
+ * the last segment is truncated.
+ * 
+ * Consumers pull records from any offset and commit the offset they have
+ * processed up to under their own name, and resume from that offset after a
+ * restart. Delivery is at least once: a consumer that stops after processing
+ * records but before committing receives them again. Consumers must therefore
+ * be idempotent, for example by storing the offset of the last record they
+ * applied together with its effect and skipping any record whose offset is
+ * not beyond it. Offsets keep increasing when the log is reopened; entity IDs
+ * do not identify an entity across restarts, because the in-memory
+ * repositories hand out the same IDs again. A log directory should therefore
+ * hold the records of a single run of the application, and consumers should
+ * not merge state by entity ID across logs.
+ * 
+ * Records are appended by change listeners, after the service has changed
+ * the repository. The repositories are in memory, so a crash before the
+ * append loses the change from the application as well as from the log. An
+ * append that fails with an I/O error, however, leaves a change that was made
+ * but not logged, and the error reaches the service's caller although the
+ * change stands. The log holds each change at most once, and exactly once
+ * only while appends succeed.
+ * {@link #transferTo} hands whole records straight from the page cache to a
+ * socket or file with {@link FileChannel#transferTo}, letting a consumer catch
+ * up at disk speed without the data passing through the heap.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class ChangeLog implements TicketChangeListener, CustomerChangeListener, AutoCloseable {
+    
+    private static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String OFFSETS_DIRECTORY = "offsets";
+    private static final String OFFSET_SUFFIX = ".offset";
+    private static final Pattern CONSUMER_NAME = Pattern.compile("[A-Za-z0-9._-]+");
+    // Bytes between sparse index entries; a lookup scans at most this far
+    private static final long INDEX_INTERVAL = 4096;
+    
+    private final Path directory;
+    private final long segmentSize;
+    private final Clock clock;
+    private final List<Segment> segments = new ArrayList<>();
+    private long nextOffset;
+    
+    /**
+     * Opens or creates a log with 64 MB segments.
+     * 
+     * @param directory The directory holding the segment files
+     */
+    public ChangeLog(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, Clock.systemUTC());
+    }
+    
+    /**
+     * Opens or creates a log.
+     * 
+     * @param directory The directory holding the segment files
+     * @param segmentSize The size after which a new segment is started
+     * @param clock The clock used to timestamp records
+     */
+    public ChangeLog(Path directory, long segmentSize, Clock clock) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory.resolve(OFFSETS_DIRECTORY));
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted().toArray(Path[]::new)) {
+                    segments.add(Segment.open(file, baseOffsetOf(file)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open change log " + directory, e);
+        }
+        nextOffset = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).nextOffset;
+    }
+    
+    @Override
+    public void onTicketCreated(Ticket ticket) {
+        appendTicket(ChangeRecord.Operation.CREATE, ticket);
+    }
+    
+    @Override
+    public void onTicketUpdated(Ticket ticket) {
+        appendTicket(ChangeRecord.Operation.UPDATE, ticket);
+    }
+    
+    @Override
+    public void onTicketDeleted(Ticket ticket) {
+        appendTicket(ChangeRecord.Operation.DELETE, ticket);
+    }
+    
+    @Override
+    public void onCustomerCreated(Customer customer) {
+        appendCustomer(ChangeRecord.Operation.CREATE, customer);
+    }
+    
+    @Override
+    public void onCustomerUpdated(Customer customer) {
+        appendCustomer(ChangeRecord.Operation.UPDATE, customer);
+    }
+    
+    @Override
+    public void onCustomerDeleted(Customer customer) {
+        appendCustomer(ChangeRecord.Operation.DELETE, customer);
+    }
+    
+    /**
+     * Appends a ticket mutation.
+     * 
+     * @param operation The mutation
+     * @param ticket The ticket after the mutation, or before it for deletions
+     * @return The offset of the new record
+     */
+    public long appendTicket(ChangeRecord.Operation operation, Ticket ticket) {
+        return append(ChangeRecord.Entity.TICKET, operation, ticket.getId(), TicketCodec.encode(ticket));
+    }
+    
+    /**
+     * Appends a customer mutation.
+     * 
+     * @param operation The mutation
+     * @param customer The customer after the mutation, or before it for deletions
+     * @return The offset of the new record
+     */
+    public long appendCustomer(ChangeRecord.Operation operation, Customer customer) {
+        return append(ChangeRecord.Entity.CUSTOMER, operation, customer.getId(),
+                TicketCodec.encodeCustomer(customer));
+    }
+    
+    /**
+     * Reads records starting at an offset.
+     * 
+     * @param offset The offset of the first record to read
+     * @param maxRecords The maximum number of records to read
+     * @return The records, oldest first; empty if the offset is at the end of the log
+     */
+    public synchronized List<ChangeRecord> read(long offset, int maxRecords) {
+        List<ChangeRecord> records = new ArrayList<>();
+        while (records.size() < maxRecords && offset < nextOffset) {
+            Segment segment = segmentFor(offset);
+            long position = segment.positionOf(offset);
+            try {
+                while (records.size() < maxRecords && position < segment.size) {
+                    ByteBuffer length = ByteBuffer.allocate(ChangeRecord.LENGTH_SIZE);
+                    segment.channel.read(length, position);
+                    ByteBuffer record = ByteBuffer.allocate(ChangeRecord.LENGTH_SIZE + length.getInt(0));
+                    segment.channel.read(record, position);
+                    records.add(ChangeRecord.read(record.flip()));
+                    position += record.limit();
+                    offset++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read change log at offset " + offset, e);
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * Copies whole framed records starting at an offset straight from the
+     * segment file to a channel, without copying them through the heap. A call
+     * transfers records from one segment only. The bytes can be parsed with
+     * {@link ChangeRecord#read(ByteBuffer)}.
+     * 
+     * @param offset The offset of the first record to transfer
+     * @param target The channel to write to
+     * @param maxBytes The most bytes to transfer; at least one record is transferred even if it is larger
+     * @return The offset after the last transferred record
+     */
+    public synchronized long transferTo(long offset, WritableByteChannel target, long maxBytes) {
+        if (offset >= nextOffset) {
+            return offset;
+        }
+        Segment segment = segmentFor(offset);
+        long start = segment.positionOf(offset);
+        long end = start;
+        long next = offset;
+        try {
+            ByteBuffer length = ByteBuffer.allocate(ChangeRecord.LENGTH_SIZE);
+            while (end < segment.size) {
+                length.clear();
+                segment.channel.read(length, end);
+                long recordSize = ChangeRecord.LENGTH_SIZE + length.getInt(0);
+                if (end > start && end + recordSize - start > maxBytes) {
+                    break;
+                }
+                end += recordSize;
+                next++;
+            }
+            for (long position = start; position < end; ) {
+                position += segment.channel.transferTo(position, end - position, target);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to transfer change log at offset " + offset, e);
+        }
+        return next;
+    }
+    
+    /**
+     * Records how far a consumer has processed the log. The write is atomic,
+     * so a crash leaves either the old or the new offset. Records processed
+     * after the last commit are delivered again when the consumer resumes.
+     * 
+     * @param consumer The consumer's name, made of letters, digits, dots, dashes and underscores
+     * @param nextOffset The offset of the next record the consumer needs
+     */
+    public void commitOffset(String consumer, long nextOffset) {
+        Path file = offsetFile(consumer);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(nextOffset).array());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to commit offset of consumer " + consumer, e);
+        }
+    }
+    
+    /**
+     * Gets the offset a consumer last committed.
+     * 
+     * @param consumer The consumer's name
+     * @return The next offset the consumer needs, or the start of the log if it never committed
+     */
+    public long getCommittedOffset(String consumer) {
+        Path file = offsetFile(consumer);
+        try {
+            if (!Files.exists(file)) {
+                return getStartOffset();
+            }
+            return ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read offset of consumer " + consumer, e);
+        }
+    }
+    
+    /**
+     * Deletes the segments that every consumer with a committed offset has
+     * moved past. The segment being appended to is always kept.
+     * 
+     * @return The number of segments deleted
+     */
+    public synchronized int deleteConsumedSegments() {
+        long minimum = Long.MAX_VALUE;
+        try (Stream<Path> files = Files.list(directory.resolve(OFFSETS_DIRECTORY))) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(OFFSET_SUFFIX))
+                    .toArray(Path[]::new)) {
+                minimum = Math.min(minimum, ByteBuffer.wrap(Files.readAllBytes(file)).getLong());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read consumer offsets of change log " + directory, e);
+        }
+        if (minimum == Long.MAX_VALUE) {
+            return 0;
+        }
+        
+        int deleted = 0;
+        while (segments.size() > 1 && segments.get(0).nextOffset <= minimum) {
+            Segment segment = segments.remove(0);
+            try {
+                segment.channel.close();
+                Files.delete(segment.file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete change log segment " + segment.file, e);
+            }
+            deleted++;
+        }
+        return deleted;
+    }
+    
+    /**
+     * Gets the offset of the oldest retained record.
+     * 
+     * @return The start offset
+     */
+    public synchronized long getStartOffset() {
+        return segments.isEmpty() ? nextOffset : segments.get(0).baseOffset;
+    }
+    
+    /**
+     * Gets the offset the next record will receive.
+     * 
+     * @return The end offset
+     */
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+    
+    /**
+     * Gets the number of segment files.
+     * 
+     * @return The segment count
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+    
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close change log segment " + segment.file, e);
+            }
+        }
+        segments.clear();
+    }
+    
+    private synchronized long append(ChangeRecord.Entity entity, ChangeRecord.Operation operation,
+                                     Long entityId, byte[] payload) {
+        long offset = nextOffset;
+        ByteBuffer record = ChangeRecord.encode(offset, clock.millis(), entity, operation,
+                entityId == null ? TicketCodec.NONE : entityId, payload);
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        try {
+            if (segment == null || segment.size >= segmentSize) {
+                segment = Segment.open(directory.resolve(String.format("%020d", offset) + SEGMENT_SUFFIX), offset);
+                segments.add(segment);
+            }
+            long position = segment.size;
+            while (record.hasRemaining()) {
+                position += segment.channel.write(record, position);
+            }
+            segment.channel.force(false);
+            segment.appended(offset, segment.size, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to change log " + directory, e);
+        }
+        nextOffset = offset + 1;
+        return offset;
+    }
+    
+    private Segment segmentFor(long offset) {
+        if (offset < getStartOffset()) {
+            throw new IllegalArgumentException("Offset " + offset + " has been deleted from the change log");
+        }
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments.get(middle).baseOffset <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return segments.get(low);
+    }
+    
+    private Path offsetFile(String consumer) {
+        if (consumer == null || !CONSUMER_NAME.matcher(consumer).matches()) {
+            throw new IllegalArgumentException("Invalid consumer name: " + consumer);
+        }
+        return directory.resolve(OFFSETS_DIRECTORY).resolve(consumer + OFFSET_SUFFIX);
+    }
+    
+    private static long baseOffsetOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    /**
+     * One segment file with a sparse index from offsets to file positions.
+     */
+    private static final class Segment {
+        
+        private final Path file;
+        private final FileChannel channel;
+        private final long baseOffset;
+        private long nextOffset;
+        private long size;
+        private long[] indexOffsets = new long[16];
+        private long[] indexPositions = new long[16];
+        private int indexSize;
+        
+        private Segment(Path file, FileChannel channel, long baseOffset) {
+            this.file = file;
+            this.channel = channel;
+            this.baseOffset = baseOffset;
+            this.nextOffset = baseOffset;
+        }
+        
+        /**
+         * Opens a segment, rebuilding its index and truncating a torn or
+         * corrupt record at its end.
+         */
+        static Segment open(Path file, long baseOffset) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            Segment segment = new Segment(file, channel, baseOffset);
+            long fileSize = channel.size();
+            ByteBuffer length = ByteBuffer.allocate(ChangeRecord.LENGTH_SIZE);
+            while (segment.size + ChangeRecord.LENGTH_SIZE <= fileSize) {
+                length.clear();
+                channel.read(length, segment.size);
+                int recordLength = length.getInt(0);
+                long end = segment.size + ChangeRecord.LENGTH_SIZE + recordLength;
+                if (recordLength < ChangeRecord.FIXED_SIZE + ChangeRecord.CRC_SIZE || end > fileSize) {
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.allocate(recordLength);
+                channel.read(record, segment.size + ChangeRecord.LENGTH_SIZE);
+                int payloadEnd = recordLength - ChangeRecord.CRC_SIZE;
+                if (ChangeRecord.crc(record, 0, payloadEnd) != record.getInt(payloadEnd)
+                        || record.getLong(0) != segment.nextOffset) {
+                    break;
+                }
+                segment.appended(segment.nextOffset, segment.size, end);
+            }
+            if (segment.size < fileSize) {
+                channel.truncate(segment.size);
+            }
+            return segment;
+        }
+        
+        void appended(long offset, long position, long end) {
+            if (indexSize == 0 || position - indexPositions[indexSize - 1] >= INDEX_INTERVAL) {
+                if (indexSize == indexOffsets.length) {
+                    indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+                    indexPositions = Arrays.copyOf(indexPositions, indexSize * 2);
+                }
+                indexOffsets[indexSize] = offset;
+                indexPositions[indexSize] = position;
+                indexSize++;
+            }
+            nextOffset = offset + 1;
+            size = end;
+        }
+        
+        /**
+         * Finds the file position of a record from the nearest index entry.
+         */
+        long positionOf(long offset) throws UncheckedIOException {
+            int entry = Arrays.binarySearch(indexOffsets, 0, indexSize, offset);
+            if (entry < 0) {
+                entry = -entry - 2;
+            }
+            long current = indexOffsets[entry];
+            long position = indexPositions[entry];
+            ByteBuffer length = ByteBuffer.allocate(ChangeRecord.LENGTH_SIZE);
+            try {
+                while (current < offset) {
+                    length.clear();
+                    channel.read(length, position);
+                    position += ChangeRecord.LENGTH_SIZE + length.getInt(0);
+                    current++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read change log segment " + file, e);
+            }
+            return position;
+        }
+    }
+}
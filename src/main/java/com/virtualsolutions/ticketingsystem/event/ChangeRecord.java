@@ -0,0 +1,196 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.repository.impl.TicketCodec;
+
+/**
+ * One entry of the change-data-capture log: a ticket or customer mutation and
+ * the state of the entity after it, or before it for deletions.
+ * 
+ * On disk each record is framed as: length (int, bytes that follow), offset
+ * (long), timestamp in epoch milliseconds (long), entity (byte), operation
+ * (byte), entity ID (long), the entity encoded with {@link TicketCodec}, and a
+ * CRC32 of everything from the offset to the end of the entity (int).
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class ChangeRecord {
+    
+    /**
+     * The kinds of entity recorded.
+     */
+    public enum Entity {
+        TICKET, CUSTOMER
+    }
+    
+    /**
+     * The kinds of mutation recorded.
+     */
+    public enum Operation {
+        CREATE, UPDATE, DELETE
+    }
+    
+    static final int LENGTH_SIZE = 4;
+    static final int FIXED_SIZE = 8 + 8 + 1 + 1 + 8;
+    static final int CRC_SIZE = 4;
+    private static final Entity[] ENTITIES = Entity.values();
+    private static final Operation[] OPERATIONS = Operation.values();
+    
+    private final long offset;
+    private final Instant timestamp;
+    private final Entity entity;
+    private final Operation operation;
+    private final long entityId;
+    private final Ticket ticket;
+    private final Customer customer;
+    
+    private ChangeRecord(long offset, Instant timestamp, Entity entity, Operation operation, long entityId,
+                         Ticket ticket, Customer customer) {
+        this.offset = offset;
+        this.timestamp = timestamp;
+        this.entity = entity;
+        this.operation = operation;
+        this.entityId = entityId;
+        this.ticket = ticket;
+        this.customer = customer;
+    }
+    
+    /**
+     * Reads the record at a buffer's position, such as from bytes received
+     * through {@link ChangeLog#transferTo}, and advances past it.
+     * 
+     * @param buffer The buffer holding framed records
+     * @return The record, or null if the buffer does not hold a whole record
+     * @throws IllegalStateException if the record is corrupt
+     */
+    public static ChangeRecord read(ByteBuffer buffer) {
+        if (buffer.remaining() < LENGTH_SIZE) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        if (length < FIXED_SIZE + CRC_SIZE || buffer.remaining() < LENGTH_SIZE + length) {
+            return null;
+        }
+        int body = start + LENGTH_SIZE;
+        int payloadLength = length - FIXED_SIZE - CRC_SIZE;
+        if (crc(buffer, body, FIXED_SIZE + payloadLength) != buffer.getInt(body + length - CRC_SIZE)) {
+            throw new IllegalStateException("Corrupt change record at position " + start);
+        }
+        
+        long offset = buffer.getLong(body);
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong(body + 8));
+        Entity entity = ENTITIES[buffer.get(body + 16)];
+        Operation operation = OPERATIONS[buffer.get(body + 17)];
+        long entityId = buffer.getLong(body + 18);
+        int payload = body + FIXED_SIZE;
+        Ticket ticket = entity == Entity.TICKET ? TicketCodec.decode(buffer, payload) : null;
+        Customer customer = entity == Entity.CUSTOMER ? TicketCodec.decodeCustomer(buffer, payload) : null;
+        buffer.position(start + LENGTH_SIZE + length);
+        return new ChangeRecord(offset, timestamp, entity, operation, entityId, ticket, customer);
+    }
+    
+    /**
+     * Frames a record for appending to the log.
+     */
+    static ByteBuffer encode(long offset, long timestampMillis, Entity entity, Operation operation,
+                             long entityId, byte[] payload) {
+        int length = FIXED_SIZE + payload.length + CRC_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_SIZE + length);
+        buffer.putInt(length);
+        buffer.putLong(offset);
+        buffer.putLong(timestampMillis);
+        buffer.put((byte) entity.ordinal());
+        buffer.put((byte) operation.ordinal());
+        buffer.putLong(entityId);
+        buffer.put(payload);
+        buffer.putInt(crc(buffer, LENGTH_SIZE, FIXED_SIZE + payload.length));
+        return buffer.flip();
+    }
+    
+    static int crc(ByteBuffer buffer, int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(position).limit(position + length));
+        return (int) crc.getValue();
+    }
+    
+    /**
+     * Gets the position of the record in the log.
+     * 
+     * @return The offset
+     */
+    public long getOffset() {
+        return offset;
+    }
+    
+    /**
+     * Gets when the mutation was recorded.
+     * 
+     * @return The timestamp
+     */
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+    
+    /**
+     * Gets the kind of entity that changed.
+     * 
+     * @return The entity kind
+     */
+    public Entity getEntity() {
+        return entity;
+    }
+    
+    /**
+     * Gets the kind of mutation.
+     * 
+     * @return The operation
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+    
+    /**
+     * Gets the ID of the entity that changed.
+     * 
+     * @return The entity ID
+     */
+    public long getEntityId() {
+        return entityId;
+    }
+    
+    /**
+     * Gets the ticket, for ticket records.
+     * 
+     * @return The ticket after the mutation, or before it for deletions; null for customer records
+     */
+    public Ticket getTicket() {
+        return ticket;
+    }
+    
+    /**
+     * Gets the customer, for customer records.
+     * 
+     * @return The customer after the mutation, or before it for deletions; null for ticket records
+     */
+    public Customer getCustomer() {
+        return customer;
+    }
+    
+    @Override
+    public String toString() {
+        return "ChangeRecord{" +
+                "offset=" + offset +
+                ", timestamp=" + timestamp +
+                ", entity=" + entity +
+                ", operation=" + operation +
+                ", entityId=" + entityId +
+                '}';
+    }
+}
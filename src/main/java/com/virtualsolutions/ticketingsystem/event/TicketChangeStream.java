@@ -0,0 +1,284 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Fan-out of ticket events to many filtered subscribers, such as live agent
+ * dashboards.
+ * 
+ * The stream consumes the event bus and keeps the most recent events in a
+ * replay ring, so a subscriber that reconnects with the ID of the last event
+ * it saw resumes without gaps or duplicates. Event IDs combine a random epoch
+ * chosen when the stream is created with the event's bus sequence, because
+ * sequences restart at zero with the application. If the last event has
+ * already left the ring, is ahead of the stream, or belongs to another epoch,
+ * the subscription starts with a reset so the client can reload its state.
+ * Live events are handed to each subscriber through a bounded queue; a
+ * subscriber that falls a full queue behind is marked overflowed and no
+ * longer receives events, so a stuck client can hold at most one queue of
+ * events in memory. It is expected to reconnect and resume from its last
+ * event.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketChangeStream implements TicketEventConsumer {
+    
+    private static final int DEFAULT_HISTORY_SIZE = 8192;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    
+    private final String epoch = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+    private final TicketEvent[] history;
+    private final int queueCapacity;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private long firstSequence = -1;
+    private long nextSequence = -1;
+    
+    /**
+     * Creates a stream that replays the last 8,192 events and lets each
+     * subscriber fall 1,024 events behind.
+     */
+    public TicketChangeStream() {
+        this(DEFAULT_HISTORY_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+    
+    /**
+     * Creates a stream.
+     * 
+     * @param historySize The number of recent events kept for resuming subscribers
+     * @param queueCapacity The number of undelivered events a subscriber may accumulate
+     */
+    public TicketChangeStream(int historySize, int queueCapacity) {
+        if (historySize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("History size and queue capacity must be positive");
+        }
+        this.history = new TicketEvent[historySize];
+        this.queueCapacity = queueCapacity;
+    }
+    
+    @Override
+    public synchronized void onEvents(List<TicketEvent> events) {
+        for (TicketEvent event : events) {
+            if (firstSequence < 0) {
+                firstSequence = event.getSequence();
+            }
+            history[(int) (event.getSequence() % history.length)] = event;
+            nextSequence = event.getSequence() + 1;
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(event);
+            }
+        }
+    }
+    
+    /**
+     * Gets the ID that identifies an event to clients of this stream.
+     * 
+     * @param event The event
+     * @return The stream's epoch and the event's sequence, separated by a dash
+     */
+    public String eventId(TicketEvent event) {
+        return epoch + "-" + event.getSequence();
+    }
+    
+    /**
+     * Subscribes to events matching a filter, resuming after an event ID
+     * produced by {@link #eventId}. An ID from another epoch, such as one
+     * issued before the application restarted, starts the subscription with
+     * a reset.
+     * 
+     * @param filter The events to deliver
+     * @param lastEventId The ID of the last event the subscriber saw, or null
+     *                    to receive only new events
+     * @return The subscription, preloaded with any missed events
+     * @throws IllegalArgumentException if the ID is malformed
+     */
+    public Subscription subscribe(Filter filter, String lastEventId) {
+        if (lastEventId == null || lastEventId.isEmpty()) {
+            return subscribe(filter, (Long) null);
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0) {
+            throw new IllegalArgumentException("Malformed event ID: " + lastEventId);
+        }
+        long sequence = Long.parseLong(lastEventId.substring(dash + 1));
+        return subscribe(filter, sequence, !epoch.equals(lastEventId.substring(0, dash)));
+    }
+    
+    /**
+     * Subscribes to events matching a filter, resuming after a bus sequence
+     * from the current run of the application.
+     * 
+     * @param filter The events to deliver
+     * @param lastEventId The sequence of the last event the subscriber saw, or
+     *                    null to receive only new events
+     * @return The subscription, preloaded with any missed events
+     */
+    public Subscription subscribe(Filter filter, Long lastEventId) {
+        return subscribe(filter, lastEventId, false);
+    }
+    
+    private synchronized Subscription subscribe(Filter filter, Long lastEventId, boolean otherEpoch) {
+        List<TicketEvent> replay = new ArrayList<>();
+        boolean reset = false;
+        if (lastEventId != null) {
+            long from = lastEventId + 1;
+            long oldest = Math.max(firstSequence, nextSequence - history.length);
+            // The stream has not seen the client's last event, so it cannot tell what was missed
+            if (otherEpoch || nextSequence < 0 || from < oldest || from > nextSequence) {
+                reset = true;
+                from = nextSequence;
+            }
+            for (long sequence = from; sequence < nextSequence; sequence++) {
+                TicketEvent event = history[(int) (sequence % history.length)];
+                if (filter.matches(event)) {
+                    replay.add(event);
+                }
+            }
+        }
+        Subscription subscription = new Subscription(filter, replay, reset);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+    
+    /**
+     * Gets the number of open subscriptions.
+     * 
+     * @return The subscription count
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+    
+    /**
+     * Selects events by the agent, category and status of their ticket, as
+     * recorded in the event rather than the ticket's present state. An event
+     * matches if the ticket matched before or after the update it belongs to,
+     * so subscribers also receive the changes that move a ticket out of their
+     * view. Unset criteria match every ticket.
+     */
+    public static class Filter {
+        
+        private final Long agentId;
+        private final Long categoryId;
+        private final TicketStatus status;
+        
+        /**
+         * Creates a filter.
+         * 
+         * @param agentId The assigned agent to match, or null for any
+         * @param categoryId The category to match, or null for any
+         * @param status The status to match, or null for any
+         */
+        public Filter(Long agentId, Long categoryId, TicketStatus status) {
+            this.agentId = agentId;
+            this.categoryId = categoryId;
+            this.status = status;
+        }
+        
+        /**
+         * Checks whether an event passes the filter.
+         * 
+         * @param event The event
+         * @return true if the event's ticket matches every set criterion
+         *         before or after the change
+         */
+        public boolean matches(TicketEvent event) {
+            Ticket ticket = event.getTicket();
+            if (matches(TicketEvent.agentIdOf(ticket), TicketEvent.categoryIdOf(ticket), ticket.getStatus())) {
+                return true;
+            }
+            return event.hasPreviousState() && matches(event.getPreviousAgentId(), event.getPreviousCategoryId(),
+                    event.getPreviousStatus());
+        }
+        
+        private boolean matches(Long ticketAgentId, Long ticketCategoryId, TicketStatus ticketStatus) {
+            return (agentId == null || agentId.equals(ticketAgentId))
+                    && (categoryId == null || categoryId.equals(ticketCategoryId))
+                    && (status == null || status == ticketStatus);
+        }
+    }
+    
+    /**
+     * One subscriber's view of the stream.
+     */
+    public class Subscription implements AutoCloseable {
+        
+        private final Filter filter;
+        private final List<TicketEvent> replay;
+        private final boolean reset;
+        private final BlockingQueue<TicketEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private volatile boolean overflowed;
+        
+        private Subscription(Filter filter, List<TicketEvent> replay, boolean reset) {
+            this.filter = filter;
+            this.replay = replay;
+            this.reset = reset;
+        }
+        
+        /**
+         * Checks whether the subscriber's last event was too old to resume
+         * from, so it must reload its state before applying new events.
+         * 
+         * @return true if the subscriber must reload, false otherwise
+         */
+        public boolean isReset() {
+            return reset;
+        }
+        
+        /**
+         * Gets the missed events to deliver before any live event.
+         * 
+         * @return The replayed events, oldest first
+         */
+        public List<TicketEvent> getReplay() {
+            return Collections.unmodifiableList(replay);
+        }
+        
+        /**
+         * Waits for the next live event.
+         * 
+         * @param timeout The longest time to wait
+         * @param unit The unit of the timeout
+         * @return The next event, or null if none arrived in time
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        public TicketEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return queue.poll(timeout, unit);
+        }
+        
+        /**
+         * Checks whether the subscriber fell too far behind and was cut off.
+         * 
+         * @return true if events were dropped, false otherwise
+         */
+        public boolean isOverflowed() {
+            return overflowed;
+        }
+        
+        /**
+         * Ends the subscription.
+         */
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+            queue.clear();
+        }
+        
+        private void offer(TicketEvent event) {
+            if (filter.matches(event) && !queue.offer(event)) {
+                overflowed = true;
+                close();
+            }
+        }
+    }
+}
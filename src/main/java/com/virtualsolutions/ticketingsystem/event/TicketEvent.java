@@ -0,0 +1,251 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import java.time.Instant;
+
+import com.virtualsolutions.ticketingsystem.model.Comment;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * A single change to a ticket, as published on the ticket event bus.
+ * The new value is set only for the field the event type describes: the
+ * agent for ASSIGNED, the status for STATUS_CHANGED, the priority for
+ * PRIORITY_CHANGED and the comment for COMMENT_ADDED. Every event produced by
+ * an update also carries the ticket's agent, category, status and priority
+ * from before that update, so consumers can match on either side of it.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketEvent {
+    
+    /**
+     * The kinds of ticket change.
+     */
+    public enum Type {
+        /**
+         * A ticket was created.
+         */
+        CREATED,
+        
+        /**
+         * A ticket was assigned or reassigned to an agent.
+         */
+        ASSIGNED,
+        
+        /**
+         * A ticket's status changed.
+         */
+        STATUS_CHANGED,
+        
+        /**
+         * A ticket's priority changed.
+         */
+        PRIORITY_CHANGED,
+        
+        /**
+         * A comment was added to a ticket.
+         */
+        COMMENT_ADDED,
+        
+        /**
+         * A ticket was updated in a way no other type describes, such as a new title.
+         */
+        UPDATED,
+        
+        /**
+         * A ticket was deleted.
+         */
+        DELETED
+    }
+    
+    private final long sequence;
+    private final Type type;
+    private final Long ticketId;
+    private final Instant occurredAt;
+    private final Ticket ticket;
+    private final boolean hasPreviousState;
+    private final Long previousAgentId;
+    private final Long previousCategoryId;
+    private final TicketStatus previousStatus;
+    private final TicketPriority previousPriority;
+    private final Comment comment;
+    
+    private TicketEvent(long sequence, Type type, Ticket ticket, Instant occurredAt, boolean hasPreviousState,
+                        Long previousAgentId, Long previousCategoryId, TicketStatus previousStatus,
+                        TicketPriority previousPriority, Comment comment) {
+        this.sequence = sequence;
+        this.type = type;
+        this.ticketId = ticket.getId();
+        this.occurredAt = occurredAt;
+        this.ticket = ticket;
+        this.hasPreviousState = hasPreviousState;
+        this.previousAgentId = previousAgentId;
+        this.previousCategoryId = previousCategoryId;
+        this.previousStatus = previousStatus;
+        this.previousPriority = previousPriority;
+        this.comment = comment;
+    }
+    
+    static TicketEvent of(long sequence, Type type, Ticket ticket, Instant occurredAt) {
+        return new TicketEvent(sequence, type, ticket, occurredAt, false, null, null, null, null, null);
+    }
+    
+    static TicketEvent changed(long sequence, Type type, Ticket ticket, Instant occurredAt,
+                               Long previousAgentId, Long previousCategoryId, TicketStatus previousStatus,
+                               TicketPriority previousPriority, Comment comment) {
+        return new TicketEvent(sequence, type, ticket, occurredAt, true, previousAgentId, previousCategoryId,
+                previousStatus, previousPriority, comment);
+    }
+    
+    /**
+     * Gets the position of the event on the bus. Sequences increase by one per event.
+     * 
+     * @return The sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Gets the kind of change.
+     * 
+     * @return The event type
+     */
+    public Type getType() {
+        return type;
+    }
+    
+    /**
+     * Gets the ID of the changed ticket.
+     * 
+     * @return The ticket ID
+     */
+    public Long getTicketId() {
+        return ticketId;
+    }
+    
+    /**
+     * Gets when the change was published.
+     * 
+     * @return The publication time
+     */
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+    
+    /**
+     * Gets the changed ticket as it was right after the change. This is a copy
+     * taken when the event was created, so later changes to the ticket do not
+     * show through it, and it must not be modified.
+     * 
+     * @return The ticket
+     */
+    public Ticket getTicket() {
+        return ticket;
+    }
+    
+    /**
+     * Checks whether the event was produced by an update of a ticket whose
+     * earlier state is known, so that the previous-state getters are set.
+     * 
+     * @return true if the previous state is set, false otherwise
+     */
+    public boolean hasPreviousState() {
+        return hasPreviousState;
+    }
+    
+    /**
+     * Gets the agent the ticket was assigned to before the update that
+     * produced the event. Like the other previous-state getters, this is set
+     * for every event of an update, not only ASSIGNED, so that a subscriber
+     * can tell when a ticket leaves its view.
+     * 
+     * @return The previous agent ID, or null if the ticket was unassigned
+     */
+    public Long getPreviousAgentId() {
+        return previousAgentId;
+    }
+    
+    /**
+     * Gets the agent the ticket was assigned to, for ASSIGNED events.
+     * 
+     * @return The agent ID, or null
+     */
+    public Long getAgentId() {
+        return type == Type.ASSIGNED ? agentIdOf(ticket) : null;
+    }
+    
+    /**
+     * Gets the ticket's category before the update that produced the event.
+     * 
+     * @return The previous category ID, or null
+     */
+    public Long getPreviousCategoryId() {
+        return previousCategoryId;
+    }
+    
+    /**
+     * Gets the status before the update that produced the event.
+     * 
+     * @return The previous status, or null
+     */
+    public TicketStatus getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    /**
+     * Gets the status after the change, for STATUS_CHANGED events.
+     * 
+     * @return The new status, or null
+     */
+    public TicketStatus getStatus() {
+        return type == Type.STATUS_CHANGED ? ticket.getStatus() : null;
+    }
+    
+    /**
+     * Gets the priority before the update that produced the event.
+     * 
+     * @return The previous priority, or null
+     */
+    public TicketPriority getPreviousPriority() {
+        return previousPriority;
+    }
+    
+    /**
+     * Gets the priority after the change, for PRIORITY_CHANGED events.
+     * 
+     * @return The new priority, or null
+     */
+    public TicketPriority getPriority() {
+        return type == Type.PRIORITY_CHANGED ? ticket.getPriority() : null;
+    }
+    
+    /**
+     * Gets the added comment, for COMMENT_ADDED events.
+     * 
+     * @return The comment, or null
+     */
+    public Comment getComment() {
+        return comment;
+    }
+    
+    static Long agentIdOf(Ticket ticket) {
+        return ticket.getAssignedAgent() == null ? null : ticket.getAssignedAgent().getId();
+    }
+    
+    static Long categoryIdOf(Ticket ticket) {
+        return ticket.getCategory() == null ? null : ticket.getCategory().getId();
+    }
+    
+    @Override
+    public String toString() {
+        return "TicketEvent{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", ticketId=" + ticketId +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
@@ -0,0 +1,361 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.virtualsolutions.ticketingsystem.model.Comment;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.repository.impl.TicketCodec;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * In-process bus of typed ticket change events, built on a lock-free ring
+ * buffer in the style of the LMAX Disruptor.
+ * 
+ * As a ticket change listener, the bus compares each changed ticket with the
+ * state it last saw and publishes one event per kind of change. Each event
+ * carries a copy of the ticket taken when the change was reported, so events
+ * are facts about that change rather than views of the live ticket. The
+ * comparison runs under the ticket's entry in a concurrent map, which also
+ * reserves the events' sequence numbers with a single atomic increment each,
+ * so events of one ticket take sequence numbers in the order the changes were
+ * made. Publishing happens after the entry is released: the event is stored
+ * in its slot and the slot marked published, waiting only if the slowest
+ * consumer is a full ring behind. A slow consumer therefore never blocks
+ * changes to other tickets through the map.
+ * 
+ * Every consumer has its own thread and its own position in the ring. It
+ * receives every event once, in sequence order, in batches of everything
+ * published since its previous batch, so a slow consumer catches up in large
+ * batches instead of slowing the write path.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketEventBus implements TicketChangeListener, AutoCloseable {
+    
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final int SPIN_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = 50_000;
+    
+    private final Clock clock;
+    private final int mask;
+    private final AtomicReferenceArray<TicketEvent> slots;
+    private final AtomicLongArray publishedSequences;
+    private final AtomicLong cursor = new AtomicLong();
+    private final List<ConsumerWorker> workers = new CopyOnWriteArrayList<>();
+    private final Map<Long, TicketState> states = new ConcurrentHashMap<>();
+    private final LongAdder failedBatches = new LongAdder();
+    private volatile boolean closed;
+    
+    /**
+     * Creates a bus with room for 65,536 unconsumed events.
+     */
+    public TicketEventBus() {
+        this(DEFAULT_CAPACITY, Clock.systemUTC());
+    }
+    
+    /**
+     * Creates a bus.
+     * 
+     * @param capacity The ring size; must be a power of two
+     * @param clock The clock used to time events
+     */
+    public TicketEventBus(int capacity, Clock clock) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        this.clock = clock;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.publishedSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedSequences.set(i, -1);
+        }
+    }
+    
+    /**
+     * Records the current state of existing tickets, such as the contents of a
+     * repository when the bus is created, without publishing events.
+     * 
+     * @param tickets The tickets to record
+     */
+    public void load(Collection<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            states.put(ticket.getId(), new TicketState(ticket));
+        }
+    }
+    
+    /**
+     * Starts delivering events to a consumer on a new thread. The consumer
+     * receives the events published after it is added.
+     * 
+     * @param name A name for the consumer, used for its thread
+     * @param consumer The consumer
+     */
+    public void addConsumer(String name, TicketEventConsumer consumer) {
+        if (closed) {
+            throw new IllegalStateException("Event bus is closed");
+        }
+        ConsumerWorker worker = new ConsumerWorker(consumer, cursor.get());
+        workers.add(worker);
+        Thread thread = new Thread(worker, "ticket-events-" + name);
+        thread.setDaemon(true);
+        worker.thread = thread;
+        thread.start();
+    }
+    
+    /**
+     * Stops delivering events to a consumer once it has consumed what is already published.
+     * 
+     * @param consumer The consumer to remove
+     * @return true if the consumer was registered, false otherwise
+     */
+    public boolean removeConsumer(TicketEventConsumer consumer) {
+        for (ConsumerWorker worker : workers) {
+            if (worker.consumer == consumer) {
+                worker.stop();
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the number of events published so far.
+     * 
+     * @return The published event count
+     */
+    public long getPublishedCount() {
+        return cursor.get();
+    }
+    
+    /**
+     * Gets the number of batches whose consumer threw an exception. Failed
+     * batches are skipped so that one faulty consumer cannot stall the bus.
+     * 
+     * @return The failed batch count
+     */
+    public long getFailedBatchCount() {
+        return failedBatches.sum();
+    }
+    
+    @Override
+    public void onTicketCreated(Ticket ticket) {
+        Ticket snapshot = snapshot(ticket);
+        List<TicketEvent> events = new ArrayList<>(1);
+        states.compute(ticket.getId(), (id, previous) -> {
+            events.add(TicketEvent.of(reserve(), TicketEvent.Type.CREATED, snapshot, now()));
+            return new TicketState(snapshot);
+        });
+        publish(events);
+    }
+    
+    @Override
+    public void onTicketUpdated(Ticket ticket) {
+        Ticket snapshot = snapshot(ticket);
+        List<TicketEvent> events = new ArrayList<>(2);
+        states.compute(ticket.getId(), (id, previous) -> {
+            TicketState current = new TicketState(snapshot);
+            if (previous == null) {
+                events.add(TicketEvent.of(reserve(), TicketEvent.Type.UPDATED, snapshot, now()));
+                return current;
+            }
+            if (!Objects.equals(previous.agentId, current.agentId)) {
+                events.add(changed(TicketEvent.Type.ASSIGNED, snapshot, previous, null));
+            }
+            if (previous.status != current.status) {
+                events.add(changed(TicketEvent.Type.STATUS_CHANGED, snapshot, previous, null));
+            }
+            if (previous.priority != current.priority) {
+                events.add(changed(TicketEvent.Type.PRIORITY_CHANGED, snapshot, previous, null));
+            }
+            List<Comment> comments = snapshot.getComments();
+            for (int i = previous.commentCount; i < current.commentCount; i++) {
+                events.add(changed(TicketEvent.Type.COMMENT_ADDED, snapshot, previous, comments.get(i)));
+            }
+            if (events.isEmpty()) {
+                events.add(changed(TicketEvent.Type.UPDATED, snapshot, previous, null));
+            }
+            return current;
+        });
+        publish(events);
+    }
+    
+    @Override
+    public void onTicketDeleted(Ticket ticket) {
+        Ticket snapshot = snapshot(ticket);
+        List<TicketEvent> events = new ArrayList<>(1);
+        states.compute(ticket.getId(), (id, previous) -> {
+            events.add(TicketEvent.of(reserve(), TicketEvent.Type.DELETED, snapshot, now()));
+            return null;
+        });
+        publish(events);
+    }
+    
+    /**
+     * Stops all consumers after they have consumed every published event.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (ConsumerWorker worker : workers) {
+            worker.stop();
+        }
+        for (ConsumerWorker worker : workers) {
+            try {
+                worker.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Reserves the next sequence number. This never waits, so it is safe to
+     * call while holding a ticket's entry in the state map.
+     */
+    private long reserve() {
+        return cursor.getAndIncrement();
+    }
+    
+    /**
+     * Creates an event of an update, reserving its sequence number.
+     */
+    private TicketEvent changed(TicketEvent.Type type, Ticket snapshot, TicketState previous, Comment comment) {
+        return TicketEvent.changed(reserve(), type, snapshot, now(), previous.agentId, previous.categoryId,
+                previous.status, previous.priority, comment);
+    }
+    
+    /**
+     * Publishes events whose sequences are already reserved, waiting for each
+     * slot while the slowest consumer still needs the event it would overwrite.
+     */
+    private void publish(List<TicketEvent> events) {
+        for (TicketEvent event : events) {
+            long wrapPoint = event.getSequence() - slots.length();
+            while (wrapPoint >= minimumConsumerSequence()) {
+                LockSupport.parkNanos(1_000);
+            }
+            int slot = (int) (event.getSequence() & mask);
+            slots.set(slot, event);
+            publishedSequences.set(slot, event.getSequence());
+        }
+    }
+    
+    private long minimumConsumerSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (ConsumerWorker worker : workers) {
+            minimum = Math.min(minimum, worker.nextSequence.get());
+        }
+        return minimum;
+    }
+    
+    private Instant now() {
+        return clock.instant();
+    }
+    
+    /**
+     * Copies a ticket, including its customer, agent, category and comments,
+     * so that events keep the state of the change that produced them.
+     */
+    private static Ticket snapshot(Ticket ticket) {
+        return TicketCodec.decode(ByteBuffer.wrap(TicketCodec.encode(ticket)), 0);
+    }
+    
+    /**
+     * The fields of a ticket that events are derived from.
+     */
+    private static final class TicketState {
+        
+        private final Long agentId;
+        private final Long categoryId;
+        private final TicketStatus status;
+        private final TicketPriority priority;
+        private final int commentCount;
+        
+        private TicketState(Ticket ticket) {
+            this.agentId = TicketEvent.agentIdOf(ticket);
+            this.categoryId = TicketEvent.categoryIdOf(ticket);
+            this.status = ticket.getStatus();
+            this.priority = ticket.getPriority();
+            this.commentCount = ticket.getComments() == null ? 0 : ticket.getComments().size();
+        }
+    }
+    
+    /**
+     * Delivers events to one consumer from its own position in the ring.
+     */
+    private final class ConsumerWorker implements Runnable {
+        
+        private final TicketEventConsumer consumer;
+        private final AtomicLong nextSequence;
+        private volatile boolean stopping;
+        private Thread thread;
+        
+        private ConsumerWorker(TicketEventConsumer consumer, long nextSequence) {
+            this.consumer = consumer;
+            this.nextSequence = new AtomicLong(nextSequence);
+        }
+        
+        void stop() {
+            stopping = true;
+        }
+        
+        @Override
+        public void run() {
+            int idle = 0;
+            List<TicketEvent> batch = new ArrayList<>();
+            while (true) {
+                long next = nextSequence.get();
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    long sequence = next + batch.size();
+                    int slot = (int) (sequence & mask);
+                    if (publishedSequences.get(slot) != sequence) {
+                        break;
+                    }
+                    batch.add(slots.get(slot));
+                }
+                
+                if (batch.isEmpty()) {
+                    // Leave once everything reserved before stopping has been consumed
+                    if (stopping && next >= cursor.get()) {
+                        break;
+                    }
+                    if (++idle > SPIN_TRIES) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    continue;
+                }
+                idle = 0;
+                // The batch holds its events, so their slots can be reused while it is consumed
+                nextSequence.set(next + batch.size());
+                try {
+                    consumer.onEvents(Collections.unmodifiableList(batch));
+                } catch (RuntimeException e) {
+                    failedBatches.increment();
+                }
+                batch = new ArrayList<>();
+            }
+            workers.remove(this);
+        }
+    }
+}
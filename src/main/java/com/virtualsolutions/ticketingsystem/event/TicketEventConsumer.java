@@ -0,0 +1,21 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import java.util.List;
+
+/**
+ * Consumer of ticket events from the event bus. Each consumer runs on its own
+ * thread and receives every event exactly once, in publication order, in
+ * batches of whatever has been published since the previous batch.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public interface TicketEventConsumer {
+    
+    /**
+     * Called with the next events in order.
+     * 
+     * @param events The events, never empty
+     */
+    void onEvents(List<TicketEvent> events);
+}
@@ -0,0 +1,266 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Embedded HTTP server that pushes ticket changes to browsers as Server-Sent
+ * Events, replacing dashboard polling.
+ * 
+ * Clients open {@code GET /tickets/stream}, optionally filtered with the
+ * {@code agentId}, {@code categoryId} and {@code status} query parameters.
+ * Each event carries its stream event ID, made of a per-run epoch and the bus
+ * sequence, as its SSE id, so a reconnecting browser's {@code Last-Event-ID}
+ * header resumes the stream where it left off, or resets it after a restart.
+ * A {@code reset} event tells the client to reload because events were missed,
+ * and an {@code overflow} event precedes disconnecting a client that fell too
+ * far behind. Idle connections receive a comment every 15 seconds so proxies
+ * keep them open.
+ * 
+ * The server does not authenticate clients, so it listens on the loopback
+ * interface unless given another address. It serves a fixed number of streams
+ * at once and answers further clients with 503 until one disconnects.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketStreamServer implements AutoCloseable {
+    
+    private static final String PATH = "/tickets/stream";
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final int DEFAULT_MAX_STREAMS = 64;
+    
+    private final TicketChangeStream stream;
+    private final Semaphore openStreams;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    
+    /**
+     * Creates and starts a server on the loopback interface that serves up to
+     * 64 streams at a time.
+     * 
+     * @param stream The stream of ticket events to serve
+     * @param port The port to listen on, or 0 for any free port
+     * @throws IOException if the server cannot bind the port
+     */
+    public TicketStreamServer(TicketChangeStream stream, int port) throws IOException {
+        this(stream, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), DEFAULT_MAX_STREAMS);
+    }
+    
+    /**
+     * Creates and starts a server.
+     * 
+     * @param stream The stream of ticket events to serve
+     * @param address The address to listen on
+     * @param maxStreams The largest number of streams open at once; further
+     *                   clients are turned away until one disconnects
+     * @throws IOException if the server cannot bind the address
+     */
+    public TicketStreamServer(TicketChangeStream stream, InetSocketAddress address, int maxStreams)
+            throws IOException {
+        if (maxStreams <= 0) {
+            throw new IllegalArgumentException("Maximum number of streams must be positive");
+        }
+        this.stream = stream;
+        this.openStreams = new Semaphore(maxStreams);
+        this.server = HttpServer.create(address, 0);
+        // Every open stream holds a thread while it waits for events; the spare one turns clients away
+        this.executor = Executors.newFixedThreadPool(maxStreams + 1, runnable -> {
+            Thread thread = new Thread(runnable, "ticket-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+    
+    /**
+     * Gets the port the server listens on.
+     * 
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Stops the server and closes all streams.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            TicketChangeStream.Filter filter;
+            String lastEventId;
+            try {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                filter = new TicketChangeStream.Filter(parseLong(query.get("agentId")),
+                        parseLong(query.get("categoryId")),
+                        query.get("status") == null ? null : TicketStatus.valueOf(query.get("status").toUpperCase()));
+                lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            } catch (IllegalArgumentException e) {
+                badRequest(exchange, e);
+                return;
+            }
+            
+            if (!openStreams.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(HEARTBEAT_SECONDS));
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            try {
+                stream(exchange, filter, lastEventId);
+            } finally {
+                openStreams.release();
+            }
+        }
+    }
+    
+    /**
+     * Sends replayed and live events to one client until it disconnects or overflows.
+     */
+    private void stream(HttpExchange exchange, TicketChangeStream.Filter filter, String lastEventId)
+            throws IOException {
+        TicketChangeStream.Subscription subscription;
+        try {
+            subscription = stream.subscribe(filter, lastEventId);
+        } catch (IllegalArgumentException e) {
+            badRequest(exchange, e);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        try (subscription) {
+            if (subscription.isReset()) {
+                write(out, "event: reset\ndata: {}\n\n");
+            }
+            for (TicketEvent event : subscription.getReplay()) {
+                write(out, format(event));
+            }
+            out.flush();
+            while (true) {
+                TicketEvent event = subscription.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (subscription.isOverflowed()) {
+                    write(out, "event: overflow\ndata: {}\n\n");
+                    out.flush();
+                    return;
+                }
+                write(out, event == null ? ": keep-alive\n\n" : format(event));
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The client disconnected
+        }
+    }
+    
+    /**
+     * Formats an event as an SSE message whose data is a JSON summary of the
+     * change and the ticket's state right after it.
+     */
+    private String format(TicketEvent event) {
+        Ticket ticket = event.getTicket();
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"sequence\":").append(event.getSequence());
+        json.append(",\"type\":\"").append(event.getType()).append('"');
+        json.append(",\"ticketId\":").append(event.getTicketId());
+        json.append(",\"ticketNumber\":").append(quote(ticket.getTicketNumber()));
+        json.append(",\"title\":").append(quote(ticket.getTitle()));
+        json.append(",\"status\":").append(quote(ticket.getStatus() == null ? null : ticket.getStatus().name()));
+        json.append(",\"priority\":")
+                .append(quote(ticket.getPriority() == null ? null : ticket.getPriority().name()));
+        json.append(",\"agentId\":")
+                .append(ticket.getAssignedAgent() == null ? null : ticket.getAssignedAgent().getId());
+        json.append(",\"categoryId\":").append(ticket.getCategory() == null ? null : ticket.getCategory().getId());
+        if (event.hasPreviousState()) {
+            json.append(",\"previousStatus\":")
+                    .append(quote(event.getPreviousStatus() == null ? null : event.getPreviousStatus().name()));
+            json.append(",\"previousAgentId\":").append(event.getPreviousAgentId());
+            json.append(",\"previousCategoryId\":").append(event.getPreviousCategoryId());
+        }
+        json.append(",\"occurredAt\":").append(quote(event.getOccurredAt().toString()));
+        json.append('}');
+        return "id: " + stream.eventId(event) + "\nevent: " + event.getType().name().toLowerCase()
+                + "\ndata: " + json + "\n\n";
+    }
+    
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+    
+    private static void badRequest(HttpExchange exchange, IllegalArgumentException e) throws IOException {
+        byte[] body = ("Invalid request: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(400, body.length);
+        exchange.getResponseBody().write(body);
+    }
+    
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+    
+    private static Long parseLong(String value) {
+        return value == null || value.isEmpty() ? null : Long.valueOf(value);
+    }
+}
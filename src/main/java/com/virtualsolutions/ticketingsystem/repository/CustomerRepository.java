@@ -60,6 +60,27 @@ public interface CustomerRepository {
      */
     List<Customer> findByName(String name);
     
+    /**
+     * Finds customers whose names closely match the given name, tolerating
+     * misspellings. Every word of the name must match a word of the customer's
+     * name within the allowed number of edits.
+     * 
+     * @param name The name to search for
+     * @param maxDistance The most edits (insertions, deletions, substitutions or swaps) allowed per word
+     * @return A list of matching customers, closest match first
+     */
+    List<Customer> findByNameFuzzy(String name, int maxDistance);
+    
+    /**
+     * Finds customers whose names sound like the given name, even when spelled
+     * differently. Every word of the name must sound like a word of the
+     * customer's name.
+     * 
+     * @param name The name to search for
+     * @return A list of customers with a sound-alike name
+     */
+    List<Customer> findByNameSoundingLike(String name);
+    
     /**
      * Finds a customer by their email address.
      * 
@@ -40,6 +40,16 @@ public interface TicketRepository {
      */
     Optional<Ticket> findById(Long id);
     
+    /**
+     * Checks whether a ticket with the given ID exists, without loading it.
+     * 
+     * @param id The ID of the ticket to check
+     * @return true if the ticket exists, false otherwise
+     */
+    default boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+    
     /**
      * Finds a ticket by its ticket number.
      * 
@@ -55,6 +65,15 @@ public interface TicketRepository {
      */
     List<Ticket> findAll();
     
+    /**
+     * Counts the tickets in the repository, without loading them.
+     * 
+     * @return The number of tickets
+     */
+    default int count() {
+        return findAll().size();
+    }
+    
     /**
      * Deletes a ticket from the repository.
      * 
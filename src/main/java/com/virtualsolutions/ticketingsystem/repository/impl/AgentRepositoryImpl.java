@@ -0,0 +1,106 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.virtualsolutions.ticketingsystem.model.Agent;
+import com.virtualsolutions.ticketingsystem.repository.AgentRepository;
+
+/**
+ * In-memory implementation of the AgentRepository interface.
+ * This implementation uses a HashMap to store agents.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class AgentRepositoryImpl implements AgentRepository {
+    
+    private final Map<Long, Agent> agents = new HashMap<>();
+    private Long nextId = 1L;
+    
+    @Override
+    public Agent save(Agent agent) {
+        if (agent.getId() == null) {
+            agent.setId(nextId++);
+        }
+        agents.put(agent.getId(), agent);
+        return agent;
+    }
+    
+    @Override
+    public Agent update(Agent agent) {
+        if (agent.getId() == null || !agents.containsKey(agent.getId())) {
+            throw new IllegalArgumentException("Cannot update non-existent agent");
+        }
+        agents.put(agent.getId(), agent);
+        return agent;
+    }
+    
+    @Override
+    public Optional<Agent> findById(Long id) {
+        return Optional.ofNullable(agents.get(id));
+    }
+    
+    @Override
+    public List<Agent> findAll() {
+        return new ArrayList<>(agents.values());
+    }
+    
+    @Override
+    public boolean delete(Long id) {
+        return agents.remove(id) != null;
+    }
+    
+    @Override
+    public List<Agent> findByName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        String nameLower = name.toLowerCase();
+        return agents.values().stream()
+                .filter(agent -> agent.getName() != null && 
+                        agent.getName().toLowerCase().contains(nameLower))
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public Optional<Agent> findByEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        
+        String emailLower = email.toLowerCase();
+        return agents.values().stream()
+                .filter(agent -> agent.getEmail() != null && 
+                        agent.getEmail().toLowerCase().equals(emailLower))
+                .findFirst();
+    }
+    
+    @Override
+    public Optional<Agent> findByEmployeeId(String employeeId) {
+        if (employeeId == null || employeeId.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        
+        return agents.values().stream()
+                .filter(agent -> employeeId.equals(agent.getEmployeeId()))
+                .findFirst();
+    }
+    
+    @Override
+    public List<Agent> findByDepartment(String department) {
+        if (department == null || department.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        return agents.values().stream()
+                .filter(agent -> agent.getDepartment() != null && 
+                        agent.getDepartment().equalsIgnoreCase(department))
+                .collect(Collectors.toList());
+    }
+}
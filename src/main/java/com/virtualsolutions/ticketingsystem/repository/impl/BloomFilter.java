@@ -0,0 +1,196 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over 64-bit key hashes, used to answer lookups for keys that
+ * are certainly absent without touching the underlying storage.
+ * The filter also keeps counters so owners can report how often it lets an
+ * absent key through: after a positive answer that storage does not confirm,
+ * the owner calls {@link #recordFalsePositive()}.
+ * 
+ * Adding keys is not thread-safe; owners add under their own write lock.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class BloomFilter {
+    
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private long insertions;
+    
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    
+    /**
+     * Creates a filter sized for a number of keys and a target false positive rate.
+     * 
+     * @param expectedInsertions The number of keys the filter is sized for
+     * @param falsePositiveRate The target false positive rate, between 0 and 1
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        long keys = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.max(1, (optimalBits + 63) / 64)];
+        this.bitCount = bits.length * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / keys * Math.log(2)));
+    }
+    
+    /**
+     * Computes the 64-bit FNV-1a hash of a string's UTF-8 bytes.
+     * 
+     * @param key The string to hash
+     * @return The hash
+     */
+    public static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * Adds a key hash to the filter.
+     * 
+     * @param hash The 64-bit hash of the key
+     */
+    public void put(long hash) {
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        insertions++;
+    }
+    
+    /**
+     * Adds a string key to the filter.
+     * 
+     * @param key The key to add
+     */
+    public void put(String key) {
+        put(hash64(key));
+    }
+    
+    /**
+     * Checks whether a key hash may have been added. A false answer is definite.
+     * 
+     * @param hash The 64-bit hash of the key
+     * @return false if the key was certainly never added, true if it may have been
+     */
+    public boolean mightContain(long hash) {
+        queries.increment();
+        long mixed = mix(hash);
+        int h1 = (int) mixed;
+        int h2 = (int) (mixed >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                negatives.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Checks whether a string key may have been added. A false answer is definite.
+     * 
+     * @param key The key to check
+     * @return false if the key was certainly never added, true if it may have been
+     */
+    public boolean mightContain(String key) {
+        return mightContain(hash64(key));
+    }
+    
+    /**
+     * Records that a positive answer was not confirmed by the underlying storage.
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+    
+    /**
+     * Gets the number of keys added.
+     * 
+     * @return The insertion count
+     */
+    public long getInsertions() {
+        return insertions;
+    }
+    
+    /**
+     * Gets the number of membership checks made.
+     * 
+     * @return The query count
+     */
+    public long getQueryCount() {
+        return queries.sum();
+    }
+    
+    /**
+     * Gets the number of checks answered negatively without touching storage.
+     * 
+     * @return The negative answer count
+     */
+    public long getNegativeCount() {
+        return negatives.sum();
+    }
+    
+    /**
+     * Gets the number of recorded false positives.
+     * 
+     * @return The false positive count
+     */
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+    
+    /**
+     * Gets the observed false positive rate: the share of lookups for absent
+     * keys that the filter failed to reject.
+     * 
+     * @return The observed rate, or 0 if no absent keys were looked up
+     */
+    public double getObservedFalsePositiveRate() {
+        long falsePositiveCount = falsePositives.sum();
+        long absentLookups = falsePositiveCount + negatives.sum();
+        return absentLookups == 0 ? 0.0 : (double) falsePositiveCount / absentLookups;
+    }
+    
+    /**
+     * Gets the false positive rate expected from the current fill of the bit array.
+     * 
+     * @return The expected rate
+     */
+    public double getExpectedFalsePositiveRate() {
+        long setBits = 0;
+        for (long word : bits) {
+            setBits += Long.bitCount(word);
+        }
+        return Math.pow((double) setBits / bitCount, hashCount);
+    }
+    
+    /**
+     * Spreads the key hash with the MurmurHash3 finalizer so both halves are well mixed.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -2,10 +2,13 @@ package com.virtualsolutions.ticketingsystem.repository.impl;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import com.virtualsolutions.ticketingsystem.model.Customer;
@@ -13,37 +16,81 @@ import com.virtualsolutions.ticketingsystem.repository.CustomerRepository;
 
 /**
  * In-memory implementation of the CustomerRepository interface.
- * This implementation uses a HashMap to store customers.
+ * Customers are stored in a ConcurrentHashMap and the phone index replaces its
+ * entries rather than modifying them, so lookups by ID and phone number, such
+ * as caller-ID screen pops, run without locking on many threads while
+ * customers are being saved. Mutations, and lookups through the name indexes
+ * and the email filter, synchronize on the repository, since those structures
+ * are not thread-safe.
  * 
  * @author Mpairwe Lauben
  * @version 1.0
  */
 public class CustomerRepositoryImpl implements CustomerRepository {
     
-    private final Map<Long, Customer> customers = new HashMap<>();
+    private static final int MIN_FILTER_CAPACITY = 1024;
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
+    private static final String DEFAULT_COUNTRY_CODE = "256";
+    
+    private final Map<Long, Customer> customers = new ConcurrentHashMap<>();
     private Long nextId = 1L;
+    private BloomFilter emailFilter = new BloomFilter(MIN_FILTER_CAPACITY, FILTER_FALSE_POSITIVE_RATE);
+    private long emailFilterCapacity = MIN_FILTER_CAPACITY;
+    private long staleEmails;
+    private final FuzzyNameIndex nameIndex = new FuzzyNameIndex();
+    private final PhoneticNameIndex phoneticIndex = new PhoneticNameIndex();
+    private final String defaultCountryCode;
+    // E.164 number to the IDs of the customers with that number, in ascending order
+    private final Map<Long, long[]> phoneIndex = new ConcurrentHashMap<>();
+    private final Map<Long, Long> indexedPhones = new HashMap<>();
+    
+    /**
+     * Creates a repository that reads national phone numbers as Ugandan.
+     */
+    public CustomerRepositoryImpl() {
+        this(DEFAULT_COUNTRY_CODE);
+    }
+    
+    /**
+     * Creates a repository.
+     * 
+     * @param defaultCountryCode The country code assumed for phone numbers given without one, e.g. "256"
+     */
+    public CustomerRepositoryImpl(String defaultCountryCode) {
+        this.defaultCountryCode = defaultCountryCode;
+    }
     
     @Override
-    public Customer save(Customer customer) {
+    public synchronized Customer save(Customer customer) {
         if (customer.getId() == null) {
             customer.setId(nextId++);
         }
         customers.put(customer.getId(), customer);
+        indexEmail(customer);
+        nameIndex.put(customer.getId(), customer.getName());
+        phoneticIndex.put(customer.getId(), customer.getName());
+        indexPhone(customer.getId(), customer.getPhone());
         return customer;
     }
     
     @Override
-    public Customer update(Customer customer) {
+    public synchronized Customer update(Customer customer) {
         if (customer.getId() == null || !customers.containsKey(customer.getId())) {
             throw new IllegalArgumentException("Cannot update non-existent customer");
         }
         customers.put(customer.getId(), customer);
+        // The previous email may have changed, leaving a stale entry in the filter
+        staleEmails++;
+        indexEmail(customer);
+        nameIndex.put(customer.getId(), customer.getName());
+        phoneticIndex.put(customer.getId(), customer.getName());
+        indexPhone(customer.getId(), customer.getPhone());
         return customer;
     }
     
     @Override
     public Optional<Customer> findById(Long id) {
-        return Optional.ofNullable(customers.get(id));
+        return id == null ? Optional.empty() : Optional.ofNullable(customers.get(id));
     }
     
     @Override
@@ -52,8 +99,15 @@ public class CustomerRepositoryImpl implements CustomerRepository {
     }
     
     @Override
-    public boolean delete(Long id) {
-        return customers.remove(id) != null;
+    public synchronized boolean delete(Long id) {
+        if (id == null || customers.remove(id) == null) {
+            return false;
+        }
+        staleEmails++;
+        nameIndex.remove(id);
+        phoneticIndex.remove(id);
+        indexPhone(id, null);
+        return true;
     }
     
     @Override
@@ -70,16 +124,49 @@ public class CustomerRepositoryImpl implements CustomerRepository {
     }
     
     @Override
-    public Optional<Customer> findByEmail(String email) {
+    public synchronized List<Customer> findByNameFuzzy(String name, int maxDistance) {
+        if (name == null || name.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        return nameIndex.search(name, maxDistance).keySet().stream()
+                .map(customers::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public synchronized List<Customer> findByNameSoundingLike(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        return phoneticIndex.search(name).stream()
+                .map(customers::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public synchronized Optional<Customer> findByEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
             return Optional.empty();
         }
         
-        String emailLower = email.toLowerCase();
-        return customers.values().stream()
+        // The filter holds normalized addresses, so the scan must compare them the same way
+        String normalized = normalizeEmail(email);
+        if (!emailFilter.mightContain(normalized)) {
+            return Optional.empty();
+        }
+        
+        Optional<Customer> match = customers.values().stream()
                 .filter(customer -> customer.getEmail() != null && 
-                        customer.getEmail().toLowerCase().equals(emailLower))
+                        normalizeEmail(customer.getEmail()).equals(normalized))
                 .findFirst();
+        if (match.isEmpty()) {
+            emailFilter.recordFalsePositive();
+        }
+        return match;
     }
     
     @Override
@@ -88,9 +175,111 @@ public class CustomerRepositoryImpl implements CustomerRepository {
             return Optional.empty();
         }
         
-        return customers.values().stream()
-                .filter(customer -> customer.getPhone() != null && 
-                        customer.getPhone().equals(phone))
-                .findFirst();
+        long number = PhoneNumbers.normalize(phone, defaultCountryCode);
+        if (number == PhoneNumbers.INVALID) {
+            // Not a number the index understands; fall back to an exact match
+            return customers.values().stream()
+                    .filter(customer -> customer.getPhone() != null && 
+                            customer.getPhone().equals(phone))
+                    .findFirst();
+        }
+        long[] ids = phoneIndex.get(number);
+        return ids == null ? Optional.empty() : Optional.ofNullable(customers.get(ids[0]));
+    }
+    
+    /**
+     * Gets the Bloom filter guarding email lookups, for false positive rate reporting.
+     * 
+     * @return The email filter
+     */
+    public synchronized BloomFilter getEmailFilter() {
+        return emailFilter;
+    }
+    
+    /**
+     * Adds a customer's email to the filter, rebuilding the filter first once it
+     * is full or mostly made up of stale emails.
+     * 
+     * @param customer The customer whose email to index
+     */
+    private void indexEmail(Customer customer) {
+        if (emailFilter.getInsertions() >= emailFilterCapacity || staleEmails > customers.size()) {
+            rebuildEmailFilter();
+        } else if (customer.getEmail() != null) {
+            emailFilter.put(normalizeEmail(customer.getEmail()));
+        }
+    }
+    
+    /**
+     * Moves a customer in the phone index from their previously indexed number
+     * to a new one.
+     * 
+     * @param id The customer ID
+     * @param phone The customer's phone number, or null to only remove the old number
+     */
+    private void indexPhone(Long id, String phone) {
+        Long previous = indexedPhones.remove(id);
+        if (previous != null) {
+            phoneIndex.computeIfPresent(previous, (number, ids) -> {
+                int index = Arrays.binarySearch(ids, id);
+                if (index < 0) {
+                    return ids;
+                }
+                if (ids.length == 1) {
+                    return null;
+                }
+                long[] remaining = new long[ids.length - 1];
+                System.arraycopy(ids, 0, remaining, 0, index);
+                System.arraycopy(ids, index + 1, remaining, index, remaining.length - index);
+                return remaining;
+            });
+        }
+        
+        long number = PhoneNumbers.normalize(phone, defaultCountryCode);
+        if (number == PhoneNumbers.INVALID) {
+            return;
+        }
+        indexedPhones.put(id, number);
+        // Arrays are replaced rather than modified so readers never see a partial update
+        phoneIndex.compute(number, (key, ids) -> {
+            if (ids == null) {
+                return new long[] {id};
+            }
+            int index = Arrays.binarySearch(ids, id);
+            if (index >= 0) {
+                return ids;
+            }
+            int insertion = -index - 1;
+            long[] added = new long[ids.length + 1];
+            System.arraycopy(ids, 0, added, 0, insertion);
+            added[insertion] = id;
+            System.arraycopy(ids, insertion, added, insertion + 1, ids.length - insertion);
+            return added;
+        });
+    }
+    
+    /**
+     * Rebuilds the email filter from the current customers.
+     */
+    private void rebuildEmailFilter() {
+        emailFilterCapacity = Math.max(MIN_FILTER_CAPACITY, customers.size() * 2L);
+        emailFilter = new BloomFilter(emailFilterCapacity, FILTER_FALSE_POSITIVE_RATE);
+        staleEmails = 0;
+        for (Customer customer : customers.values()) {
+            if (customer.getEmail() != null) {
+                emailFilter.put(normalizeEmail(customer.getEmail()));
+            }
+        }
+    }
+    
+    /**
+     * Normalizes an email for the filter. Emails that compare equal ignoring case
+     * always normalize to the same key.
+     * 
+     * @param email The email to normalize
+     * @return The normalized email
+     */
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase().trim();
     }
 }
\ No newline at end of file
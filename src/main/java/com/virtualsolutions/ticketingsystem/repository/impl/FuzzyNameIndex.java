@@ -0,0 +1,266 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Edit-distance index over the words of customer names.
+ * Every distinct word is stored once in a trie, with the IDs of the customers
+ * whose names contain it at the word's final node. A fuzzy lookup walks the
+ * trie while computing one row of the edit-distance table per node, and
+ * abandons a branch as soon as every cell of its row exceeds the allowed
+ * distance. Names sharing a prefix share the work, so a lookup only visits
+ * the small part of the trie within reach of the query rather than every
+ * customer. Adjacent transpositions count as a single edit, since swapped
+ * letters are the most common typing mistake.
+ * 
+ * Words are compared without case or accents. Not thread-safe; callers
+ * synchronize externally.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class FuzzyNameIndex {
+    
+    private final Node root = new Node();
+    private final Map<Long, String[]> indexedWords = new HashMap<>();
+    
+    /**
+     * Indexes a customer's name, replacing any name indexed for the same ID.
+     * 
+     * @param id The customer ID
+     * @param name The customer's name, or null to only remove the old name
+     */
+    void put(Long id, String name) {
+        remove(id);
+        String[] words = tokenize(name);
+        if (words.length == 0) {
+            return;
+        }
+        indexedWords.put(id, words);
+        for (String word : words) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.childOrCreate(word.charAt(i));
+            }
+            if (node.ids == null) {
+                node.ids = new HashSet<>();
+            }
+            node.ids.add(id);
+        }
+    }
+    
+    /**
+     * Removes a customer's name from the index.
+     * 
+     * @param id The customer ID
+     */
+    void remove(Long id) {
+        String[] words = indexedWords.remove(id);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            removeWord(root, word, 0, id);
+        }
+    }
+    
+    /**
+     * Finds the customers whose names contain a close match for every word of
+     * the query. Short words allow fewer edits so that they do not match most
+     * of the index: words of up to two letters must match exactly, and only
+     * words of six or more letters may use two edits.
+     * 
+     * @param query The name to search for
+     * @param maxDistance The most edits allowed per query word
+     * @return The matching customer IDs mapped to their total edit distance, closest first
+     */
+    Map<Long, Integer> search(String query, int maxDistance) {
+        String[] words = tokenize(query);
+        if (words.length == 0) {
+            return new LinkedHashMap<>();
+        }
+        
+        Map<Long, Integer> distances = null;
+        for (String word : words) {
+            Map<Long, Integer> matches = searchWord(word, Math.min(maxDistance, word.length() / 3));
+            if (distances == null) {
+                distances = matches;
+            } else {
+                Map<Long, Integer> combined = new HashMap<>();
+                for (Map.Entry<Long, Integer> entry : distances.entrySet()) {
+                    Integer distance = matches.get(entry.getKey());
+                    if (distance != null) {
+                        combined.put(entry.getKey(), entry.getValue() + distance);
+                    }
+                }
+                distances = combined;
+            }
+            if (distances.isEmpty()) {
+                break;
+            }
+        }
+        
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(distances.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : ranked) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+    
+    /**
+     * Splits a name into lowercase words with accents removed.
+     * 
+     * @param name The name to split
+     * @return The distinct words, in order of first appearance
+     */
+    static String[] tokenize(String name) {
+        if (name == null) {
+            return new String[0];
+        }
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase();
+        return Arrays.stream(folded.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+    
+    /**
+     * Finds the customers with a word within the given distance of a query word.
+     */
+    private Map<Long, Integer> searchWord(String word, int maxDistance) {
+        Map<Long, Integer> matches = new HashMap<>();
+        int[] firstRow = new int[word.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        for (int i = 0; i < root.size; i++) {
+            walk(root.children[i], root.labels[i], (char) 0, word, null, firstRow, maxDistance, matches);
+        }
+        return matches;
+    }
+    
+    /**
+     * Computes the edit-distance row for a trie node from its parent's rows and
+     * descends while some cell is still within the allowed distance.
+     * 
+     * @param node The node reached by appending label to the parent's word
+     * @param label The character leading to the node
+     * @param parentLabel The character leading to the parent, or 0 at the root
+     * @param word The query word
+     * @param grandparentRow The row of the grandparent node, or null at the first level
+     * @param parentRow The row of the parent node
+     * @param maxDistance The most edits allowed
+     * @param matches Receives customer IDs with their best distance
+     */
+    private static void walk(Node node, char label, char parentLabel, String word, int[] grandparentRow,
+                             int[] parentRow, int maxDistance, Map<Long, Integer> matches) {
+        int length = word.length();
+        int[] row = new int[length + 1];
+        row[0] = parentRow[0] + 1;
+        int rowMinimum = row[0];
+        for (int i = 1; i <= length; i++) {
+            char queryChar = word.charAt(i - 1);
+            int cost = queryChar == label ? 0 : 1;
+            int distance = Math.min(Math.min(row[i - 1] + 1, parentRow[i] + 1), parentRow[i - 1] + cost);
+            if (grandparentRow != null && i > 1 && queryChar == parentLabel && word.charAt(i - 2) == label) {
+                distance = Math.min(distance, grandparentRow[i - 2] + 1);
+            }
+            row[i] = distance;
+            rowMinimum = Math.min(rowMinimum, distance);
+        }
+        
+        if (row[length] <= maxDistance && node.ids != null) {
+            for (Long id : node.ids) {
+                matches.merge(id, row[length], Math::min);
+            }
+        }
+        if (rowMinimum <= maxDistance) {
+            for (int i = 0; i < node.size; i++) {
+                walk(node.children[i], node.labels[i], label, word, parentRow, row, maxDistance, matches);
+            }
+        }
+    }
+    
+    /**
+     * Removes an ID from a word's node, detaching nodes left without IDs or children.
+     * 
+     * @return true if the node is now empty and can be detached
+     */
+    private static boolean removeWord(Node node, String word, int depth, Long id) {
+        if (depth == word.length()) {
+            if (node.ids != null) {
+                node.ids.remove(id);
+                if (node.ids.isEmpty()) {
+                    node.ids = null;
+                }
+            }
+        } else {
+            Node child = node.child(word.charAt(depth));
+            if (child != null && removeWord(child, word, depth + 1, id)) {
+                node.removeChild(word.charAt(depth));
+            }
+        }
+        return node.ids == null && node.size == 0;
+    }
+    
+    /**
+     * A trie node with its children in small parallel arrays, which is more
+     * compact than a map for the few children most nodes have.
+     */
+    private static final class Node {
+        
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private Set<Long> ids;
+        
+        Node child(char label) {
+            for (int i = 0; i < size; i++) {
+                if (labels[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        
+        Node childOrCreate(char label) {
+            Node child = child(label);
+            if (child == null) {
+                if (size == labels.length) {
+                    int capacity = Math.max(2, size * 2);
+                    labels = Arrays.copyOf(labels, capacity);
+                    children = Arrays.copyOf(children, capacity);
+                }
+                child = new Node();
+                labels[size] = label;
+                children[size] = child;
+                size++;
+            }
+            return child;
+        }
+        
+        void removeChild(char label) {
+            for (int i = 0; i < size; i++) {
+                if (labels[i] == label) {
+                    size--;
+                    labels[i] = labels[size];
+                    children[i] = children[size];
+                    children[size] = null;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive long values.
+ * Used for on-heap indexes that must stay compact: two flat arrays, no boxing
+ * and no per-entry objects. Not thread-safe; callers synchronize externally.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class LongLongMap {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+    
+    private long[] keys;
+    private long[] values;
+    private int size;
+    
+    /**
+     * Creates a map sized for the given number of entries.
+     * 
+     * @param expectedSize The expected number of entries
+     */
+    LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    /**
+     * Gets the value for a key.
+     * 
+     * @param key The key to look up; must not be Long.MIN_VALUE
+     * @param defaultValue The value to return if the key is absent
+     * @return The mapped value or the default value
+     */
+    long get(long key, long defaultValue) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == EMPTY) {
+                return defaultValue;
+            }
+        }
+    }
+    
+    /**
+     * Maps a key to a value, replacing any previous mapping.
+     * 
+     * @param key The key; must not be Long.MIN_VALUE
+     * @param value The value
+     */
+    void put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key cannot be Long.MIN_VALUE");
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+    
+    /**
+     * Removes the mapping for a key, shifting later probe entries back so
+     * lookups never need tombstones.
+     * 
+     * @param key The key to remove
+     * @return true if a mapping was removed, false otherwise
+     */
+    boolean remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            // Move the entry back if the gap lies on its probe path from home
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+    
+    /**
+     * Gets the number of entries.
+     * 
+     * @return The entry count
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Visits every entry.
+     * 
+     * @param visitor Receives each key and value
+     */
+    void forEach(EntryVisitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+    
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+    
+    /**
+     * Receives map entries without boxing.
+     */
+    interface EntryVisitor {
+        void visit(long key, long value);
+    }
+}
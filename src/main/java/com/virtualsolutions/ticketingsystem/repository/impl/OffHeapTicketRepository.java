@@ -0,0 +1,444 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.repository.TicketRepository;
+
+/**
+ * Off-heap implementation of the TicketRepository interface.
+ * Tickets are encoded with {@link TicketCodec} and appended to direct byte
+ * buffer arenas allocated outside the Java heap. The only on-heap state is a
+ * pair of primitive indexes (ticket ID to record address, ticket-number hash
+ * to ticket ID), so heap size and GC pauses stay flat as ticket history grows.
+ * Tickets are decoded lazily on access; filters that only need header fields
+ * (status, priority, foreign keys, creation time) read them in place.
+ * 
+ * Updates append a new record and repoint the index, leaving the old record as
+ * garbage. Arenas are compacted once garbage outweighs live data.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class OffHeapTicketRepository implements TicketRepository {
+    
+    private static final int DEFAULT_ARENA_SIZE = 64 * 1024 * 1024;
+    private static final long NOT_FOUND = -1L;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int arenaSize;
+    private List<ByteBuffer> arenas = new ArrayList<>();
+    private LongLongMap addressesById = new LongLongMap(1024);
+    private final LongLongMap idsByNumberHash = new LongLongMap(1024);
+    private long numberHashCollisions;
+    private long liveBytes;
+    private long garbageBytes;
+    private long nextId = 1L;
+    
+    /**
+     * Creates an off-heap repository with 64 MB arenas.
+     */
+    public OffHeapTicketRepository() {
+        this(DEFAULT_ARENA_SIZE);
+    }
+    
+    /**
+     * Creates an off-heap repository.
+     * 
+     * @param arenaSize The size in bytes of each off-heap arena
+     */
+    public OffHeapTicketRepository(int arenaSize) {
+        if (arenaSize <= Integer.BYTES) {
+            throw new IllegalArgumentException("Arena size is too small: " + arenaSize);
+        }
+        this.arenaSize = arenaSize;
+    }
+    
+    @Override
+    public Ticket save(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            if (ticket.getId() == null) {
+                ticket.setId(nextId++);
+            } else if (ticket.getId() >= nextId) {
+                nextId = ticket.getId() + 1;
+            }
+            store(ticket);
+            return ticket;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public Ticket update(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            if (ticket.getId() == null || addressesById.get(ticket.getId(), NOT_FOUND) == NOT_FOUND) {
+                throw new IllegalArgumentException("Cannot update non-existent ticket");
+            }
+            store(ticket);
+            return ticket;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public Optional<Ticket> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            long address = addressesById.get(id, NOT_FOUND);
+            return address == NOT_FOUND ? Optional.empty() : Optional.of(decode(address));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public boolean existsById(Long id) {
+        if (id == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return addressesById.get(id, NOT_FOUND) != NOT_FOUND;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public Optional<Ticket> findByTicketNumber(String ticketNumber) {
+        if (ticketNumber == null || ticketNumber.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            long id = idsByNumberHash.get(TicketCodec.hashTicketNumber(ticketNumber), NOT_FOUND);
+            if (id != NOT_FOUND) {
+                long address = addressesById.get(id, NOT_FOUND);
+                if (address != NOT_FOUND && ticketNumber.equals(
+                        TicketCodec.ticketNumberAt(arena(address), offset(address)))) {
+                    return Optional.of(decode(address));
+                }
+            }
+            if (numberHashCollisions == 0) {
+                return Optional.empty();
+            }
+            // A colliding ticket number may have displaced this one from the index
+            List<Ticket> matches = scan((buffer, offset) ->
+                    ticketNumber.equals(TicketCodec.ticketNumberAt(buffer, offset)), null);
+            return matches.stream().findFirst();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<Ticket> findAll() {
+        return scanWithLock((buffer, offset) -> true, null);
+    }
+    
+    @Override
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return addressesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public boolean delete(Long id) {
+        if (id == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            long address = addressesById.get(id, NOT_FOUND);
+            if (address == NOT_FOUND) {
+                return false;
+            }
+            String ticketNumber = TicketCodec.ticketNumberAt(arena(address), offset(address));
+            if (ticketNumber != null) {
+                long numberHash = TicketCodec.hashTicketNumber(ticketNumber);
+                if (idsByNumberHash.get(numberHash, NOT_FOUND) == id) {
+                    idsByNumberHash.remove(numberHash);
+                }
+            }
+            addressesById.remove(id);
+            int length = recordLength(address);
+            liveBytes -= length;
+            garbageBytes += length;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<Ticket> findByStatus(TicketStatus status) {
+        return scanWithLock((buffer, offset) -> TicketCodec.statusAt(buffer, offset) == status, null);
+    }
+    
+    @Override
+    public List<Ticket> findByPriority(TicketPriority priority) {
+        return scanWithLock((buffer, offset) -> TicketCodec.priorityAt(buffer, offset) == priority, null);
+    }
+    
+    @Override
+    public List<Ticket> findByAssignedAgentId(Long agentId) {
+        return scanWithLock((buffer, offset) -> TicketCodec.agentIdAt(buffer, offset) == agentId, null);
+    }
+    
+    @Override
+    public List<Ticket> findByCustomerId(Long customerId) {
+        return scanWithLock((buffer, offset) -> TicketCodec.customerIdAt(buffer, offset) == customerId, null);
+    }
+    
+    @Override
+    public List<Ticket> findByCategoryId(Long categoryId) {
+        return scanWithLock((buffer, offset) -> TicketCodec.categoryIdAt(buffer, offset) == categoryId, null);
+    }
+    
+    @Override
+    public List<Ticket> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        long start = startDate.toEpochSecond(ZoneOffset.UTC);
+        long end = endDate.toEpochSecond(ZoneOffset.UTC);
+        // Header timestamps are second-granular, so refine the bounds on the decoded ticket
+        return scanWithLock((buffer, offset) -> {
+            long createdAt = TicketCodec.createdAtEpochSecondAt(buffer, offset);
+            return createdAt != TicketCodec.NONE && createdAt >= start && createdAt <= end;
+        }, ticket -> !ticket.getCreatedAt().isBefore(startDate) && !ticket.getCreatedAt().isAfter(endDate));
+    }
+    
+    @Override
+    public List<Ticket> search(String keyword, TicketStatus status, TicketPriority priority,
+                               Long categoryId, Long agentId, Long customerId) {
+        TicketFilter filter = TicketFilter.compile(keyword, status, priority, categoryId, agentId, customerId);
+        return scanWithLock(filter.onHeader()::test, filter.keywordRefinement());
+    }
+    
+    /**
+     * Gets the number of tickets stored.
+     * 
+     * @return The ticket count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return addressesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets the number of off-heap bytes allocated for arenas.
+     * 
+     * @return The reserved off-heap size in bytes
+     */
+    public long getOffHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) arenas.size() * arenaSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Writes all tickets to an uncompressed segment file that serves as a snapshot.
+     * 
+     * @param file The path of the snapshot file to create
+     */
+    public void writeSnapshot(Path file) {
+        lock.readLock().lock();
+        try {
+            TicketSegment.write(file, scan((buffer, offset) -> true, null), false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Loads the tickets of a snapshot file, replacing any stored ticket with the same ID.
+     * Records are copied from the mapped file into the arenas without being decoded.
+     * 
+     * @param file The path of the snapshot file
+     */
+    public void loadSnapshot(Path file) {
+        TicketSegment snapshot = TicketSegment.open(file);
+        lock.writeLock().lock();
+        try {
+            snapshot.forEachRecord((buffer, offset, length) -> {
+                byte[] record = new byte[length];
+                buffer.get(offset, record);
+                long id = TicketCodec.idAt(buffer, offset);
+                store(id, TicketCodec.ticketNumberAt(buffer, offset), record);
+                nextId = Math.max(nextId, id + 1);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Rewrites all live records into fresh arenas, releasing space held by
+     * superseded and deleted records.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            List<ByteBuffer> oldArenas = arenas;
+            LongLongMap oldAddresses = addressesById;
+            arenas = new ArrayList<>();
+            addressesById = new LongLongMap(oldAddresses.size());
+            liveBytes = 0;
+            garbageBytes = 0;
+            oldAddresses.forEach((id, address) -> {
+                ByteBuffer source = oldArenas.get((int) (address >>> 32));
+                int offset = (int) address;
+                int length = source.getInt(offset);
+                byte[] record = new byte[length];
+                source.get(offset + Integer.BYTES, record);
+                addressesById.put(id, append(record));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Encodes and appends a ticket, repointing the indexes at the new record.
+     */
+    private void store(Ticket ticket) {
+        store(ticket.getId(), ticket.getTicketNumber(), TicketCodec.encode(ticket));
+    }
+    
+    /**
+     * Appends an encoded ticket, repointing the indexes at the new record.
+     */
+    private void store(long id, String ticketNumber, byte[] record) {
+        long previous = addressesById.get(id, NOT_FOUND);
+        if (previous != NOT_FOUND) {
+            String previousNumber = TicketCodec.ticketNumberAt(arena(previous), offset(previous));
+            if (previousNumber != null && !previousNumber.equals(ticketNumber)) {
+                long previousHash = TicketCodec.hashTicketNumber(previousNumber);
+                if (idsByNumberHash.get(previousHash, NOT_FOUND) == id) {
+                    idsByNumberHash.remove(previousHash);
+                }
+            }
+            int length = recordLength(previous);
+            liveBytes -= length;
+            garbageBytes += length;
+        }
+        
+        addressesById.put(id, append(record));
+        if (ticketNumber != null) {
+            long numberHash = TicketCodec.hashTicketNumber(ticketNumber);
+            long indexedId = idsByNumberHash.get(numberHash, NOT_FOUND);
+            if (indexedId != NOT_FOUND && indexedId != id) {
+                numberHashCollisions++;
+            }
+            idsByNumberHash.put(numberHash, id);
+        }
+        
+        if (garbageBytes > arenaSize && garbageBytes > liveBytes) {
+            compact();
+        }
+    }
+    
+    /**
+     * Appends a length-prefixed record to the current arena.
+     * 
+     * @return The address of the record: arena index in the high word, offset in the low word
+     */
+    private long append(byte[] record) {
+        int required = Integer.BYTES + record.length;
+        if (required > arenaSize) {
+            throw new IllegalArgumentException("Ticket record of " + record.length
+                    + " bytes does not fit in an arena of " + arenaSize + " bytes");
+        }
+        ByteBuffer current = arenas.isEmpty() ? null : arenas.get(arenas.size() - 1);
+        if (current == null || current.remaining() < required) {
+            current = ByteBuffer.allocateDirect(arenaSize);
+            arenas.add(current);
+        }
+        int offset = current.position();
+        current.putInt(record.length);
+        current.put(record);
+        liveBytes += record.length;
+        return ((long) (arenas.size() - 1) << 32) | offset;
+    }
+    
+    private List<Ticket> scanWithLock(RecordFilter filter, Predicate<Ticket> refinement) {
+        lock.readLock().lock();
+        try {
+            return scan(filter, refinement);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Decodes the live records that pass the header filter and the optional
+     * refinement on the decoded ticket. Callers must hold the lock.
+     */
+    private List<Ticket> scan(RecordFilter filter, Predicate<Ticket> refinement) {
+        List<Ticket> matches = new ArrayList<>();
+        addressesById.forEach((id, address) -> {
+            ByteBuffer buffer = arena(address);
+            int offset = offset(address);
+            if (filter.test(buffer, offset)) {
+                Ticket ticket = TicketCodec.decode(buffer, offset);
+                if (refinement == null || refinement.test(ticket)) {
+                    matches.add(ticket);
+                }
+            }
+        });
+        return matches;
+    }
+    
+    private Ticket decode(long address) {
+        return TicketCodec.decode(arena(address), offset(address));
+    }
+    
+    private ByteBuffer arena(long address) {
+        return arenas.get((int) (address >>> 32));
+    }
+    
+    /**
+     * Gets the offset of the encoded ticket, just past the length prefix.
+     */
+    private static int offset(long address) {
+        return (int) address + Integer.BYTES;
+    }
+    
+    private int recordLength(long address) {
+        return arena(address).getInt((int) address);
+    }
+    
+    /**
+     * Filter over an encoded record's header.
+     */
+    private interface RecordFilter {
+        boolean test(ByteBuffer buffer, int offset);
+    }
+}
@@ -0,0 +1,68 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+/**
+ * Normalizes phone numbers to E.164 form for indexing.
+ * Numbers are accepted as typed or as delivered by caller ID: with or
+ * without a leading "+" or "00", with a national trunk "0" instead of the
+ * country code, and with any spaces, dashes, dots or brackets. The result is
+ * the country code and subscriber number as one integer, which is at most 15
+ * digits and therefore always fits in a long.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+final class PhoneNumbers {
+    
+    /**
+     * Returned for input that is not a phone number.
+     */
+    static final long INVALID = -1;
+    
+    private static final int MIN_DIGITS = 7;
+    private static final int MAX_DIGITS = 15;
+    // Longest national number without trunk prefix or country code, e.g. 701234567 in Uganda
+    private static final int MAX_NATIONAL_DIGITS = 9;
+    
+    private PhoneNumbers() {
+    }
+    
+    /**
+     * Normalizes a phone number.
+     * 
+     * @param phone The phone number in any common format
+     * @param defaultCountryCode The country code assumed for national numbers, e.g. "256"
+     * @return The E.164 digits as a number, or {@link #INVALID}
+     */
+    static long normalize(String phone, String defaultCountryCode) {
+        if (phone == null) {
+            return INVALID;
+        }
+        StringBuilder digits = new StringBuilder(MAX_DIGITS + 2);
+        boolean international = false;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c == '+' && digits.length() == 0) {
+                international = true;
+            } else if (c != ' ' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return INVALID;
+            }
+        }
+        
+        String number = digits.toString();
+        if (!international) {
+            if (number.startsWith("00")) {
+                number = number.substring(2);
+            } else if (number.startsWith("0")) {
+                number = defaultCountryCode + number.substring(1);
+            } else if (number.length() <= MAX_NATIONAL_DIGITS) {
+                number = defaultCountryCode + number;
+            }
+        }
+        if (number.length() < MIN_DIGITS || number.length() > MAX_DIGITS || number.startsWith("0")) {
+            return INVALID;
+        }
+        return Long.parseLong(number);
+    }
+}
@@ -0,0 +1,209 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+/**
+ * Sound-alike encoder for name words, in the style of Double Metaphone.
+ * A word is reduced to the consonant sounds it is likely to be spoken with,
+ * so spellings a caller might give for the same name share a code: silent
+ * letters and non-leading vowels are dropped, doubled letters collapse, and
+ * letters that sound alike map to one symbol (PH and F, C and K or S, Z and S).
+ * 
+ * Where a spelling has two plausible pronunciations the encoder also returns
+ * an alternate code, and two words sound alike if any of their codes agree.
+ * Besides the usual English alternates (CH as in "Christopher", soft and hard
+ * G), the alternates cover spelling variants common in Ugandan names: L and R
+ * are interchangeable ("Lubega", "Rubega"), KY sounds like CH ("Kyomuhendo",
+ * "Chomuhendo") and an initial nasal before a consonant may be omitted
+ * ("Mpairwe", "Pairwe").
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+final class PhoneticEncoder {
+    
+    private static final int MAX_CODE_LENGTH = 6;
+    
+    private PhoneticEncoder() {
+    }
+    
+    /**
+     * Encodes a lowercase word.
+     * 
+     * @param word The word to encode; characters other than a to z are ignored
+     * @return The primary code followed by the alternate code if it differs; empty if nothing can be encoded
+     */
+    static String[] encode(String word) {
+        String letters = word.replaceAll("[^a-z]", "");
+        int length = letters.length();
+        if (length == 0) {
+            return new String[0];
+        }
+        
+        StringBuilder primary = new StringBuilder();
+        StringBuilder alternate = new StringBuilder();
+        int i = 0;
+        if (letters.startsWith("kn") || letters.startsWith("gn") || letters.startsWith("pn")
+                || letters.startsWith("wr") || letters.startsWith("ps")) {
+            i = 1;
+        } else if (letters.startsWith("wh")) {
+            primary.append('W');
+            alternate.append('W');
+            i = 2;
+        } else if (letters.charAt(0) == 'x') {
+            primary.append('S');
+            alternate.append('S');
+            i = 1;
+        } else if ((letters.charAt(0) == 'm' || letters.charAt(0) == 'n') && length > 2
+                && "bpdtgkszj".indexOf(letters.charAt(1)) >= 0) {
+            primary.append(Character.toUpperCase(letters.charAt(0)));
+            i = 1;
+        } else if (isVowel(letters.charAt(0))) {
+            primary.append('A');
+            alternate.append('A');
+            i = 1;
+        }
+        
+        while (i < length && (primary.length() < MAX_CODE_LENGTH || alternate.length() < MAX_CODE_LENGTH)) {
+            char current = letters.charAt(i);
+            char previous = i > 0 ? letters.charAt(i - 1) : 0;
+            char next = i + 1 < length ? letters.charAt(i + 1) : 0;
+            char afterNext = i + 2 < length ? letters.charAt(i + 2) : 0;
+            if (current == previous && current != 'c') {
+                i++;
+                continue;
+            }
+            
+            String sound = "";
+            String alternateSound = null;
+            int advance = 1;
+            switch (current) {
+                case 'b':
+                    sound = previous == 'm' && next == 0 ? "" : "P";
+                    break;
+                case 'c':
+                    if (next == 'h') {
+                        sound = "X";
+                        alternateSound = "K";
+                        advance = 2;
+                    } else if (next == 'i' && afterNext == 'a') {
+                        sound = "X";
+                    } else if (next == 'e' || next == 'i' || next == 'y') {
+                        sound = "S";
+                    } else {
+                        sound = "K";
+                        advance = next == 'k' || next == 'q' ? 2 : 1;
+                    }
+                    break;
+                case 'd':
+                    if (next == 'g' && (afterNext == 'e' || afterNext == 'i' || afterNext == 'y')) {
+                        sound = "J";
+                        advance = 2;
+                    } else {
+                        sound = "T";
+                    }
+                    break;
+                case 'g':
+                    if (next == 'h') {
+                        sound = i == 0 || isVowel(afterNext) ? "K" : "";
+                        advance = 2;
+                    } else if (next == 'n' && i + 2 == length) {
+                        sound = "";
+                    } else if (next == 'e' || next == 'i' || next == 'y') {
+                        sound = "J";
+                        alternateSound = "K";
+                    } else {
+                        sound = "K";
+                    }
+                    break;
+                case 'h':
+                    sound = (i == 0 || isVowel(previous)) && isVowel(next) ? "H" : "";
+                    break;
+                case 'k':
+                    if (next == 'y') {
+                        sound = "K";
+                        alternateSound = "X";
+                        advance = 2;
+                    } else {
+                        sound = "K";
+                        advance = next == 'h' ? 2 : 1;
+                    }
+                    break;
+                case 'p':
+                    sound = next == 'h' ? "F" : "P";
+                    advance = next == 'h' ? 2 : 1;
+                    break;
+                case 'q':
+                    sound = "K";
+                    break;
+                case 'r':
+                    sound = "R";
+                    alternateSound = "L";
+                    break;
+                case 's':
+                    if (next == 'h') {
+                        sound = "X";
+                        advance = 2;
+                    } else if (next == 'c' && afterNext == 'h') {
+                        sound = "SK";
+                        advance = 3;
+                    } else if (next == 'i' && (afterNext == 'o' || afterNext == 'a')) {
+                        sound = "X";
+                    } else {
+                        sound = "S";
+                    }
+                    break;
+                case 't':
+                    if (next == 'h') {
+                        sound = "0";
+                        advance = 2;
+                    } else if (next == 'i' && (afterNext == 'o' || afterNext == 'a')) {
+                        sound = "X";
+                    } else {
+                        sound = next == 'c' && afterNext == 'h' ? "" : "T";
+                    }
+                    break;
+                case 'v':
+                    sound = "F";
+                    break;
+                case 'w':
+                case 'y':
+                    sound = isVowel(next) ? String.valueOf(Character.toUpperCase(current)) : "";
+                    break;
+                case 'x':
+                    sound = "KS";
+                    break;
+                case 'z':
+                    sound = "S";
+                    break;
+                case 'f':
+                case 'j':
+                case 'l':
+                case 'm':
+                case 'n':
+                    sound = String.valueOf(Character.toUpperCase(current));
+                    break;
+                default:
+                    // Vowels after the first letter carry too little information to keep
+                    break;
+            }
+            primary.append(sound);
+            alternate.append(alternateSound == null ? sound : alternateSound);
+            i += advance;
+        }
+        
+        String primaryCode = truncate(primary);
+        String alternateCode = truncate(alternate);
+        if (primaryCode.isEmpty()) {
+            return alternateCode.isEmpty() ? new String[0] : new String[] {alternateCode};
+        }
+        return primaryCode.equals(alternateCode) || alternateCode.isEmpty()
+                ? new String[] {primaryCode} : new String[] {primaryCode, alternateCode};
+    }
+    
+    private static String truncate(StringBuilder code) {
+        return code.length() > MAX_CODE_LENGTH ? code.substring(0, MAX_CODE_LENGTH) : code.toString();
+    }
+    
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
@@ -0,0 +1,93 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Hash index from phonetic codes to customers.
+ * Each word of a customer's name is encoded with {@link PhoneticEncoder} when
+ * the customer is stored, and the customer is filed under every code of every
+ * word. A sound-alike lookup encodes only the query and reads the matching
+ * postings, so its cost does not depend on the number of customers.
+ * 
+ * Not thread-safe; callers synchronize externally.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class PhoneticNameIndex {
+    
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> indexedCodes = new HashMap<>();
+    
+    /**
+     * Indexes a customer's name, replacing any name indexed for the same ID.
+     * 
+     * @param id The customer ID
+     * @param name The customer's name, or null to only remove the old name
+     */
+    void put(Long id, String name) {
+        remove(id);
+        Set<String> codes = new HashSet<>();
+        for (String word : FuzzyNameIndex.tokenize(name)) {
+            for (String code : PhoneticEncoder.encode(word)) {
+                codes.add(code);
+            }
+        }
+        if (codes.isEmpty()) {
+            return;
+        }
+        indexedCodes.put(id, codes);
+        for (String code : codes) {
+            postings.computeIfAbsent(code, key -> new HashSet<>()).add(id);
+        }
+    }
+    
+    /**
+     * Removes a customer's name from the index.
+     * 
+     * @param id The customer ID
+     */
+    void remove(Long id) {
+        Set<String> codes = indexedCodes.remove(id);
+        if (codes == null) {
+            return;
+        }
+        for (String code : codes) {
+            Set<Long> ids = postings.get(code);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(code);
+            }
+        }
+    }
+    
+    /**
+     * Finds the customers whose names have a sound-alike word for every word
+     * of the query.
+     * 
+     * @param query The name to search for
+     * @return The matching customer IDs in ascending order
+     */
+    Set<Long> search(String query) {
+        Set<Long> result = null;
+        for (String word : FuzzyNameIndex.tokenize(query)) {
+            Set<Long> matches = new HashSet<>();
+            for (String code : PhoneticEncoder.encode(word)) {
+                matches.addAll(postings.getOrDefault(code, Set.of()));
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? new TreeSet<>() : new TreeSet<>(result);
+    }
+}
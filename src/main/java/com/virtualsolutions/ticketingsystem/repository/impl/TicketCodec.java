@@ -0,0 +1,400 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.virtualsolutions.ticketingsystem.model.Agent;
+import com.virtualsolutions.ticketingsystem.model.Comment;
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Compact binary encoding of tickets for storage outside the Java heap.
+ * A record starts with a fixed-width header (ID, status and priority ordinals,
+ * foreign keys and creation time) followed by the variable-length fields, so
+ * filters can read the header straight from a buffer without decoding the
+ * whole ticket. All reads use absolute offsets and never move the buffer's position.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public final class TicketCodec {
+    
+    /**
+     * Marker for an absent ID or timestamp in the fixed header.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+    
+    private static final int ID_OFFSET = 0;
+    private static final int STATUS_OFFSET = 8;
+    private static final int PRIORITY_OFFSET = 9;
+    private static final int CATEGORY_ID_OFFSET = 10;
+    private static final int AGENT_ID_OFFSET = 18;
+    private static final int CUSTOMER_ID_OFFSET = 26;
+    private static final int CREATED_AT_OFFSET = 34;
+    
+    /**
+     * Size in bytes of the fixed-width record header.
+     */
+    public static final int HEADER_SIZE = 46;
+    
+    private static final TicketStatus[] STATUSES = TicketStatus.values();
+    private static final TicketPriority[] PRIORITIES = TicketPriority.values();
+    
+    private TicketCodec() {
+    }
+    
+    /**
+     * Encodes a ticket, including its customer, agent, category and comments.
+     * 
+     * @param ticket The ticket to encode
+     * @return The encoded record
+     */
+    public static byte[] encode(Ticket ticket) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(orNone(ticket.getId()));
+            out.writeByte(ticket.getStatus() == null ? -1 : ticket.getStatus().ordinal());
+            out.writeByte(ticket.getPriority() == null ? -1 : ticket.getPriority().ordinal());
+            out.writeLong(ticket.getCategory() == null ? NONE : orNone(ticket.getCategory().getId()));
+            out.writeLong(ticket.getAssignedAgent() == null ? NONE : orNone(ticket.getAssignedAgent().getId()));
+            out.writeLong(ticket.getCustomer() == null ? NONE : orNone(ticket.getCustomer().getId()));
+            writeDateTime(out, ticket.getCreatedAt());
+            
+            writeString(out, ticket.getTicketNumber());
+            writeString(out, ticket.getTitle());
+            writeString(out, ticket.getDescription());
+            writeDateTime(out, ticket.getUpdatedAt());
+            writeDateTime(out, ticket.getResolvedAt());
+            writeCustomer(out, ticket.getCustomer());
+            writeAgent(out, ticket.getAssignedAgent());
+            writeCategory(out, ticket.getCategory());
+            
+            List<Comment> comments = ticket.getComments();
+            out.writeInt(comments == null ? 0 : comments.size());
+            if (comments != null) {
+                for (Comment comment : comments) {
+                    out.writeLong(orNone(comment.getId()));
+                    writeString(out, comment.getContent());
+                    writeDateTime(out, comment.getCreatedAt());
+                    writeAgent(out, comment.getCreatedBy());
+                    out.writeLong(orNone(comment.getTicketId()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode ticket " + ticket.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Decodes a full ticket from a record starting at the given offset.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The decoded ticket
+     */
+    public static Ticket decode(ByteBuffer buffer, int offset) {
+        Reader in = new Reader(buffer, offset + HEADER_SIZE);
+        
+        Ticket ticket = new Ticket();
+        ticket.setId(noneToNull(idAt(buffer, offset)));
+        ticket.setCreatedAt(readDateTime(new Reader(buffer, offset + CREATED_AT_OFFSET)));
+        ticket.setTicketNumber(in.readString());
+        ticket.setTitle(in.readString());
+        ticket.setDescription(in.readString());
+        LocalDateTime updatedAt = readDateTime(in);
+        LocalDateTime resolvedAt = readDateTime(in);
+        ticket.setCustomer(readCustomer(in));
+        ticket.setAssignedAgent(readAgent(in));
+        ticket.setCategory(readCategory(in));
+        
+        int commentCount = in.readInt();
+        List<Comment> comments = new ArrayList<>(commentCount);
+        for (int i = 0; i < commentCount; i++) {
+            Comment comment = new Comment();
+            comment.setId(noneToNull(in.readLong()));
+            comment.setContent(in.readString());
+            comment.setCreatedAt(readDateTime(in));
+            comment.setCreatedBy(readAgent(in));
+            comment.setTicketId(noneToNull(in.readLong()));
+            comments.add(comment);
+        }
+        ticket.setComments(comments);
+        
+        // Status and priority setters stamp updatedAt/resolvedAt, so restore those last
+        ticket.setStatus(statusAt(buffer, offset));
+        ticket.setPriority(priorityAt(buffer, offset));
+        ticket.setResolvedAt(resolvedAt);
+        ticket.setUpdatedAt(updatedAt);
+        return ticket;
+    }
+    
+    /**
+     * Reads the ticket ID from a record header.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The ticket ID, or NONE if absent
+     */
+    public static long idAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + ID_OFFSET);
+    }
+    
+    /**
+     * Reads the ticket status from a record header.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The status, or null if absent
+     */
+    public static TicketStatus statusAt(ByteBuffer buffer, int offset) {
+        int ordinal = buffer.get(offset + STATUS_OFFSET);
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+    
+    /**
+     * Reads the ticket priority from a record header.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The priority, or null if absent
+     */
+    public static TicketPriority priorityAt(ByteBuffer buffer, int offset) {
+        int ordinal = buffer.get(offset + PRIORITY_OFFSET);
+        return ordinal < 0 ? null : PRIORITIES[ordinal];
+    }
+    
+    /**
+     * Reads the category ID from a record header.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The category ID, or NONE if absent
+     */
+    public static long categoryIdAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + CATEGORY_ID_OFFSET);
+    }
+    
+    /**
+     * Reads the assigned agent ID from a record header.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The agent ID, or NONE if unassigned
+     */
+    public static long agentIdAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + AGENT_ID_OFFSET);
+    }
+    
+    /**
+     * Reads the customer ID from a record header.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The customer ID, or NONE if absent
+     */
+    public static long customerIdAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + CUSTOMER_ID_OFFSET);
+    }
+    
+    /**
+     * Reads the creation time from a record header.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The creation time in UTC epoch seconds, or NONE if absent
+     */
+    public static long createdAtEpochSecondAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + CREATED_AT_OFFSET);
+    }
+    
+    /**
+     * Reads the ticket number, the first variable-length field, from a record.
+     * 
+     * @param buffer The buffer holding the record
+     * @param offset The absolute offset of the record
+     * @return The ticket number, or null if absent
+     */
+    public static String ticketNumberAt(ByteBuffer buffer, int offset) {
+        return new Reader(buffer, offset + HEADER_SIZE).readString();
+    }
+    
+    /**
+     * Computes a 64-bit FNV-1a hash of a ticket number, used by ticket-number indexes.
+     * 
+     * @param ticketNumber The ticket number to hash
+     * @return The hash, never equal to Long.MIN_VALUE
+     */
+    public static long hashTicketNumber(String ticketNumber) {
+        long hash = BloomFilter.hash64(ticketNumber);
+        return hash == Long.MIN_VALUE ? 0L : hash;
+    }
+    
+    /**
+     * Encodes a customer on its own, for records that are not tickets.
+     * 
+     * @param customer The customer to encode
+     * @return The encoded customer
+     */
+    public static byte[] encodeCustomer(Customer customer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeCustomer(out, customer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode customer " + customer.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Decodes a customer encoded by {@link #encodeCustomer(Customer)}.
+     * 
+     * @param buffer The buffer holding the encoded customer
+     * @param offset The absolute offset of the encoded customer
+     * @return The decoded customer
+     */
+    public static Customer decodeCustomer(ByteBuffer buffer, int offset) {
+        return readCustomer(new Reader(buffer, offset));
+    }
+    
+    private static void writeCustomer(DataOutputStream out, Customer customer) throws IOException {
+        out.writeBoolean(customer != null);
+        if (customer != null) {
+            out.writeLong(orNone(customer.getId()));
+            writeString(out, customer.getName());
+            writeString(out, customer.getEmail());
+            writeString(out, customer.getPhone());
+            writeString(out, customer.getAddress());
+        }
+    }
+    
+    private static Customer readCustomer(Reader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new Customer(noneToNull(in.readLong()), in.readString(), in.readString(),
+                in.readString(), in.readString());
+    }
+    
+    private static void writeAgent(DataOutputStream out, Agent agent) throws IOException {
+        out.writeBoolean(agent != null);
+        if (agent != null) {
+            out.writeLong(orNone(agent.getId()));
+            writeString(out, agent.getName());
+            writeString(out, agent.getEmail());
+            writeString(out, agent.getEmployeeId());
+            writeString(out, agent.getDepartment());
+        }
+    }
+    
+    private static Agent readAgent(Reader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new Agent(noneToNull(in.readLong()), in.readString(), in.readString(),
+                in.readString(), in.readString());
+    }
+    
+    private static void writeCategory(DataOutputStream out, TicketCategory category) throws IOException {
+        out.writeBoolean(category != null);
+        if (category != null) {
+            out.writeLong(orNone(category.getId()));
+            writeString(out, category.getName());
+            writeString(out, category.getDescription());
+        }
+    }
+    
+    private static TicketCategory readCategory(Reader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new TicketCategory(noneToNull(in.readLong()), in.readString(), in.readString());
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+    
+    private static void writeDateTime(DataOutputStream out, LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            out.writeLong(NONE);
+            out.writeInt(0);
+        } else {
+            out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(dateTime.getNano());
+        }
+    }
+    
+    private static LocalDateTime readDateTime(Reader in) {
+        long epochSecond = in.readLong();
+        int nano = in.readInt();
+        return epochSecond == NONE ? null : LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+    
+    private static long orNone(Long value) {
+        return value == null ? NONE : value;
+    }
+    
+    private static Long noneToNull(long value) {
+        return value == NONE ? null : value;
+    }
+    
+    /**
+     * Sequential reader over a buffer using absolute offsets.
+     */
+    private static final class Reader {
+        
+        private final ByteBuffer buffer;
+        private int position;
+        
+        Reader(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+        
+        boolean readBoolean() {
+            return buffer.get(position++) != 0;
+        }
+        
+        int readInt() {
+            int value = buffer.getInt(position);
+            position += Integer.BYTES;
+            return value;
+        }
+        
+        long readLong() {
+            long value = buffer.getLong(position);
+            position += Long.BYTES;
+            return value;
+        }
+        
+        String readString() {
+            int length = readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] utf8 = new byte[length];
+            buffer.get(position, utf8);
+            position += length;
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Columnar (struct-of-arrays) mirror of the ticket store used for analytics scans.
+ * Each ticket occupies one row spread across primitive arrays holding its ID,
+ * status and priority ordinals, foreign keys and epoch-second timestamps, so
+ * aggregate queries walk contiguous memory instead of chasing object references.
+ * Rows are kept dense: deleting a ticket moves the last row into the freed slot.
+ * 
+ * Timestamps are stored as epoch seconds in UTC; only their differences and
+ * ordering are meaningful to the aggregates.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketColumnStore {
+    
+    /**
+     * Marker for an absent foreign key or timestamp.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    
+    private static final int STATUS_COUNT = TicketStatus.values().length;
+    private static final int PRIORITY_COUNT = TicketPriority.values().length;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private byte[] priorities = new byte[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private long[] agentIds = new long[INITIAL_CAPACITY];
+    private long[] customerIds = new long[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] resolvedAt = new long[INITIAL_CAPACITY];
+    private int size;
+    
+    /**
+     * Inserts the ticket's row or overwrites it if the ticket is already present.
+     * 
+     * @param ticket The ticket to mirror
+     */
+    public void upsert(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.get(ticket.getId());
+            if (row == null) {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowsById.put(ticket.getId(), row);
+            }
+            ids[row] = ticket.getId();
+            statuses[row] = (byte) (ticket.getStatus() == null ? -1 : ticket.getStatus().ordinal());
+            priorities[row] = (byte) (ticket.getPriority() == null ? -1 : ticket.getPriority().ordinal());
+            categoryIds[row] = ticket.getCategory() == null ? NONE : orNone(ticket.getCategory().getId());
+            agentIds[row] = ticket.getAssignedAgent() == null ? NONE : orNone(ticket.getAssignedAgent().getId());
+            customerIds[row] = ticket.getCustomer() == null ? NONE : orNone(ticket.getCustomer().getId());
+            createdAt[row] = toEpochSecond(ticket.getCreatedAt());
+            resolvedAt[row] = toEpochSecond(ticket.getResolvedAt());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Removes the row of a ticket.
+     * 
+     * @param id The ID of the ticket to remove
+     * @return true if a row was removed, false otherwise
+     */
+    public boolean remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.remove(id);
+            if (row == null) {
+                return false;
+            }
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                statuses[row] = statuses[last];
+                priorities[row] = priorities[last];
+                categoryIds[row] = categoryIds[last];
+                agentIds[row] = agentIds[last];
+                customerIds[row] = customerIds[last];
+                createdAt[row] = createdAt[last];
+                resolvedAt[row] = resolvedAt[last];
+                rowsById.put(ids[row], row);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets the number of tickets mirrored in the store.
+     * 
+     * @return The row count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Finds the tickets matching search criteria by comparing the primitive
+     * columns directly. Each criterion is reduced to a primitive before the
+     * scan, and an absent criterion becomes a loop-invariant flag, so no row
+     * dereferences a ticket, checks an object for null or unboxes an ID.
+     * 
+     * @param status The status to match, or null for any
+     * @param priority The priority to match, or null for any
+     * @param categoryId The category ID to match, or null for any
+     * @param agentId The assigned agent ID to match, or null for any
+     * @param customerId The customer ID to match, or null for any
+     * @return The IDs of the matching tickets, in row order
+     */
+    public long[] findIds(TicketStatus status, TicketPriority priority,
+                          Long categoryId, Long agentId, Long customerId) {
+        boolean anyStatus = status == null;
+        boolean anyPriority = priority == null;
+        boolean anyCategory = categoryId == null;
+        boolean anyAgent = agentId == null;
+        boolean anyCustomer = customerId == null;
+        byte statusOrdinal = (byte) (anyStatus ? 0 : status.ordinal());
+        byte priorityOrdinal = (byte) (anyPriority ? 0 : priority.ordinal());
+        long category = anyCategory ? NONE : categoryId;
+        long agent = anyAgent ? NONE : agentId;
+        long customer = anyCustomer ? NONE : customerId;
+        
+        lock.readLock().lock();
+        try {
+            long[] matches = new long[Math.min(size, 64)];
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if ((anyStatus || statuses[row] == statusOrdinal)
+                        && (anyPriority || priorities[row] == priorityOrdinal)
+                        && (anyCategory || categoryIds[row] == category)
+                        && (anyAgent || agentIds[row] == agent)
+                        && (anyCustomer || customerIds[row] == customer)) {
+                    if (count == matches.length) {
+                        matches = Arrays.copyOf(matches, Math.max(1, count * 2));
+                    }
+                    matches[count++] = ids[row];
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Counts tickets per status.
+     * 
+     * @return An array indexed by TicketStatus ordinal holding the ticket counts
+     */
+    public long[] countByStatus() {
+        lock.readLock().lock();
+        try {
+            return chunks().mapToObj(chunk -> {
+                long[] counts = new long[STATUS_COUNT];
+                for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+                    int status = statuses[row];
+                    if (status >= 0) {
+                        counts[status]++;
+                    }
+                }
+                return counts;
+            }).reduce(new long[STATUS_COUNT], TicketColumnStore::add);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Counts tickets per status and priority combination.
+     * 
+     * @return A matrix indexed by [TicketStatus ordinal][TicketPriority ordinal]
+     */
+    public long[][] countByStatusAndPriority() {
+        lock.readLock().lock();
+        try {
+            long[] flat = chunks().mapToObj(chunk -> {
+                long[] counts = new long[STATUS_COUNT * PRIORITY_COUNT];
+                for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+                    int status = statuses[row];
+                    int priority = priorities[row];
+                    if (status >= 0 && priority >= 0) {
+                        counts[status * PRIORITY_COUNT + priority]++;
+                    }
+                }
+                return counts;
+            }).reduce(new long[STATUS_COUNT * PRIORITY_COUNT], TicketColumnStore::add);
+            
+            long[][] matrix = new long[STATUS_COUNT][];
+            for (int status = 0; status < STATUS_COUNT; status++) {
+                matrix[status] = Arrays.copyOfRange(flat, status * PRIORITY_COUNT, (status + 1) * PRIORITY_COUNT);
+            }
+            return matrix;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Counts tickets per category.
+     * 
+     * @return A map from category ID to ticket count
+     */
+    public Map<Long, Long> countByCategory() {
+        lock.readLock().lock();
+        try {
+            return chunks().mapToObj(chunk -> {
+                Map<Long, Long> counts = new HashMap<>();
+                for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+                    if (categoryIds[row] != NONE) {
+                        counts.merge(categoryIds[row], 1L, Long::sum);
+                    }
+                }
+                return counts;
+            }).reduce(new HashMap<>(), TicketColumnStore::merge);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Computes the average time to resolution per assigned agent.
+     * Only tickets with both an agent and a resolution timestamp are considered.
+     * 
+     * @return A map from agent ID to the average resolution time in seconds
+     */
+    public Map<Long, Double> averageResolutionSecondsByAgent() {
+        lock.readLock().lock();
+        try {
+            Map<Long, long[]> totals = chunks().mapToObj(chunk -> {
+                Map<Long, long[]> sums = new HashMap<>();
+                for (int row = chunkStart(chunk), end = chunkEnd(chunk); row < end; row++) {
+                    if (agentIds[row] != NONE && resolvedAt[row] != NONE && createdAt[row] != NONE) {
+                        long[] sum = sums.computeIfAbsent(agentIds[row], key -> new long[2]);
+                        sum[0] += resolvedAt[row] - createdAt[row];
+                        sum[1]++;
+                    }
+                }
+                return sums;
+            }).reduce(new HashMap<>(), (left, right) -> {
+                Map<Long, long[]> merged = new HashMap<>(left);
+                right.forEach((agentId, sum) -> merged.merge(agentId, sum, TicketColumnStore::add));
+                return merged;
+            });
+            
+            Map<Long, Double> averages = new HashMap<>();
+            totals.forEach((agentId, sum) -> averages.put(agentId, (double) sum[0] / sum[1]));
+            return averages;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Streams the chunk numbers covering the current rows, in parallel.
+     */
+    private IntStream chunks() {
+        return IntStream.range(0, (size + CHUNK_SIZE - 1) / CHUNK_SIZE).parallel();
+    }
+    
+    private static int chunkStart(int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+    
+    private int chunkEnd(int chunk) {
+        return Math.min(size, (chunk + 1) * CHUNK_SIZE);
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+        agentIds = Arrays.copyOf(agentIds, newCapacity);
+        customerIds = Arrays.copyOf(customerIds, newCapacity);
+        createdAt = Arrays.copyOf(createdAt, newCapacity);
+        resolvedAt = Arrays.copyOf(resolvedAt, newCapacity);
+    }
+    
+    private static long orNone(Long value) {
+        return value == null ? NONE : value;
+    }
+    
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? NONE : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+    
+    private static long[] add(long[] left, long[] right) {
+        long[] sum = new long[left.length];
+        for (int i = 0; i < left.length; i++) {
+            sum[i] = left[i] + right[i];
+        }
+        return sum;
+    }
+    
+    private static Map<Long, Long> merge(Map<Long, Long> left, Map<Long, Long> right) {
+        Map<Long, Long> merged = new HashMap<>(left);
+        right.forEach((key, count) -> merged.merge(key, count, Long::sum));
+        return merged;
+    }
+}
@@ -0,0 +1,168 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * A ticket search request compiled once into specialized predicates, for
+ * reuse across every row of a scan.
+ * 
+ * Absent criteria are left out of the compiled predicates entirely rather
+ * than tested per row, the requested IDs are unboxed once at compile time,
+ * and the keyword is lowercased once. The combining lambdas are shared by
+ * every compiled filter, so their call sites see many different criteria
+ * over the life of the application; the saving comes from skipping absent
+ * criteria, not from the JIT inlining a particular filter.
+ * 
+ * Two forms are produced: one over the fixed-layout header of an encoded
+ * record, evaluated before decoding, and one over a decoded ticket. The
+ * header form compares primitive fields only. The ticket form still checks
+ * the ticket's category, agent and customer for null and unboxes their IDs
+ * per row, since a decoded ticket holds them as objects, so scans should not
+ * rely on it: the in-memory repository matches the structured criteria on
+ * {@link TicketColumnStore#findIds} and applies only the
+ * {@link #keywordRefinement()} to the tickets that pass.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public final class TicketFilter {
+    
+    private final TicketSegment.HeaderFilter headerFilter;
+    private final Predicate<Ticket> ticketFilter;
+    private final Predicate<Ticket> keywordFilter;
+    
+    private TicketFilter(TicketSegment.HeaderFilter headerFilter, Predicate<Ticket> ticketFilter,
+                         Predicate<Ticket> keywordFilter) {
+        this.headerFilter = headerFilter;
+        this.ticketFilter = ticketFilter;
+        this.keywordFilter = keywordFilter;
+    }
+    
+    /**
+     * Compiles search criteria. Null or blank arguments match any value.
+     * 
+     * @param keyword The keyword to search for in title and description
+     * @param status The status to filter by
+     * @param priority The priority to filter by
+     * @param categoryId The category ID to filter by
+     * @param agentId The assigned agent ID to filter by
+     * @param customerId The customer ID to filter by
+     * @return The compiled filter
+     */
+    public static TicketFilter compile(String keyword, TicketStatus status, TicketPriority priority,
+                                       Long categoryId, Long agentId, Long customerId) {
+        List<TicketSegment.HeaderFilter> headerTests = new ArrayList<>();
+        List<Predicate<Ticket>> ticketTests = new ArrayList<>();
+        if (status != null) {
+            headerTests.add((buffer, offset) -> TicketCodec.statusAt(buffer, offset) == status);
+            ticketTests.add(ticket -> ticket.getStatus() == status);
+        }
+        if (priority != null) {
+            headerTests.add((buffer, offset) -> TicketCodec.priorityAt(buffer, offset) == priority);
+            ticketTests.add(ticket -> ticket.getPriority() == priority);
+        }
+        if (categoryId != null) {
+            long category = categoryId;
+            headerTests.add((buffer, offset) -> TicketCodec.categoryIdAt(buffer, offset) == category);
+            ticketTests.add(ticket -> ticket.getCategory() != null && ticket.getCategory().getId() != null
+                    && ticket.getCategory().getId() == category);
+        }
+        if (agentId != null) {
+            long agent = agentId;
+            headerTests.add((buffer, offset) -> TicketCodec.agentIdAt(buffer, offset) == agent);
+            ticketTests.add(ticket -> ticket.getAssignedAgent() != null && ticket.getAssignedAgent().getId() != null
+                    && ticket.getAssignedAgent().getId() == agent);
+        }
+        if (customerId != null) {
+            long customer = customerId;
+            headerTests.add((buffer, offset) -> TicketCodec.customerIdAt(buffer, offset) == customer);
+            ticketTests.add(ticket -> ticket.getCustomer() != null && ticket.getCustomer().getId() != null
+                    && ticket.getCustomer().getId() == customer);
+        }
+        Predicate<Ticket> keywordFilter = null;
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            String keywordLower = keyword.toLowerCase();
+            keywordFilter = ticket ->
+                    (ticket.getTitle() != null && ticket.getTitle().toLowerCase().contains(keywordLower)) ||
+                    (ticket.getDescription() != null && ticket.getDescription().toLowerCase().contains(keywordLower));
+            ticketTests.add(keywordFilter);
+        }
+        return new TicketFilter(allHeaders(headerTests), allTickets(ticketTests), keywordFilter);
+    }
+    
+    /**
+     * Gets the filter over the header of an encoded record. It tests every
+     * criterion except the keyword, which needs the decoded text.
+     * 
+     * @return The header filter
+     */
+    public TicketSegment.HeaderFilter onHeader() {
+        return headerFilter;
+    }
+    
+    /**
+     * Gets the filter over a decoded ticket, testing every criterion.
+     * 
+     * @return The ticket predicate
+     */
+    public Predicate<Ticket> onTicket() {
+        return ticketFilter;
+    }
+    
+    /**
+     * Gets the keyword test to apply after a record passes {@link #onHeader()}.
+     * 
+     * @return The keyword predicate, or null if there is no keyword
+     */
+    public Predicate<Ticket> keywordRefinement() {
+        return keywordFilter;
+    }
+    
+    /**
+     * Combines header tests into one, with a dedicated shape for the common
+     * small counts so that no loop runs per row.
+     */
+    private static TicketSegment.HeaderFilter allHeaders(List<TicketSegment.HeaderFilter> tests) {
+        switch (tests.size()) {
+            case 0:
+                return (buffer, offset) -> true;
+            case 1:
+                return tests.get(0);
+            case 2: {
+                TicketSegment.HeaderFilter first = tests.get(0);
+                TicketSegment.HeaderFilter second = tests.get(1);
+                return (buffer, offset) -> first.test(buffer, offset) && second.test(buffer, offset);
+            }
+            default: {
+                TicketSegment.HeaderFilter first = tests.get(0);
+                TicketSegment.HeaderFilter rest = allHeaders(tests.subList(1, tests.size()));
+                return (buffer, offset) -> first.test(buffer, offset) && rest.test(buffer, offset);
+            }
+        }
+    }
+    
+    private static Predicate<Ticket> allTickets(List<Predicate<Ticket>> tests) {
+        switch (tests.size()) {
+            case 0:
+                return ticket -> true;
+            case 1:
+                return tests.get(0);
+            case 2: {
+                Predicate<Ticket> first = tests.get(0);
+                Predicate<Ticket> second = tests.get(1);
+                return ticket -> first.test(ticket) && second.test(ticket);
+            }
+            default: {
+                Predicate<Ticket> first = tests.get(0);
+                Predicate<Ticket> rest = allTickets(tests.subList(1, tests.size()));
+                return ticket -> first.test(ticket) && rest.test(ticket);
+            }
+        }
+    }
+}
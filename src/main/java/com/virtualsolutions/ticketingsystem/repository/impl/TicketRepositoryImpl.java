@@ -0,0 +1,184 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.repository.TicketRepository;
+
+/**
+ * In-memory implementation of the TicketRepository interface.
+ * This implementation uses a HashMap to store tickets and keeps a
+ * columnar mirror of the store up to date for reporting scans.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketRepositoryImpl implements TicketRepository {
+    
+    private final Map<Long, Ticket> tickets = new HashMap<>();
+    private final TicketColumnStore columnStore = new TicketColumnStore();
+    private Long nextId = 1L;
+    
+    @Override
+    public Ticket save(Ticket ticket) {
+        if (ticket.getId() == null) {
+            ticket.setId(nextId++);
+        } else if (ticket.getId() >= nextId) {
+            nextId = ticket.getId() + 1;
+        }
+        tickets.put(ticket.getId(), ticket);
+        columnStore.upsert(ticket);
+        return ticket;
+    }
+    
+    @Override
+    public Ticket update(Ticket ticket) {
+        if (ticket.getId() == null || !tickets.containsKey(ticket.getId())) {
+            throw new IllegalArgumentException("Cannot update non-existent ticket");
+        }
+        tickets.put(ticket.getId(), ticket);
+        columnStore.upsert(ticket);
+        return ticket;
+    }
+    
+    @Override
+    public Optional<Ticket> findById(Long id) {
+        return Optional.ofNullable(tickets.get(id));
+    }
+    
+    @Override
+    public boolean existsById(Long id) {
+        return id != null && tickets.containsKey(id);
+    }
+    
+    @Override
+    public int count() {
+        return tickets.size();
+    }
+    
+    @Override
+    public Optional<Ticket> findByTicketNumber(String ticketNumber) {
+        if (ticketNumber == null || ticketNumber.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        
+        return tickets.values().stream()
+                .filter(ticket -> ticketNumber.equals(ticket.getTicketNumber()))
+                .findFirst();
+    }
+    
+    @Override
+    public List<Ticket> findAll() {
+        return new ArrayList<>(tickets.values());
+    }
+    
+    @Override
+    public boolean delete(Long id) {
+        if (tickets.remove(id) == null) {
+            return false;
+        }
+        columnStore.remove(id);
+        return true;
+    }
+    
+    @Override
+    public List<Ticket> findByStatus(TicketStatus status) {
+        return tickets.values().stream()
+                .filter(ticket -> ticket.getStatus() == status)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Ticket> findByPriority(TicketPriority priority) {
+        return tickets.values().stream()
+                .filter(ticket -> ticket.getPriority() == priority)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Ticket> findByAssignedAgentId(Long agentId) {
+        return tickets.values().stream()
+                .filter(ticket -> ticket.getAssignedAgent() != null &&
+                        agentId.equals(ticket.getAssignedAgent().getId()))
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Ticket> findByCustomerId(Long customerId) {
+        return tickets.values().stream()
+                .filter(ticket -> ticket.getCustomer() != null &&
+                        customerId.equals(ticket.getCustomer().getId()))
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Ticket> findByCategoryId(Long categoryId) {
+        return tickets.values().stream()
+                .filter(ticket -> ticket.getCategory() != null &&
+                        categoryId.equals(ticket.getCategory().getId()))
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Ticket> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        return tickets.values().stream()
+                .filter(ticket -> ticket.getCreatedAt() != null &&
+                        !ticket.getCreatedAt().isBefore(startDate) &&
+                        !ticket.getCreatedAt().isAfter(endDate))
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Ticket> search(String keyword, TicketStatus status, TicketPriority priority,
+                               Long categoryId, Long agentId, Long customerId) {
+        // The structured criteria are matched on the column store's primitive arrays;
+        // only the tickets that pass are fetched for the keyword test
+        Predicate<Ticket> keywordFilter = TicketFilter.compile(keyword, status, priority, categoryId, agentId,
+                customerId).keywordRefinement();
+        List<Ticket> results = new ArrayList<>();
+        for (long id : columnStore.findIds(status, priority, categoryId, agentId, customerId)) {
+            Ticket ticket = tickets.get(id);
+            if (keywordFilter == null || keywordFilter.test(ticket)) {
+                results.add(ticket);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Gets the columnar mirror of this repository, used for aggregate reporting scans.
+     * 
+     * @return The column store kept in sync with this repository
+     */
+    public TicketColumnStore getColumnStore() {
+        return columnStore;
+    }
+    
+    /**
+     * Writes all tickets to an uncompressed segment file that serves as a snapshot.
+     * 
+     * @param file The path of the snapshot file to create
+     */
+    public void writeSnapshot(Path file) {
+        TicketSegment.write(file, tickets.values(), false);
+    }
+    
+    /**
+     * Loads the tickets of a snapshot file, replacing any stored ticket with the same ID.
+     * 
+     * @param file The path of the snapshot file
+     */
+    public void loadSnapshot(Path file) {
+        TicketSegment.open(file).scan((buffer, offset) -> true, null).forEach(this::save);
+    }
+}
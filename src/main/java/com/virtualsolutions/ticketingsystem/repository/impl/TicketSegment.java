@@ -0,0 +1,427 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+
+/**
+ * Immutable, memory-mapped segment file holding a batch of tickets. Segments
+ * back the archive tier and double as the snapshot format of the repositories.
+ * 
+ * A segment file is laid out as:
+ * <ul>
+ *   <li>a header with the magic number, format version, flags, ticket count and
+ *       the offsets of the sections below;</li>
+ *   <li>an ID table of fixed-size entries sorted by ticket ID, each carrying the
+ *       record's {@link TicketCodec} header and the location of its record;</li>
+ *   <li>an open-addressing hash table from ticket-number hash to ID table entry;</li>
+ *   <li>the record blocks, either raw codec records or Deflate-compressed ones.</li>
+ * </ul>
+ * The file is read through {@link FileChannel#map}, so the operating system's
+ * page cache does the caching. Header filters read the ID table in place, and
+ * records in uncompressed segments are decoded straight from the mapping.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketSegment {
+    
+    private static final int MAGIC = 0x544B5347;
+    private static final int VERSION = 2;
+    private static final int FLAG_COMPRESSED = 1;
+    
+    private static final int VERSION_OFFSET = 4;
+    private static final int FLAGS_OFFSET = 8;
+    private static final int COUNT_OFFSET = 12;
+    private static final int ID_TABLE_OFFSET = 16;
+    private static final int HASH_TABLE_OFFSET = 24;
+    private static final int HASH_SLOTS_OFFSET = 32;
+    private static final int RECORDS_OFFSET = 36;
+    private static final int FILE_HEADER_SIZE = 44;
+    
+    private static final int RECORD_OFFSET = TicketCodec.HEADER_SIZE;
+    private static final int STORED_LENGTH_OFFSET = RECORD_OFFSET + 8;
+    private static final int RAW_LENGTH_OFFSET = STORED_LENGTH_OFFSET + 4;
+    private static final int ENTRY_SIZE = RAW_LENGTH_OFFSET + 4;
+    
+    private static final int HASH_SLOT_SIZE = 12;
+    private static final int EMPTY_SLOT = -1;
+    
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final boolean compressed;
+    private final int count;
+    private final int idTable;
+    private final int hashTable;
+    private final int hashSlots;
+    private final BloomFilter ticketNumberFilter;
+    
+    private TicketSegment(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < FILE_HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a ticket segment file: " + file);
+        }
+        if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalStateException("Unsupported ticket segment version "
+                    + buffer.getInt(VERSION_OFFSET) + " in " + file);
+        }
+        this.compressed = (buffer.getInt(FLAGS_OFFSET) & FLAG_COMPRESSED) != 0;
+        this.count = buffer.getInt(COUNT_OFFSET);
+        this.idTable = (int) buffer.getLong(ID_TABLE_OFFSET);
+        this.hashTable = (int) buffer.getLong(HASH_TABLE_OFFSET);
+        this.hashSlots = buffer.getInt(HASH_SLOTS_OFFSET);
+        
+        // The hash table already stores every ticket-number hash, so the filter is built without decoding
+        this.ticketNumberFilter = new BloomFilter(count, 0.01);
+        for (int slot = 0; slot < hashSlots; slot++) {
+            int slotOffset = hashTable + slot * HASH_SLOT_SIZE;
+            if (buffer.getInt(slotOffset + 8) != EMPTY_SLOT) {
+                ticketNumberFilter.put(buffer.getLong(slotOffset));
+            }
+        }
+    }
+    
+    /**
+     * Writes tickets to a new segment file and opens it.
+     * The file is written under a temporary name, forced to disk and moved into
+     * place once complete.
+     * 
+     * @param file The path of the segment file to create
+     * @param tickets The tickets to write; each must have an ID
+     * @param compressed Whether to Deflate-compress the records
+     * @return The opened segment
+     * @throws IllegalArgumentException if the segment would exceed 2 GB
+     */
+    public static TicketSegment write(Path file, Collection<Ticket> tickets, boolean compressed) {
+        List<Ticket> sorted = new ArrayList<>(tickets);
+        sorted.sort(Comparator.comparing(Ticket::getId));
+        int count = sorted.size();
+        
+        byte[][] raw = new byte[count][];
+        byte[][] stored = new byte[count][];
+        Deflater deflater = compressed ? new Deflater(Deflater.BEST_SPEED) : null;
+        try {
+            for (int i = 0; i < count; i++) {
+                raw[i] = TicketCodec.encode(sorted.get(i));
+                stored[i] = compressed ? deflate(deflater, raw[i]) : raw[i];
+            }
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+        
+        // Build the ticket-number hash table at no more than half load
+        int hashSlots = Integer.highestOneBit(Math.max(2, count * 2) - 1) << 1;
+        long[] slotHashes = new long[hashSlots];
+        int[] slotEntries = new int[hashSlots];
+        Arrays.fill(slotEntries, EMPTY_SLOT);
+        for (int i = 0; i < count; i++) {
+            String ticketNumber = sorted.get(i).getTicketNumber();
+            if (ticketNumber != null) {
+                long numberHash = TicketCodec.hashTicketNumber(ticketNumber);
+                int slot = homeSlot(numberHash, hashSlots);
+                while (slotEntries[slot] != EMPTY_SLOT) {
+                    slot = (slot + 1) & (hashSlots - 1);
+                }
+                slotHashes[slot] = numberHash;
+                slotEntries[slot] = i;
+            }
+        }
+        
+        long idTable = FILE_HEADER_SIZE;
+        long hashTable = idTable + (long) count * ENTRY_SIZE;
+        long records = hashTable + (long) hashSlots * HASH_SLOT_SIZE;
+        long size = records;
+        for (byte[] record : stored) {
+            size += record.length;
+        }
+        // A segment is read through one mapping with int offsets
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ticket segment of " + size + " bytes exceeds the "
+                    + Integer.MAX_VALUE + "-byte limit; write the tickets to several segments");
+        }
+        
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(compressed ? FLAG_COMPRESSED : 0);
+            out.writeInt(count);
+            out.writeLong(idTable);
+            out.writeLong(hashTable);
+            out.writeInt(hashSlots);
+            out.writeLong(records);
+            
+            long recordOffset = records;
+            for (int i = 0; i < count; i++) {
+                out.write(raw[i], 0, TicketCodec.HEADER_SIZE);
+                out.writeLong(recordOffset);
+                out.writeInt(stored[i].length);
+                out.writeInt(raw[i].length);
+                recordOffset += stored[i].length;
+            }
+            for (int slot = 0; slot < hashSlots; slot++) {
+                out.writeLong(slotHashes[slot]);
+                out.writeInt(slotEntries[slot]);
+            }
+            for (byte[] record : stored) {
+                out.write(record);
+            }
+            // The contents must be durable before the rename makes them visible under the final name
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write ticket segment " + file, e);
+        }
+        
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to publish ticket segment " + file, e);
+        }
+        return open(file);
+    }
+    
+    /**
+     * Opens an existing segment file by mapping it read-only.
+     * 
+     * @param file The path of the segment file
+     * @return The opened segment
+     */
+    public static TicketSegment open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Ticket segment " + file + " of " + channel.size()
+                        + " bytes exceeds the " + Integer.MAX_VALUE + "-byte limit");
+            }
+            return new TicketSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ticket segment " + file, e);
+        }
+    }
+    
+    /**
+     * Finds a ticket by its ID using a binary search over the ID table.
+     * 
+     * @param id The ID of the ticket to find
+     * @return An Optional containing the found ticket or empty if not found
+     */
+    public Optional<Ticket> findById(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleId = TicketCodec.idAt(buffer, entryOffset(middle));
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return Optional.of(decode(middle));
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Finds a ticket by its ticket number. An on-heap Bloom filter rejects most
+     * absent numbers before the mapped hash table is touched.
+     * 
+     * @param ticketNumber The ticket number to search for
+     * @return An Optional containing the found ticket or empty if not found
+     */
+    public Optional<Ticket> findByTicketNumber(String ticketNumber) {
+        long numberHash = TicketCodec.hashTicketNumber(ticketNumber);
+        if (!ticketNumberFilter.mightContain(numberHash)) {
+            return Optional.empty();
+        }
+        for (int slot = homeSlot(numberHash, hashSlots); ; slot = (slot + 1) & (hashSlots - 1)) {
+            int slotOffset = hashTable + slot * HASH_SLOT_SIZE;
+            int entry = buffer.getInt(slotOffset + 8);
+            if (entry == EMPTY_SLOT) {
+                ticketNumberFilter.recordFalsePositive();
+                return Optional.empty();
+            }
+            if (buffer.getLong(slotOffset) == numberHash &&
+                    ticketNumber.equals(ticketNumberOf(entry))) {
+                return Optional.of(decode(entry));
+            }
+        }
+    }
+    
+    /**
+     * Decodes the tickets whose header passes the filter and that satisfy the
+     * optional refinement on the decoded ticket.
+     * 
+     * @param filter Test over the buffer and offset of an entry's codec header
+     * @param refinement Test over the decoded ticket, or null to accept all
+     * @return The matching tickets in ID order
+     */
+    public List<Ticket> scan(HeaderFilter filter, Predicate<Ticket> refinement) {
+        List<Ticket> matches = new ArrayList<>();
+        for (int entry = 0; entry < count; entry++) {
+            if (filter.test(buffer, entryOffset(entry))) {
+                Ticket ticket = decode(entry);
+                if (refinement == null || refinement.test(ticket)) {
+                    matches.add(ticket);
+                }
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * Visits every record as raw codec bytes, in ID order. For uncompressed
+     * segments the visitor reads straight from the mapped file.
+     * 
+     * @param visitor Receives the buffer, offset and length of each encoded record
+     */
+    public void forEachRecord(RecordVisitor visitor) {
+        for (int entry = 0; entry < count; entry++) {
+            int entryOffset = entryOffset(entry);
+            if (compressed) {
+                visitor.visit(ByteBuffer.wrap(inflate(entry)), 0, buffer.getInt(entryOffset + RAW_LENGTH_OFFSET));
+            } else {
+                visitor.visit(buffer, (int) buffer.getLong(entryOffset + RECORD_OFFSET),
+                        buffer.getInt(entryOffset + RAW_LENGTH_OFFSET));
+            }
+        }
+    }
+    
+    /**
+     * Gets the largest ticket ID stored in the segment.
+     * 
+     * @return The largest ID, or 0 if the segment is empty
+     */
+    public long getMaxId() {
+        return count == 0 ? 0L : TicketCodec.idAt(buffer, entryOffset(count - 1));
+    }
+    
+    /**
+     * Gets the number of tickets in the segment.
+     * 
+     * @return The ticket count
+     */
+    public int size() {
+        return count;
+    }
+    
+    /**
+     * Gets the Bloom filter over the segment's ticket numbers.
+     * 
+     * @return The ticket-number filter
+     */
+    public BloomFilter getTicketNumberFilter() {
+        return ticketNumberFilter;
+    }
+    
+    /**
+     * Checks whether the segment's records are compressed.
+     * 
+     * @return true if records are Deflate-compressed, false if stored raw
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+    
+    /**
+     * Gets the path of the segment file.
+     * 
+     * @return The segment file path
+     */
+    public Path getFile() {
+        return file;
+    }
+    
+    private Ticket decode(int entry) {
+        if (compressed) {
+            return TicketCodec.decode(ByteBuffer.wrap(inflate(entry)), 0);
+        }
+        return TicketCodec.decode(buffer, (int) buffer.getLong(entryOffset(entry) + RECORD_OFFSET));
+    }
+    
+    private String ticketNumberOf(int entry) {
+        if (compressed) {
+            return TicketCodec.ticketNumberAt(ByteBuffer.wrap(inflate(entry)), 0);
+        }
+        return TicketCodec.ticketNumberAt(buffer, (int) buffer.getLong(entryOffset(entry) + RECORD_OFFSET));
+    }
+    
+    private byte[] inflate(int entry) {
+        int entryOffset = entryOffset(entry);
+        byte[] stored = new byte[buffer.getInt(entryOffset + STORED_LENGTH_OFFSET)];
+        byte[] raw = new byte[buffer.getInt(entryOffset + RAW_LENGTH_OFFSET)];
+        buffer.get((int) buffer.getLong(entryOffset + RECORD_OFFSET), stored);
+        
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            inflater.inflate(raw);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt record in ticket segment " + file, e);
+        } finally {
+            inflater.end();
+        }
+        return raw;
+    }
+    
+    private int entryOffset(int entry) {
+        return idTable + entry * ENTRY_SIZE;
+    }
+    
+    private static int homeSlot(long numberHash, int slots) {
+        return (int) (numberHash ^ (numberHash >>> 32)) & (slots - 1);
+    }
+    
+    private static byte[] deflate(Deflater deflater, byte[] record) {
+        deflater.reset();
+        deflater.setInput(record);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(record.length);
+        byte[] chunk = new byte[1024];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Filter over a record's codec header, read in place from the mapped file.
+     */
+    public interface HeaderFilter {
+        boolean test(ByteBuffer buffer, int offset);
+    }
+    
+    /**
+     * Receives encoded records without decoding them.
+     */
+    public interface RecordVisitor {
+        void visit(ByteBuffer buffer, int offset, int length);
+    }
+}
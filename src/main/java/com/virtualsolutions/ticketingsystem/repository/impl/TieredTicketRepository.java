@@ -0,0 +1,502 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.repository.TicketRepository;
+
+/**
+ * Two-tier implementation of the TicketRepository interface.
+ * Active tickets live in a hot repository; RESOLVED and CLOSED tickets older
+ * than a configurable age are moved into compressed, memory-mapped, read-only
+ * {@link TicketSegment} files. Every query consults both tiers, with the hot
+ * tier taking precedence, so callers never see where a ticket is stored.
+ * 
+ * Archived tickets are never rewritten in place: updating one promotes it back
+ * into the hot tier, and deleting one records its ID in a tombstone file that
+ * hides it from the archive. A ticket promoted and archived again has a copy in
+ * more than one segment; only the copy in the newest segment is visible.
+ * 
+ * Ticket-number lookups are guarded by a Bloom filter per tier, so numbers that
+ * do not exist are usually rejected without probing any storage. The hot-tier
+ * filter is rebuilt after each archiving run, which also resets its counters.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TieredTicketRepository implements TicketRepository, AutoCloseable {
+    
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TOMBSTONE_FILE = "tombstones.log";
+    private static final int MIN_FILTER_CAPACITY = 1024;
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
+    private static final long NOT_SEEN = Long.MIN_VALUE;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TicketRepository hot;
+    private final Path archiveDirectory;
+    private final Duration archiveAfter;
+    private final List<TicketSegment> segments = new ArrayList<>();
+    private final Set<Long> tombstones = new HashSet<>();
+    private final LongAdder failedArchiveRuns = new LongAdder();
+    private BloomFilter hotTicketNumbers;
+    private long hotFilterCapacity;
+    private ScheduledExecutorService scheduler;
+    private long nextSegmentNumber = 1L;
+    private long nextId = 1L;
+    
+    /**
+     * Creates a tiered repository, reopening any segments already in the archive directory.
+     * 
+     * @param hot The repository holding active tickets
+     * @param archiveDirectory The directory holding archive segment files
+     * @param archiveAfter How long a ticket must have been resolved or closed before it is archived
+     */
+    public TieredTicketRepository(TicketRepository hot, Path archiveDirectory, Duration archiveAfter) {
+        this.hot = hot;
+        this.archiveDirectory = archiveDirectory;
+        this.archiveAfter = archiveAfter;
+        try {
+            Files.createDirectories(archiveDirectory);
+            try (Stream<Path> files = Files.list(archiveDirectory)) {
+                files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX) &&
+                                file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .forEach(file -> segments.add(TicketSegment.open(file)));
+            }
+            loadTombstones();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ticket archive " + archiveDirectory, e);
+        }
+        
+        for (TicketSegment segment : segments) {
+            nextId = Math.max(nextId, segment.getMaxId() + 1);
+            nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(segment.getFile()) + 1);
+        }
+        for (Ticket ticket : hot.findAll()) {
+            nextId = Math.max(nextId, ticket.getId() + 1);
+        }
+        rebuildHotFilter();
+    }
+    
+    @Override
+    public Ticket save(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            // IDs are assigned here so they stay unique across both tiers
+            if (ticket.getId() == null) {
+                ticket.setId(nextId++);
+            } else if (ticket.getId() >= nextId) {
+                nextId = ticket.getId() + 1;
+            }
+            indexHotTicketNumber(ticket);
+            return hot.save(ticket);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public Ticket update(Ticket ticket) {
+        lock.writeLock().lock();
+        try {
+            if (ticket.getId() != null && !hot.existsById(ticket.getId())) {
+                if (findArchived(ticket.getId()).isEmpty()) {
+                    throw new IllegalArgumentException("Cannot update non-existent ticket");
+                }
+                // Promote the archived ticket; the hot copy shadows the archived one
+                indexHotTicketNumber(ticket);
+                return hot.save(ticket);
+            }
+            indexHotTicketNumber(ticket);
+            return hot.update(ticket);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public Optional<Ticket> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            Optional<Ticket> ticket = hot.findById(id);
+            return ticket.isPresent() || id == null ? ticket : findArchived(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public Optional<Ticket> findByTicketNumber(String ticketNumber) {
+        lock.readLock().lock();
+        try {
+            if (ticketNumber == null || ticketNumber.trim().isEmpty()) {
+                return Optional.empty();
+            }
+            long numberHash = TicketCodec.hashTicketNumber(ticketNumber);
+            if (hotTicketNumbers.mightContain(numberHash)) {
+                Optional<Ticket> ticket = hot.findByTicketNumber(ticketNumber);
+                if (ticket.isPresent()) {
+                    return ticket;
+                }
+                hotTicketNumbers.recordFalsePositive();
+            }
+            // Each segment consults its own filter before touching the mapped file
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                Optional<Ticket> archived = segments.get(i).findByTicketNumber(ticketNumber);
+                if (archived.isPresent() && isVisible(archived.get().getId())) {
+                    return archived;
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<Ticket> findAll() {
+        return query(hot::findAll, (buffer, offset) -> true, null);
+    }
+    
+    @Override
+    public boolean delete(Long id) {
+        lock.writeLock().lock();
+        try {
+            boolean deleted = hot.delete(id);
+            if (id != null && findArchived(id).isPresent()) {
+                appendTombstone(id);
+                deleted = true;
+            }
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public List<Ticket> findByStatus(TicketStatus status) {
+        return query(() -> hot.findByStatus(status),
+                (buffer, offset) -> TicketCodec.statusAt(buffer, offset) == status, null);
+    }
+    
+    @Override
+    public List<Ticket> findByPriority(TicketPriority priority) {
+        return query(() -> hot.findByPriority(priority),
+                (buffer, offset) -> TicketCodec.priorityAt(buffer, offset) == priority, null);
+    }
+    
+    @Override
+    public List<Ticket> findByAssignedAgentId(Long agentId) {
+        return query(() -> hot.findByAssignedAgentId(agentId),
+                (buffer, offset) -> TicketCodec.agentIdAt(buffer, offset) == agentId, null);
+    }
+    
+    @Override
+    public List<Ticket> findByCustomerId(Long customerId) {
+        return query(() -> hot.findByCustomerId(customerId),
+                (buffer, offset) -> TicketCodec.customerIdAt(buffer, offset) == customerId, null);
+    }
+    
+    @Override
+    public List<Ticket> findByCategoryId(Long categoryId) {
+        return query(() -> hot.findByCategoryId(categoryId),
+                (buffer, offset) -> TicketCodec.categoryIdAt(buffer, offset) == categoryId, null);
+    }
+    
+    @Override
+    public List<Ticket> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        long start = startDate.toEpochSecond(ZoneOffset.UTC);
+        long end = endDate.toEpochSecond(ZoneOffset.UTC);
+        return query(() -> hot.findByCreatedAtBetween(startDate, endDate), (buffer, offset) -> {
+            long createdAt = TicketCodec.createdAtEpochSecondAt(buffer, offset);
+            return createdAt != TicketCodec.NONE && createdAt >= start && createdAt <= end;
+        }, ticket -> !ticket.getCreatedAt().isBefore(startDate) && !ticket.getCreatedAt().isAfter(endDate));
+    }
+    
+    @Override
+    public List<Ticket> search(String keyword, TicketStatus status, TicketPriority priority,
+                               Long categoryId, Long agentId, Long customerId) {
+        TicketFilter filter = TicketFilter.compile(keyword, status, priority, categoryId, agentId, customerId);
+        return query(() -> hot.search(keyword, status, priority, categoryId, agentId, customerId),
+                filter.onHeader(), filter.keywordRefinement());
+    }
+    
+    /**
+     * Moves RESOLVED and CLOSED tickets older than the configured age from the
+     * hot tier into a new archive segment.
+     * 
+     * @return The number of tickets archived
+     */
+    public int archiveEligibleTickets() {
+        lock.writeLock().lock();
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(archiveAfter);
+            List<Ticket> eligible = Stream.concat(
+                            hot.findByStatus(TicketStatus.RESOLVED).stream(),
+                            hot.findByStatus(TicketStatus.CLOSED).stream())
+                    .filter(ticket -> settledAt(ticket).isBefore(cutoff))
+                    .collect(Collectors.toList());
+            if (eligible.isEmpty()) {
+                return 0;
+            }
+            
+            Path file = archiveDirectory.resolve(String.format("%s%016d%s",
+                    SEGMENT_PREFIX, nextSegmentNumber++, SEGMENT_SUFFIX));
+            segments.add(TicketSegment.write(file, eligible, true));
+            for (Ticket ticket : eligible) {
+                hot.delete(ticket.getId());
+            }
+            rebuildHotFilter();
+            return eligible.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Starts archiving eligible tickets periodically on a background thread.
+     * 
+     * @param interval The time between archiving runs
+     */
+    public synchronized void startAutomaticArchiving(Duration interval) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Automatic archiving is already running");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveInBackground,
+                interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Runs one scheduled archiving pass. A scheduled task that throws is never
+     * run again, so a failure is recorded and the next run retries instead.
+     */
+    private void archiveInBackground() {
+        try {
+            archiveEligibleTickets();
+        } catch (RuntimeException e) {
+            failedArchiveRuns.increment();
+            System.err.println("Warning: Failed to archive tickets: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Gets the number of automatic archiving runs that failed. The tickets of
+     * a failed run stay in the hot tier and are retried by the next run.
+     * 
+     * @return The failed run count
+     */
+    public long getFailedArchiveRunCount() {
+        return failedArchiveRuns.sum();
+    }
+    
+    /**
+     * Stops automatic archiving if it is running.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+    
+    /**
+     * Gets the number of tickets held in the hot tier.
+     * 
+     * @return The hot ticket count
+     */
+    public int getHotTicketCount() {
+        lock.readLock().lock();
+        try {
+            return hot.count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets the number of archive segments.
+     * 
+     * @return The segment count
+     */
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Gets the ticket-number Bloom filters of every tier, for false positive rate
+     * reporting: the hot tier's filter first, then each archive segment's, oldest first.
+     * 
+     * @return The ticket-number filters
+     */
+    public List<BloomFilter> getTicketNumberFilters() {
+        lock.readLock().lock();
+        try {
+            List<BloomFilter> filters = new ArrayList<>();
+            filters.add(hotTicketNumbers);
+            for (TicketSegment segment : segments) {
+                filters.add(segment.getTicketNumberFilter());
+            }
+            return filters;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds a ticket's number to the hot-tier filter, growing the filter once it
+     * holds more numbers than it was sized for. Callers must hold the write lock.
+     */
+    private void indexHotTicketNumber(Ticket ticket) {
+        if (ticket.getTicketNumber() == null) {
+            return;
+        }
+        if (hotTicketNumbers.getInsertions() >= hotFilterCapacity) {
+            rebuildHotFilter();
+        }
+        hotTicketNumbers.put(TicketCodec.hashTicketNumber(ticket.getTicketNumber()));
+    }
+    
+    /**
+     * Rebuilds the hot-tier filter from the hot tier's current tickets, dropping
+     * numbers of tickets that were deleted, renumbered or archived.
+     */
+    private void rebuildHotFilter() {
+        List<Ticket> hotTickets = hot.findAll();
+        hotFilterCapacity = Math.max(MIN_FILTER_CAPACITY, hotTickets.size() * 2L);
+        hotTicketNumbers = new BloomFilter(hotFilterCapacity, FILTER_FALSE_POSITIVE_RATE);
+        for (Ticket ticket : hotTickets) {
+            if (ticket.getTicketNumber() != null) {
+                hotTicketNumbers.put(TicketCodec.hashTicketNumber(ticket.getTicketNumber()));
+            }
+        }
+    }
+    
+    /**
+     * Combines hot-tier results with matching archived tickets that are neither
+     * deleted nor shadowed by a hot copy. Segments are read newest first, and a
+     * ticket archived more than once is taken only from its newest segment, even
+     * when that copy does not match and an older one does.
+     */
+    private List<Ticket> query(Supplier<List<Ticket>> hotQuery, TicketSegment.HeaderFilter filter,
+                               Predicate<Ticket> refinement) {
+        lock.readLock().lock();
+        try {
+            List<Ticket> results = new ArrayList<>(hotQuery.get());
+            LongLongMap seen = segments.size() > 1 ? new LongLongMap(1024) : null;
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                results.addAll(segments.get(i).scan((buffer, offset) -> {
+                    long id = TicketCodec.idAt(buffer, offset);
+                    if (seen != null) {
+                        if (seen.get(id, NOT_SEEN) != NOT_SEEN) {
+                            return false;
+                        }
+                        seen.put(id, id);
+                    }
+                    return isVisible(id) && filter.test(buffer, offset);
+                }, refinement));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Finds a visible archived ticket, newest segment first. Callers must hold the lock.
+     */
+    private Optional<Ticket> findArchived(long id) {
+        if (!isVisible(id)) {
+            return Optional.empty();
+        }
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Optional<Ticket> ticket = segments.get(i).findById(id);
+            if (ticket.isPresent()) {
+                return ticket;
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Checks that an archived ticket is neither deleted nor shadowed by a hot copy.
+     */
+    private boolean isVisible(long id) {
+        return !tombstones.contains(id) && !hot.existsById(id);
+    }
+    
+    private static LocalDateTime settledAt(Ticket ticket) {
+        if (ticket.getResolvedAt() != null) {
+            return ticket.getResolvedAt();
+        }
+        return ticket.getUpdatedAt() != null ? ticket.getUpdatedAt() : ticket.getCreatedAt();
+    }
+    
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    private void loadTombstones() throws IOException {
+        Path file = archiveDirectory.resolve(TOMBSTONE_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            while (true) {
+                tombstones.add(in.readLong());
+            }
+        } catch (EOFException e) {
+            // End of the tombstone log
+        }
+    }
+    
+    private void appendTombstone(long id) {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(
+                archiveDirectory.resolve(TOMBSTONE_FILE), StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            out.writeLong(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to record deletion of archived ticket " + id, e);
+        }
+        tombstones.add(id);
+    }
+}
@@ -0,0 +1,273 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.service.CustomerChangeListener;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Type-ahead index over customer names, customer emails and ticket numbers.
+ * Each field is kept in its own {@link RadixTree}, updated as customers and
+ * tickets are saved, updated and deleted, and a completion returns the most
+ * recently touched matches first. Customer names are filed under every word,
+ * so "smi" completes to "John Smith" as well as "Smithers".
+ * 
+ * Matching ignores case and accents.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class AutocompleteIndex implements TicketChangeListener, CustomerChangeListener {
+    
+    private final RadixTree names = new RadixTree();
+    private final RadixTree emails = new RadixTree();
+    private final RadixTree ticketNumbers = new RadixTree();
+    private final Map<Long, IndexedEntry> customerNames = new HashMap<>();
+    private final Map<Long, IndexedEntry> customerEmails = new HashMap<>();
+    private final Map<Long, IndexedEntry> tickets = new HashMap<>();
+    private long sequence;
+    
+    /**
+     * Loads existing customers, typically the repository's contents at startup.
+     * 
+     * @param customers The customers to index
+     */
+    public synchronized void loadCustomers(Collection<Customer> customers) {
+        for (Customer customer : customers) {
+            indexCustomer(customer);
+        }
+    }
+    
+    /**
+     * Loads existing tickets, typically the repository's contents at startup.
+     * Tickets are ranked by their last update, oldest first.
+     * 
+     * @param tickets The tickets to index
+     */
+    public synchronized void load(Collection<Ticket> tickets) {
+        List<Ticket> byUpdate = new ArrayList<>(tickets);
+        byUpdate.sort(Comparator.comparing(AutocompleteIndex::lastTouched,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        for (Ticket ticket : byUpdate) {
+            indexTicket(ticket);
+        }
+    }
+    
+    @Override
+    public synchronized void onCustomerCreated(Customer customer) {
+        indexCustomer(customer);
+    }
+    
+    @Override
+    public synchronized void onCustomerUpdated(Customer customer) {
+        indexCustomer(customer);
+    }
+    
+    @Override
+    public synchronized void onCustomerDeleted(Customer customer) {
+        remove(names, customerNames.remove(customer.getId()), customer.getId());
+        remove(emails, customerEmails.remove(customer.getId()), customer.getId());
+    }
+    
+    @Override
+    public synchronized void onTicketCreated(Ticket ticket) {
+        indexTicket(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketUpdated(Ticket ticket) {
+        indexTicket(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketDeleted(Ticket ticket) {
+        remove(ticketNumbers, tickets.remove(ticket.getId()), ticket.getId());
+    }
+    
+    /**
+     * Completes a customer name. The prefix may start at any word of the name.
+     * 
+     * @param prefix The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return Matching customers, most recently created or updated first
+     */
+    public synchronized List<Suggestion> suggestCustomerNames(String prefix, int limit) {
+        return complete(names, customerNames, normalize(prefix), limit);
+    }
+    
+    /**
+     * Completes a customer email.
+     * 
+     * @param prefix The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return Matching customers, most recently created or updated first
+     */
+    public synchronized List<Suggestion> suggestCustomerEmails(String prefix, int limit) {
+        return complete(emails, customerEmails, normalize(prefix), limit);
+    }
+    
+    /**
+     * Completes a ticket number such as "TKT-2024".
+     * 
+     * @param prefix The text typed so far
+     * @param limit The maximum number of suggestions
+     * @return Matching tickets, most recently created or updated first
+     */
+    public synchronized List<Suggestion> suggestTicketNumbers(String prefix, int limit) {
+        return complete(ticketNumbers, tickets, normalize(prefix), limit);
+    }
+    
+    private void indexCustomer(Customer customer) {
+        if (customer.getId() == null) {
+            return;
+        }
+        long recency = ++sequence;
+        reindex(names, customerNames, customer.getId(), customer.getName(), wordSuffixes(customer.getName()), recency);
+        String email = customer.getEmail();
+        reindex(emails, customerEmails, customer.getId(), email,
+                email == null ? new String[0] : new String[] {normalize(email).trim()}, recency);
+    }
+    
+    private void indexTicket(Ticket ticket) {
+        if (ticket.getId() == null) {
+            return;
+        }
+        String number = ticket.getTicketNumber();
+        reindex(ticketNumbers, tickets, ticket.getId(), number,
+                number == null ? new String[0] : new String[] {normalize(number).trim()}, ++sequence);
+    }
+    
+    private static void reindex(RadixTree tree, Map<Long, IndexedEntry> indexed, Long id, String text,
+                                String[] keys, long recency) {
+        remove(tree, indexed.remove(id), id);
+        if (keys.length == 0 || keys[0].isEmpty()) {
+            return;
+        }
+        for (String key : keys) {
+            tree.put(key, id, recency);
+        }
+        indexed.put(id, new IndexedEntry(text, keys));
+    }
+    
+    private static void remove(RadixTree tree, IndexedEntry entry, Long id) {
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            tree.remove(key, id);
+        }
+    }
+    
+    private static List<Suggestion> complete(RadixTree tree, Map<Long, IndexedEntry> indexed, String prefix,
+                                             int limit) {
+        List<Suggestion> suggestions = new ArrayList<>();
+        if (prefix.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+        for (Long id : tree.complete(prefix, limit)) {
+            suggestions.add(new Suggestion(id, indexed.get(id).text));
+        }
+        return suggestions;
+    }
+    
+    /**
+     * Builds the keys for a name: the whole name starting from each of its words.
+     */
+    private static String[] wordSuffixes(String name) {
+        if (name == null) {
+            return new String[0];
+        }
+        String normalized = normalize(name).trim();
+        if (normalized.isEmpty()) {
+            return new String[0];
+        }
+        String[] words = normalized.split(" ");
+        String[] keys = new String[words.length];
+        int start = 0;
+        for (int i = 0; i < words.length; i++) {
+            keys[i] = normalized.substring(start);
+            start += words[i].length() + 1;
+        }
+        return keys;
+    }
+    
+    /**
+     * Lowercases text, removes accents and collapses runs of whitespace to a
+     * single space. Leading whitespace is dropped but trailing whitespace is
+     * kept, so a typed "john " no longer completes to "johnson".
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase()
+                .replaceAll("\\s+", " ")
+                .replaceFirst("^ ", "");
+    }
+    
+    private static LocalDateTime lastTouched(Ticket ticket) {
+        return ticket.getUpdatedAt() != null ? ticket.getUpdatedAt() : ticket.getCreatedAt();
+    }
+    
+    /**
+     * The display text of an indexed record with the keys it is filed under.
+     */
+    private static final class IndexedEntry {
+        
+        private final String text;
+        private final String[] keys;
+        
+        private IndexedEntry(String text, String[] keys) {
+            this.text = text;
+            this.keys = keys;
+        }
+    }
+    
+    /**
+     * A completion: the ID of a customer or ticket and the text that matched.
+     */
+    public static final class Suggestion {
+        
+        private final Long id;
+        private final String text;
+        
+        private Suggestion(Long id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+        
+        /**
+         * Gets the ID of the suggested customer or ticket.
+         * 
+         * @return The ID
+         */
+        public Long getId() {
+            return id;
+        }
+        
+        /**
+         * Gets the suggested name, email or ticket number as stored.
+         * 
+         * @return The text
+         */
+        public String getText() {
+            return text;
+        }
+        
+        @Override
+        public String toString() {
+            return text + " (#" + id + ")";
+        }
+    }
+}
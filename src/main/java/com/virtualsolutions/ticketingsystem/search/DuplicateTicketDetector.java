@@ -0,0 +1,347 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Finds open tickets that say nearly the same thing, such as the many reports
+ * of one outage.
+ * 
+ * Each ticket's title and description are reduced to a set of words and word
+ * pairs, and a MinHash signature of that set is computed when the ticket is
+ * created or its text changes. Two signatures agree in a given position with
+ * probability equal to the Jaccard similarity of the two sets, so the share
+ * of agreeing positions estimates how alike two tickets are. The signature is
+ * cut into bands, and each open ticket is filed in one bucket per band. A
+ * query only compares tickets that share a bucket with it in at least one
+ * band. With b bands of r rows, a pair of similarity s shares a bucket with
+ * probability 1 - (1 - s^r)^b, an S-curve whose midpoint (1/b)^(1/r) should
+ * sit well below the reporting threshold. The default 32 bands of 3 rows put
+ * the midpoint near 31%: pairs at 50% similarity share a bucket with
+ * probability 0.986, pairs at 20% with 0.23 and pairs at 10% with 0.03, so a
+ * query costs roughly the number of near duplicates rather than the number
+ * of open tickets.
+ * 
+ * Tickets leave the buckets when they are resolved, closed or deleted.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class DuplicateTicketDetector implements TicketChangeListener {
+    
+    private static final int DEFAULT_BANDS = 32;
+    private static final int DEFAULT_ROWS = 3;
+    private static final double DEFAULT_THRESHOLD = 0.5;
+    
+    private final int bands;
+    private final int rows;
+    private final double threshold;
+    private final long[] seeds;
+    private final List<Map<Long, Set<Long>>> buckets = new ArrayList<>();
+    private final Map<Long, TicketSignature> signatures = new HashMap<>();
+    
+    /**
+     * Creates a detector with 32 bands of 3 rows, reporting tickets at least 50% similar.
+     */
+    public DuplicateTicketDetector() {
+        this(DEFAULT_BANDS, DEFAULT_ROWS, DEFAULT_THRESHOLD);
+    }
+    
+    /**
+     * Creates a detector. More rows per band make bucket collisions between
+     * dissimilar tickets rarer; more bands make missed duplicates rarer.
+     * 
+     * @param bands The number of bands the signature is cut into
+     * @param rows The number of signature values per band
+     * @param threshold The estimated similarity, between 0 and 1, a ticket needs to be reported
+     */
+    public DuplicateTicketDetector(int bands, int rows, double threshold) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Bands and rows must be positive");
+        }
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException("Threshold must be between 0 and 1");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.threshold = threshold;
+        // Fixed seeds keep signatures comparable across restarts
+        SplittableRandom random = new SplittableRandom(47);
+        this.seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+    
+    /**
+     * Loads existing tickets, typically the repository's contents at startup.
+     * 
+     * @param tickets The tickets to index
+     */
+    public synchronized void load(Collection<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            index(ticket);
+        }
+    }
+    
+    @Override
+    public synchronized void onTicketCreated(Ticket ticket) {
+        index(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketUpdated(Ticket ticket) {
+        index(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketDeleted(Ticket ticket) {
+        TicketSignature previous = signatures.remove(ticket.getId());
+        if (previous != null && previous.open) {
+            unbucket(ticket.getId(), previous.values);
+        }
+    }
+    
+    /**
+     * Finds open tickets that are near duplicates of a ticket.
+     * 
+     * @param ticketId The ID of the ticket to compare against
+     * @param limit The maximum number of matches
+     * @return Matching open tickets other than the ticket itself, most similar first
+     */
+    public synchronized List<Match> findSimilarOpenTickets(Long ticketId, int limit) {
+        TicketSignature signature = signatures.get(ticketId);
+        if (signature == null) {
+            return new ArrayList<>();
+        }
+        return findSimilar(signature.values, ticketId, limit);
+    }
+    
+    /**
+     * Finds open tickets that are near duplicates of the given text, for
+     * example a ticket that is still being written.
+     * 
+     * @param title The title to compare against
+     * @param description The description to compare against, or null
+     * @param limit The maximum number of matches
+     * @return Matching open tickets, most similar first
+     */
+    public synchronized List<Match> findSimilarOpenTickets(String title, String description, int limit) {
+        long[] values = sign(title, description);
+        if (values == null) {
+            return new ArrayList<>();
+        }
+        return findSimilar(values, null, limit);
+    }
+    
+    private List<Match> findSimilar(long[] values, Long excludedId, int limit) {
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < bands; band++) {
+            Set<Long> bucket = buckets.get(band).get(bandKey(values, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        candidates.remove(excludedId);
+        
+        List<Match> matches = new ArrayList<>();
+        for (Long candidate : candidates) {
+            long[] other = signatures.get(candidate).values;
+            int agreeing = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == other[i]) {
+                    agreeing++;
+                }
+            }
+            double similarity = (double) agreeing / values.length;
+            if (similarity >= threshold) {
+                matches.add(new Match(candidate, similarity));
+            }
+        }
+        matches.sort((a, b) -> a.similarity != b.similarity
+                ? Double.compare(b.similarity, a.similarity) : Long.compare(a.ticketId, b.ticketId));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, Math.max(0, limit))) : matches;
+    }
+    
+    /**
+     * Recomputes a ticket's signature if its text changed, and files or
+     * removes it according to whether it is open.
+     */
+    private void index(Ticket ticket) {
+        Long id = ticket.getId();
+        if (id == null) {
+            return;
+        }
+        int textHash = Objects.hash(ticket.getTitle(), ticket.getDescription());
+        boolean open = isOpen(ticket.getStatus());
+        TicketSignature previous = signatures.get(id);
+        if (previous != null && previous.textHash == textHash && previous.open == open) {
+            return;
+        }
+        if (previous != null && previous.open) {
+            unbucket(id, previous.values);
+        }
+        
+        long[] values = previous != null && previous.textHash == textHash
+                ? previous.values : sign(ticket.getTitle(), ticket.getDescription());
+        if (values == null) {
+            signatures.remove(id);
+            return;
+        }
+        signatures.put(id, new TicketSignature(values, textHash, open));
+        if (open) {
+            for (int band = 0; band < bands; band++) {
+                buckets.get(band).computeIfAbsent(bandKey(values, band), key -> new HashSet<>()).add(id);
+            }
+        }
+    }
+    
+    private void unbucket(Long id, long[] values) {
+        for (int band = 0; band < bands; band++) {
+            Map<Long, Set<Long>> bandBuckets = buckets.get(band);
+            long key = bandKey(values, band);
+            Set<Long> bucket = bandBuckets.get(key);
+            if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+                bandBuckets.remove(key);
+            }
+        }
+    }
+    
+    /**
+     * Computes the MinHash signature of a ticket's text.
+     * 
+     * @return The signature, or null if the text has no words to compare
+     */
+    private long[] sign(String title, String description) {
+        Set<Long> shingles = shingles(title, description);
+        if (shingles.isEmpty()) {
+            return null;
+        }
+        long[] values = new long[seeds.length];
+        Arrays.fill(values, Long.MAX_VALUE);
+        for (long shingle : shingles) {
+            for (int i = 0; i < seeds.length; i++) {
+                values[i] = Math.min(values[i], mix(shingle ^ seeds[i]));
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * Hashes the words and adjacent word pairs of a ticket's text, ignoring
+     * case, accents and common words.
+     */
+    private static Set<Long> shingles(String title, String description) {
+        String text = (title == null ? "" : title) + " " + (description == null ? "" : description);
+        Set<Long> shingles = new HashSet<>();
+        long previous = 0;
+        boolean hasPrevious = false;
+        for (String word : TextAnalyzer.terms(text)) {
+            long hash = hash(word);
+            shingles.add(hash);
+            if (hasPrevious) {
+                shingles.add(mix(previous * 31 + hash));
+            }
+            previous = hash;
+            hasPrevious = true;
+        }
+        return shingles;
+    }
+    
+    private long bandKey(long[] values, int band) {
+        long key = band;
+        for (int row = 0; row < rows; row++) {
+            key = mix(key * 31 + values[band * rows + row]);
+        }
+        return key;
+    }
+    
+    private static boolean isOpen(TicketStatus status) {
+        return status == TicketStatus.NEW || status == TicketStatus.IN_PROGRESS || status == TicketStatus.PENDING;
+    }
+    
+    private static long hash(String word) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : word.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    /**
+     * MurmurHash3 finalizer: spreads every input bit over the whole output.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+    
+    /**
+     * The signature of a ticket's text, with enough state to tell when it must change.
+     */
+    private static final class TicketSignature {
+        
+        private final long[] values;
+        private final int textHash;
+        private final boolean open;
+        
+        private TicketSignature(long[] values, int textHash, boolean open) {
+            this.values = values;
+            this.textHash = textHash;
+            this.open = open;
+        }
+    }
+    
+    /**
+     * An open ticket similar to the query.
+     */
+    public static final class Match {
+        
+        private final long ticketId;
+        private final double similarity;
+        
+        private Match(long ticketId, double similarity) {
+            this.ticketId = ticketId;
+            this.similarity = similarity;
+        }
+        
+        /**
+         * Gets the ID of the similar ticket.
+         * 
+         * @return The ticket ID
+         */
+        public long getTicketId() {
+            return ticketId;
+        }
+        
+        /**
+         * Gets the estimated Jaccard similarity of the two tickets' words.
+         * 
+         * @return The similarity, between 0 and 1
+         */
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import java.util.Arrays;
+
+/**
+ * The tickets containing one term, in ascending ID order, with the term's
+ * weighted frequency in each. Ticket IDs grow over time, so new tickets are
+ * appended at the end. The largest frequency ever added is kept as an upper
+ * bound for early termination; removals leave it unchanged, which keeps it a
+ * valid, if looser, bound.
+ * 
+ * Not thread-safe; callers synchronize externally.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+final class PostingList {
+    
+    private long[] ids = new long[4];
+    private float[] frequencies = new float[4];
+    private int size;
+    private float maxFrequency;
+    
+    /**
+     * Sets the frequency of the term in a ticket, adding the ticket if needed.
+     * 
+     * @param id The ticket ID
+     * @param frequency The weighted term frequency
+     */
+    void put(long id, float frequency) {
+        maxFrequency = Math.max(maxFrequency, frequency);
+        if (size > 0 && ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size] = id;
+            frequencies[size] = frequency;
+            size++;
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            frequencies[index] = frequency;
+            return;
+        }
+        int insertion = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+        System.arraycopy(frequencies, insertion, frequencies, insertion + 1, size - insertion);
+        ids[insertion] = id;
+        frequencies[insertion] = frequency;
+        size++;
+    }
+    
+    /**
+     * Removes a ticket.
+     * 
+     * @param id The ticket ID
+     */
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+        size--;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    float getMaxFrequency() {
+        return maxFrequency;
+    }
+    
+    Cursor cursor() {
+        return new Cursor();
+    }
+    
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            frequencies = Arrays.copyOf(frequencies, size * 2);
+        }
+    }
+    
+    /**
+     * A forward-only position in the list.
+     */
+    final class Cursor {
+        
+        private int index;
+        
+        /**
+         * Gets the ticket at the cursor.
+         * 
+         * @return The ticket ID, or Long.MAX_VALUE once the cursor is exhausted
+         */
+        long id() {
+            return index < size ? ids[index] : Long.MAX_VALUE;
+        }
+        
+        float frequency() {
+            return frequencies[index];
+        }
+        
+        void next() {
+            index++;
+        }
+        
+        /**
+         * Moves to the first ticket with an ID of at least the target, galloping
+         * ahead before a binary search so that short skips stay cheap.
+         * 
+         * @param target The ticket ID to move to
+         */
+        void advance(long target) {
+            if (id() >= target) {
+                return;
+            }
+            int step = 1;
+            int low = index;
+            int high = index + 1;
+            while (high < size && ids[high] < target) {
+                low = high;
+                step <<= 1;
+                high = index + step;
+            }
+            int found = Arrays.binarySearch(ids, low, Math.min(high + 1, size), target);
+            index = found >= 0 ? found : -found - 1;
+        }
+    }
+}
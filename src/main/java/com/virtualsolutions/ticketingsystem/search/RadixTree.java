@@ -0,0 +1,260 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Path-compressed prefix tree from string keys to IDs ranked by recency.
+ * Chains of single-child nodes are merged into one edge, so the tree has at
+ * most two nodes per key however long the keys are. Every node also records
+ * the highest recency anywhere below it, which lets a completion visit the
+ * subtree best-first and stop as soon as it has enough results: answering a
+ * prefix costs roughly the prefix length plus the number of results, not the
+ * number of keys sharing the prefix.
+ * 
+ * Not thread-safe; callers synchronize externally.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class RadixTree {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    
+    private final Node root = new Node("");
+    
+    /**
+     * Files an ID under a key.
+     * 
+     * @param key The key
+     * @param id The ID
+     * @param recency The ID's recency; higher values complete first
+     */
+    void put(String key, long id, long recency) {
+        Node node = root;
+        node.best = Math.max(node.best, recency);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.child(key.charAt(position));
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.addChild(child);
+                position = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, position);
+                if (common < child.label.length()) {
+                    // Split the edge where the key leaves it
+                    Node middle = new Node(child.label.substring(0, common));
+                    node.replaceChild(middle);
+                    child.label = child.label.substring(common);
+                    middle.addChild(child);
+                    middle.best = child.best;
+                    child = middle;
+                }
+                position += common;
+            }
+            child.best = Math.max(child.best, recency);
+            node = child;
+        }
+        if (node.entries == null) {
+            node.entries = new HashMap<>(2);
+        }
+        node.entries.put(id, recency);
+    }
+    
+    /**
+     * Removes an ID from a key, merging or pruning nodes left redundant.
+     * 
+     * @param key The key
+     * @param id The ID
+     */
+    void remove(String key, long id) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int position = 0;
+        while (position < key.length()) {
+            node = node.child(key.charAt(position));
+            if (node == null || !key.startsWith(node.label, position)) {
+                return;
+            }
+            path.add(node);
+            position += node.label.length();
+        }
+        if (node.entries == null || node.entries.remove(id) == null) {
+            return;
+        }
+        if (node.entries.isEmpty()) {
+            node.entries = null;
+        }
+        
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.entries == null && current.size == 0) {
+                parent.removeChild(current.label.charAt(0));
+            } else if (current.entries == null && current.size == 1) {
+                Node only = current.children[0];
+                only.label = current.label + only.label;
+                parent.replaceChild(only);
+            } else {
+                current.updateBest();
+            }
+        }
+        root.updateBest();
+    }
+    
+    /**
+     * Finds the most recent IDs filed under keys starting with a prefix.
+     * 
+     * @param prefix The prefix
+     * @param limit The maximum number of IDs to return
+     * @return Distinct IDs, most recent first
+     */
+    List<Long> complete(String prefix, int limit) {
+        Node node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            Node child = node.child(prefix.charAt(position));
+            if (child == null) {
+                return new ArrayList<>();
+            }
+            int common = commonPrefix(child.label, prefix, position);
+            if (common < child.label.length() && position + common < prefix.length()) {
+                return new ArrayList<>();
+            }
+            position += common;
+            node = child;
+        }
+        
+        Set<Long> results = new LinkedHashSet<>();
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        if (node.best != EMPTY) {
+            candidates.add(new Candidate(node.best, 0, node));
+        }
+        while (!candidates.isEmpty() && results.size() < limit) {
+            Candidate candidate = candidates.poll();
+            if (candidate.node == null) {
+                results.add(candidate.id);
+                continue;
+            }
+            Node current = candidate.node;
+            if (current.entries != null) {
+                for (Map.Entry<Long, Long> entry : current.entries.entrySet()) {
+                    candidates.add(new Candidate(entry.getValue(), entry.getKey(), null));
+                }
+            }
+            for (int i = 0; i < current.size; i++) {
+                candidates.add(new Candidate(current.children[i].best, 0, current.children[i]));
+            }
+        }
+        return new ArrayList<>(results);
+    }
+    
+    private static int commonPrefix(String label, String key, int position) {
+        int length = Math.min(label.length(), key.length() - position);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(position + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    /**
+     * A node reached by the edge label from its parent.
+     */
+    private static final class Node {
+        
+        private String label;
+        private Node[] children = new Node[0];
+        private int size;
+        private Map<Long, Long> entries;
+        private long best = EMPTY;
+        
+        private Node(String label) {
+            this.label = label;
+        }
+        
+        Node child(char first) {
+            for (int i = 0; i < size; i++) {
+                if (children[i].label.charAt(0) == first) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        
+        void addChild(Node child) {
+            if (size == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, size * 2));
+            }
+            children[size++] = child;
+        }
+        
+        void replaceChild(Node child) {
+            for (int i = 0; i < size; i++) {
+                if (children[i].label.charAt(0) == child.label.charAt(0)) {
+                    children[i] = child;
+                    return;
+                }
+            }
+        }
+        
+        void removeChild(char first) {
+            for (int i = 0; i < size; i++) {
+                if (children[i].label.charAt(0) == first) {
+                    children[i] = children[--size];
+                    children[size] = null;
+                    return;
+                }
+            }
+        }
+        
+        void updateBest() {
+            best = EMPTY;
+            if (entries != null) {
+                for (long recency : entries.values()) {
+                    best = Math.max(best, recency);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                best = Math.max(best, children[i].best);
+            }
+        }
+    }
+    
+    /**
+     * A subtree or a single ID waiting to be visited, most recent first.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        
+        private final long recency;
+        private final long id;
+        private final Node node;
+        
+        private Candidate(long recency, long id, Node node) {
+            this.recency = recency;
+            this.id = id;
+            this.node = node;
+        }
+        
+        @Override
+        public int compareTo(Candidate other) {
+            int byRecency = Long.compare(other.recency, recency);
+            if (byRecency != 0) {
+                return byRecency;
+            }
+            // Expand subtrees before emitting IDs of equal recency, then prefer lower IDs
+            if ((node == null) != (other.node == null)) {
+                return node != null ? -1 : 1;
+            }
+            return Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits ticket text into the terms the search indexes work with: words
+ * lowercased, with accents removed and common words dropped.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+final class TextAnalyzer {
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "can", "cannot", "for", "from", "has",
+            "have", "i", "in", "is", "it", "its", "me", "my", "not", "of", "on", "or", "our", "please",
+            "so", "that", "the", "this", "to", "was", "we", "with", "you", "your");
+    
+    private TextAnalyzer() {
+    }
+    
+    /**
+     * Splits text into terms.
+     * 
+     * @param text The text to split, or null
+     * @return The terms in the order they appear, including repeats
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase();
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,113 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Counts of the tickets matching a search, broken down by status, priority,
+ * category and assigned agent, for drilling into a result set. Counts cover
+ * every match, not only the page of results returned.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketFacets {
+    
+    /** Marks an absent category or agent ID. */
+    static final long NO_ID = Long.MIN_VALUE;
+    
+    private long total;
+    private final Map<TicketStatus, Long> statusCounts = new EnumMap<>(TicketStatus.class);
+    private final Map<TicketPriority, Long> priorityCounts = new EnumMap<>(TicketPriority.class);
+    private final Map<Long, Long> categoryCounts = new HashMap<>();
+    private final Map<Long, Long> agentCounts = new HashMap<>();
+    
+    /**
+     * Counts a collection of tickets in one pass.
+     * 
+     * @param tickets The matching tickets
+     * @return The counts
+     */
+    public static TicketFacets of(Collection<Ticket> tickets) {
+        TicketFacets facets = new TicketFacets();
+        for (Ticket ticket : tickets) {
+            facets.add(ticket.getStatus(), ticket.getPriority(),
+                    ticket.getCategory() == null || ticket.getCategory().getId() == null
+                            ? NO_ID : ticket.getCategory().getId(),
+                    ticket.getAssignedAgent() == null || ticket.getAssignedAgent().getId() == null
+                            ? NO_ID : ticket.getAssignedAgent().getId());
+        }
+        return facets;
+    }
+    
+    /**
+     * Counts one matching ticket.
+     */
+    void add(TicketStatus status, TicketPriority priority, long categoryId, long agentId) {
+        total++;
+        if (status != null) {
+            statusCounts.merge(status, 1L, Long::sum);
+        }
+        if (priority != null) {
+            priorityCounts.merge(priority, 1L, Long::sum);
+        }
+        if (categoryId != NO_ID) {
+            categoryCounts.merge(categoryId, 1L, Long::sum);
+        }
+        if (agentId != NO_ID) {
+            agentCounts.merge(agentId, 1L, Long::sum);
+        }
+    }
+    
+    /**
+     * Gets the number of matching tickets.
+     * 
+     * @return The total match count
+     */
+    public long getTotal() {
+        return total;
+    }
+    
+    /**
+     * Gets the number of matching tickets per status.
+     * 
+     * @return A map from status to count, in status order, without zero counts
+     */
+    public Map<TicketStatus, Long> getStatusCounts() {
+        return statusCounts;
+    }
+    
+    /**
+     * Gets the number of matching tickets per priority.
+     * 
+     * @return A map from priority to count, in priority order, without zero counts
+     */
+    public Map<TicketPriority, Long> getPriorityCounts() {
+        return priorityCounts;
+    }
+    
+    /**
+     * Gets the number of matching tickets per category.
+     * 
+     * @return A map from category ID to count
+     */
+    public Map<Long, Long> getCategoryCounts() {
+        return categoryCounts;
+    }
+    
+    /**
+     * Gets the number of matching tickets per assigned agent. Unassigned
+     * tickets are not included; they make up the difference to the total.
+     * 
+     * @return A map from agent ID to count
+     */
+    public Map<Long, Long> getAgentCounts() {
+        return agentCounts;
+    }
+}
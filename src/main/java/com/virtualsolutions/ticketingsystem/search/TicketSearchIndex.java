@@ -0,0 +1,522 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import com.virtualsolutions.ticketingsystem.model.Comment;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
+
+/**
+ * Full-text index over ticket titles, descriptions and comments, ranked by
+ * BM25 relevance.
+ * 
+ * Each term maps to a {@link PostingList} of the tickets containing it. A
+ * title word counts twice as much as a word in the description or comments.
+ * Scores can be boosted by priority and by how recently the ticket was
+ * updated. Boosts multiply the BM25 score, so a highly relevant old ticket
+ * still beats a barely relevant new one.
+ * 
+ * Top-k queries use WAND. Every term has an upper bound on the score it can
+ * add to any ticket. The query keeps the score of the k-th best ticket so far
+ * as a threshold. The cursors are walked in ticket order, and the walk skips
+ * past tickets whose terms' bounds cannot add up to the threshold. Broad
+ * queries therefore score only a small share of their postings.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketSearchIndex implements TicketChangeListener {
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final Duration DEFAULT_RECENCY_HALF_LIFE = Duration.ofDays(7);
+    // Largest recency boost, given to a ticket updated just now
+    private static final double MAX_RECENCY_BOOST = 1.5;
+    private static final double[] PRIORITY_BOOSTS = {1.0, 1.1, 1.25, 1.5};
+    // Orders hits from least to most relevant; ties favor the lower ID, which cursors reach first
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::getScore)
+            .thenComparing(Hit::getTicketId, Comparator.reverseOrder());
+    
+    private final Clock clock;
+    private final boolean priorityBoost;
+    private final Duration recencyHalfLife;
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private double totalLength;
+    
+    /**
+     * Creates an index with priority boosting and a seven-day recency half-life.
+     */
+    public TicketSearchIndex() {
+        this(Clock.systemDefaultZone(), true, DEFAULT_RECENCY_HALF_LIFE);
+    }
+    
+    /**
+     * Creates an index.
+     * 
+     * @param clock The clock used to compute ticket ages
+     * @param priorityBoost Whether higher-priority tickets rank higher
+     * @param recencyHalfLife The age at which the recency boost has halved, or null for no recency boost
+     */
+    public TicketSearchIndex(Clock clock, boolean priorityBoost, Duration recencyHalfLife) {
+        this.clock = clock;
+        this.priorityBoost = priorityBoost;
+        this.recencyHalfLife = recencyHalfLife;
+    }
+    
+    /**
+     * Loads existing tickets, typically the repository's contents at startup.
+     * 
+     * @param tickets The tickets to index
+     */
+    public synchronized void load(Collection<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            index(ticket);
+        }
+    }
+    
+    @Override
+    public synchronized void onTicketCreated(Ticket ticket) {
+        index(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketUpdated(Ticket ticket) {
+        index(ticket);
+    }
+    
+    @Override
+    public synchronized void onTicketDeleted(Ticket ticket) {
+        Document document = documents.remove(ticket.getId());
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms.keySet()) {
+            removePosting(term, ticket.getId());
+        }
+        totalLength -= document.length;
+    }
+    
+    /**
+     * Finds the tickets most relevant to a query. A ticket matches if it
+     * contains any of the query's terms. Null filter arguments match any value.
+     * 
+     * @param query The words to search for
+     * @param status The status to filter by, or null
+     * @param priority The priority to filter by, or null
+     * @param categoryId The category ID to filter by, or null
+     * @param agentId The assigned agent ID to filter by, or null
+     * @param customerId The customer ID to filter by, or null
+     * @param limit The maximum number of results
+     * @return The best matches, most relevant first
+     */
+    public synchronized List<Hit> search(String query, TicketStatus status, TicketPriority priority,
+                                         Long categoryId, Long agentId, Long customerId, int limit) {
+        if (limit <= 0 || documents.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        double averageLength = totalLength / documents.size();
+        Predicate<Document> filter = compileFilter(status, priority, categoryId, agentId, customerId);
+        List<TermCursor> cursors = openCursors(TextAnalyzer.terms(query));
+        long now = LocalDateTime.now(clock).toEpochSecond(ZoneOffset.UTC);
+        PriorityQueue<Hit> best = new PriorityQueue<>(WORST_FIRST);
+        Comparator<TermCursor> byTicket = Comparator.comparingLong(cursor -> cursor.postings.id());
+        while (true) {
+            cursors.removeIf(cursor -> cursor.postings.id() == Long.MAX_VALUE);
+            cursors.sort(byTicket);
+            double threshold = best.size() < limit ? 0 : best.peek().getScore();
+            
+            // The pivot is the first ticket whose preceding cursors could together beat the threshold
+            int pivot = -1;
+            double bounds = 0;
+            for (int i = 0; i < cursors.size(); i++) {
+                bounds += cursors.get(i).bound;
+                if (bounds > threshold) {
+                    pivot = i;
+                    break;
+                }
+            }
+            if (pivot < 0) {
+                break;
+            }
+            long pivotId = cursors.get(pivot).postings.id();
+            
+            if (cursors.get(0).postings.id() != pivotId) {
+                // No ticket before the pivot can make the top k
+                for (int i = 0; i < pivot; i++) {
+                    cursors.get(i).postings.advance(pivotId);
+                }
+                continue;
+            }
+            
+            Document document = documents.get(pivotId);
+            if (filter.test(document)) {
+                offer(best, limit, new Hit(pivotId, score(cursors, pivotId, document, averageLength, now)));
+            }
+            advancePast(cursors, pivotId);
+        }
+        return ranked(best);
+    }
+    
+    /**
+     * Finds the tickets most relevant to a query and counts every matching
+     * ticket by status, priority, category and agent in the same pass. Unlike
+     * {@link #search}, this visits every matching posting, since each match
+     * must be counted; tickets that cannot make the top k are still not
+     * scored. Without a query, every ticket passing the filters matches and the
+     * results are ranked by their priority and recency boosts alone; a query
+     * made up only of stop words matches nothing, as in {@link #search}.
+     * 
+     * @param query The words to search for, or null or blank to match every ticket
+     * @param status The status to filter by, or null
+     * @param priority The priority to filter by, or null
+     * @param categoryId The category ID to filter by, or null
+     * @param agentId The assigned agent ID to filter by, or null
+     * @param customerId The customer ID to filter by, or null
+     * @param limit The maximum number of results
+     * @return The best matches, most relevant first, with counts over all matches
+     */
+    public synchronized FacetedHits searchWithFacets(String query, TicketStatus status, TicketPriority priority,
+                                                     Long categoryId, Long agentId, Long customerId, int limit) {
+        TicketFacets facets = new TicketFacets();
+        PriorityQueue<Hit> best = new PriorityQueue<>(WORST_FIRST);
+        long now = LocalDateTime.now(clock).toEpochSecond(ZoneOffset.UTC);
+        Predicate<Document> filter = compileFilter(status, priority, categoryId, agentId, customerId);
+        
+        if (query == null || query.isBlank()) {
+            for (Map.Entry<Long, Document> entry : documents.entrySet()) {
+                Document document = entry.getValue();
+                if (filter.test(document)) {
+                    facets.add(document.status, document.priority, document.categoryId, document.agentId);
+                    offer(best, limit, new Hit(entry.getKey(), boost(document, now)));
+                }
+            }
+            return new FacetedHits(ranked(best), facets);
+        }
+        
+        double averageLength = documents.isEmpty() ? 0 : totalLength / documents.size();
+        List<TermCursor> cursors = openCursors(TextAnalyzer.terms(query));
+        while (true) {
+            long id = Long.MAX_VALUE;
+            for (TermCursor cursor : cursors) {
+                id = Math.min(id, cursor.postings.id());
+            }
+            if (id == Long.MAX_VALUE) {
+                break;
+            }
+            
+            Document document = documents.get(id);
+            if (filter.test(document)) {
+                facets.add(document.status, document.priority, document.categoryId, document.agentId);
+                if (limit <= 0) {
+                    // Counting facets only
+                    advancePast(cursors, id);
+                    continue;
+                }
+                double bounds = 0;
+                for (TermCursor cursor : cursors) {
+                    if (cursor.postings.id() == id) {
+                        bounds += cursor.bound;
+                    }
+                }
+                if (best.size() < limit || bounds > best.peek().getScore()) {
+                    offer(best, limit, new Hit(id, score(cursors, id, document, averageLength, now)));
+                }
+            }
+            advancePast(cursors, id);
+        }
+        return new FacetedHits(ranked(best), facets);
+    }
+    
+    /**
+     * Opens a cursor for each distinct query term present in the index, with
+     * the most the term can add to any ticket's boosted score.
+     */
+    private List<TermCursor> openCursors(List<String> terms) {
+        double maxBoost = (priorityBoost ? PRIORITY_BOOSTS[PRIORITY_BOOSTS.length - 1] : 1.0)
+                * (recencyHalfLife != null ? MAX_RECENCY_BOOST : 1.0);
+        List<TermCursor> cursors = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                double idf = idf(list.size());
+                // The tf component is largest for the most frequent occurrence in the shortest possible ticket
+                double maxFrequency = list.getMaxFrequency();
+                double bound = idf * maxFrequency * (K1 + 1) / (maxFrequency + K1 * (1 - B)) * maxBoost;
+                cursors.add(new TermCursor(list.cursor(), idf, bound));
+            }
+        }
+        return cursors;
+    }
+    
+    /**
+     * Moves every cursor positioned on a ticket to its next posting.
+     */
+    private static void advancePast(List<TermCursor> cursors, long id) {
+        for (TermCursor cursor : cursors) {
+            if (cursor.postings.id() == id) {
+                cursor.postings.next();
+            }
+        }
+    }
+    
+    /**
+     * Computes the boosted BM25 score of a ticket from the cursors positioned on it.
+     */
+    private double score(List<TermCursor> cursors, long id, Document document, double averageLength, long now) {
+        double norm = K1 * (1 - B + B * document.length / averageLength);
+        double score = 0;
+        for (TermCursor cursor : cursors) {
+            if (cursor.postings.id() == id) {
+                double frequency = cursor.postings.frequency();
+                score += cursor.idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+        return score * boost(document, now);
+    }
+    
+    private static void offer(PriorityQueue<Hit> best, int limit, Hit hit) {
+        if (limit <= 0) {
+            return;
+        }
+        if (best.size() < limit) {
+            best.add(hit);
+        } else if (WORST_FIRST.compare(hit, best.peek()) > 0) {
+            best.poll();
+            best.add(hit);
+        }
+    }
+    
+    private static List<Hit> ranked(PriorityQueue<Hit> best) {
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(WORST_FIRST.reversed());
+        return hits;
+    }
+    
+    private double boost(Document document, long now) {
+        double boost = 1.0;
+        if (priorityBoost && document.priority != null) {
+            boost *= PRIORITY_BOOSTS[Math.min(document.priority.ordinal(), PRIORITY_BOOSTS.length - 1)];
+        }
+        if (recencyHalfLife != null) {
+            double age = Math.max(0, now - document.updatedAt);
+            boost *= 1 + (MAX_RECENCY_BOOST - 1) * Math.pow(0.5, age / recencyHalfLife.getSeconds());
+        }
+        return boost;
+    }
+    
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+    
+    /**
+     * Indexes a ticket, touching only the postings of terms whose frequency changed.
+     */
+    private void index(Ticket ticket) {
+        Long id = ticket.getId();
+        if (id == null) {
+            return;
+        }
+        Map<String, Float> terms = new HashMap<>();
+        float length = 0;
+        for (String term : TextAnalyzer.terms(ticket.getTitle())) {
+            terms.merge(term, TITLE_WEIGHT, Float::sum);
+            length += TITLE_WEIGHT;
+        }
+        List<String> bodyTerms = new ArrayList<>(TextAnalyzer.terms(ticket.getDescription()));
+        if (ticket.getComments() != null) {
+            for (Comment comment : ticket.getComments()) {
+                bodyTerms.addAll(TextAnalyzer.terms(comment.getContent()));
+            }
+        }
+        for (String term : bodyTerms) {
+            terms.merge(term, 1.0f, Float::sum);
+            length += 1.0f;
+        }
+        
+        Document previous = documents.put(id, new Document(ticket, terms, length));
+        if (previous != null) {
+            totalLength -= previous.length;
+            for (String term : previous.terms.keySet()) {
+                if (!terms.containsKey(term)) {
+                    removePosting(term, id);
+                }
+            }
+        }
+        totalLength += length;
+        for (Map.Entry<String, Float> entry : terms.entrySet()) {
+            if (previous == null || !entry.getValue().equals(previous.terms.get(entry.getKey()))) {
+                postings.computeIfAbsent(entry.getKey(), key -> new PostingList()).put(id, entry.getValue());
+            }
+        }
+    }
+    
+    private void removePosting(String term, long id) {
+        PostingList list = postings.get(term);
+        if (list != null) {
+            list.remove(id);
+            if (list.size() == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+    
+    /**
+     * A posting list cursor for one query term with its score bound.
+     */
+    private static final class TermCursor {
+        
+        private final PostingList.Cursor postings;
+        private final double idf;
+        private final double bound;
+        
+        private TermCursor(PostingList.Cursor postings, double idf, double bound) {
+            this.postings = postings;
+            this.idf = idf;
+            this.bound = bound;
+        }
+    }
+    
+    /**
+     * Compiles the filters of a query once into a predicate over documents,
+     * leaving out absent filters and unboxing IDs up front, so the scan loop
+     * runs only the comparisons the query asked for.
+     */
+    private static Predicate<Document> compileFilter(TicketStatus status, TicketPriority priority,
+                                                     Long categoryId, Long agentId, Long customerId) {
+        List<Predicate<Document>> tests = new ArrayList<>();
+        if (status != null) {
+            tests.add(document -> document.status == status);
+        }
+        if (priority != null) {
+            tests.add(document -> document.priority == priority);
+        }
+        if (categoryId != null) {
+            long category = categoryId;
+            tests.add(document -> document.categoryId == category);
+        }
+        if (agentId != null) {
+            long agent = agentId;
+            tests.add(document -> document.agentId == agent);
+        }
+        if (customerId != null) {
+            long customer = customerId;
+            tests.add(document -> document.customerId == customer);
+        }
+        Predicate<Document> filter = tests.isEmpty() ? document -> true : tests.get(0);
+        for (int i = 1; i < tests.size(); i++) {
+            filter = filter.and(tests.get(i));
+        }
+        return filter;
+    }
+    
+    /**
+     * The indexed terms of a ticket with the fields used for filtering and boosting.
+     */
+    private static final class Document {
+        
+        private final Map<String, Float> terms;
+        private final float length;
+        private final TicketStatus status;
+        private final TicketPriority priority;
+        private final long categoryId;
+        private final long agentId;
+        private final long customerId;
+        private final long updatedAt;
+        
+        private Document(Ticket ticket, Map<String, Float> terms, float length) {
+            this.terms = terms;
+            this.length = length;
+            this.status = ticket.getStatus();
+            this.priority = ticket.getPriority();
+            this.categoryId = ticket.getCategory() == null || ticket.getCategory().getId() == null
+                    ? TicketFacets.NO_ID : ticket.getCategory().getId();
+            this.agentId = ticket.getAssignedAgent() == null || ticket.getAssignedAgent().getId() == null
+                    ? TicketFacets.NO_ID : ticket.getAssignedAgent().getId();
+            this.customerId = ticket.getCustomer() == null || ticket.getCustomer().getId() == null
+                    ? TicketFacets.NO_ID : ticket.getCustomer().getId();
+            LocalDateTime touched = ticket.getUpdatedAt() != null ? ticket.getUpdatedAt() : ticket.getCreatedAt();
+            this.updatedAt = touched == null ? 0L : touched.toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+    
+    /**
+     * A ticket matching a query, with its relevance score.
+     */
+    public static final class Hit {
+        
+        private final long ticketId;
+        private final double score;
+        
+        private Hit(long ticketId, double score) {
+            this.ticketId = ticketId;
+            this.score = score;
+        }
+        
+        /**
+         * Gets the ID of the matching ticket.
+         * 
+         * @return The ticket ID
+         */
+        public long getTicketId() {
+            return ticketId;
+        }
+        
+        /**
+         * Gets the ticket's relevance score. Scores only compare within one query.
+         * 
+         * @return The score
+         */
+        public double getScore() {
+            return score;
+        }
+    }
+    
+    /**
+     * The best matches of a query with counts over all of its matches.
+     */
+    public static final class FacetedHits {
+        
+        private final List<Hit> hits;
+        private final TicketFacets facets;
+        
+        private FacetedHits(List<Hit> hits, TicketFacets facets) {
+            this.hits = hits;
+            this.facets = facets;
+        }
+        
+        /**
+         * Gets the best matches.
+         * 
+         * @return The hits, most relevant first
+         */
+        public List<Hit> getHits() {
+            return hits;
+        }
+        
+        /**
+         * Gets the counts over all matches.
+         * 
+         * @return The facet counts
+         */
+        public TicketFacets getFacets() {
+            return facets;
+        }
+    }
+}
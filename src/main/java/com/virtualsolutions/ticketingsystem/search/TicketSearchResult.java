@@ -0,0 +1,48 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import java.util.List;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+
+/**
+ * A page of ticket search results together with facet counts over every
+ * matching ticket, so one search call serves both the result list and the
+ * drill-down counts.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public class TicketSearchResult {
+    
+    private final List<Ticket> tickets;
+    private final TicketFacets facets;
+    
+    /**
+     * Creates a search result.
+     * 
+     * @param tickets The page of tickets, in result order
+     * @param facets The counts over all matching tickets
+     */
+    public TicketSearchResult(List<Ticket> tickets, TicketFacets facets) {
+        this.tickets = tickets;
+        this.facets = facets;
+    }
+    
+    /**
+     * Gets the page of tickets.
+     * 
+     * @return The tickets, in result order
+     */
+    public List<Ticket> getTickets() {
+        return tickets;
+    }
+    
+    /**
+     * Gets the counts over all matching tickets.
+     * 
+     * @return The facet counts
+     */
+    public TicketFacets getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,38 @@
+package com.virtualsolutions.ticketingsystem.service;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+
+/**
+ * Listener notified by the customer service after each customer mutation is stored.
+ * Notifications are delivered synchronously on the thread that made the change,
+ * so listeners observe changes in the same order as the repository.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public interface CustomerChangeListener {
+    
+    /**
+     * Called after a new customer has been saved.
+     * 
+     * @param customer The created customer
+     */
+    default void onCustomerCreated(Customer customer) {
+    }
+    
+    /**
+     * Called after an existing customer has been updated.
+     * 
+     * @param customer The updated customer
+     */
+    default void onCustomerUpdated(Customer customer) {
+    }
+    
+    /**
+     * Called after a customer has been deleted.
+     * 
+     * @param customer The customer as it was before deletion
+     */
+    default void onCustomerDeleted(Customer customer) {
+    }
+}
@@ -54,13 +54,24 @@ public interface CustomerService {
     boolean deleteCustomer(Long id);
     
     /**
-     * Searches for customers by their name (partial match).
+     * Searches for customers by their name. Customers whose names contain the
+     * given name come first, followed by customers whose names sound like it.
      * 
      * @param name The name to search for
      * @return A list of customers matching the name
      */
     List<Customer> searchCustomersByName(String name);
     
+    /**
+     * Searches for customers whose names closely match the given name,
+     * tolerating misspellings.
+     * 
+     * @param name The name to search for
+     * @param maxDistance The most edits allowed per word of the name
+     * @return A list of matching customers, closest match first
+     */
+    List<Customer> searchCustomersByNameFuzzy(String name, int maxDistance);
+    
     /**
      * Gets a customer by their email address.
      * 
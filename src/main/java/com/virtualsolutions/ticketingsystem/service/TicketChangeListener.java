@@ -0,0 +1,42 @@
+package com.virtualsolutions.ticketingsystem.service;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+
+/**
+ * Listener notified by the ticket service after each ticket mutation is stored.
+ * Notifications are delivered synchronously on the thread that made the change.
+ * The service does not serialize changes made on different threads, so
+ * listeners see changes in repository order only while a single thread makes
+ * them; a listener that may be notified from several threads must synchronize
+ * itself, and may observe concurrent changes in either order.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+public interface TicketChangeListener {
+    
+    /**
+     * Called after a new ticket has been saved.
+     * 
+     * @param ticket The created ticket
+     */
+    default void onTicketCreated(Ticket ticket) {
+    }
+    
+    /**
+     * Called after an existing ticket has been updated, whether through a full
+     * update, an assignment, a status or priority change, or a new comment.
+     * 
+     * @param ticket The updated ticket
+     */
+    default void onTicketUpdated(Ticket ticket) {
+    }
+    
+    /**
+     * Called after a ticket has been deleted.
+     * 
+     * @param ticket The ticket as it was before deletion
+     */
+    default void onTicketDeleted(Ticket ticket) {
+    }
+}
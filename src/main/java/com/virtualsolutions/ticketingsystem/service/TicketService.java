@@ -8,6 +8,7 @@ import com.virtualsolutions.ticketingsystem.model.Comment;
 import com.virtualsolutions.ticketingsystem.model.Ticket;
 import com.virtualsolutions.ticketingsystem.model.TicketPriority;
 import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+import com.virtualsolutions.ticketingsystem.search.TicketSearchResult;
 
 /**
  * Service interface for Ticket-related operations.
@@ -124,6 +125,27 @@ public interface TicketService {
      */
     Ticket assignTicket(Long ticketId, Long agentId);
     
+    /**
+     * Assigns a ticket to the least-loaded eligible agent chosen by the
+     * auto-assignment engine.
+     * 
+     * @param ticketId The ID of the ticket to assign
+     * @return The assigned ticket, or empty if no eligible agent is available
+     * @throws IllegalArgumentException if the ticket does not exist
+     * @throws IllegalStateException if automatic assignment is not enabled
+     */
+    Optional<Ticket> autoAssignTicket(Long ticketId);
+    
+    /**
+     * Assigns the best waiting ticket from the agent's dispatch queues to the agent.
+     * 
+     * @param agentId The ID of the agent pulling work
+     * @return The assigned ticket, or empty if no ticket is waiting for the agent
+     * @throws IllegalArgumentException if the agent does not exist
+     * @throws IllegalStateException if dispatch queues are not enabled
+     */
+    Optional<Ticket> assignNextTicket(Long agentId);
+    
     /**
      * Updates the status of a ticket.
      * 
@@ -167,4 +189,46 @@ public interface TicketService {
      */
     List<Ticket> searchTickets(String keyword, TicketStatus status, TicketPriority priority, 
                               Long categoryId, Long agentId, Long customerId);
+    
+    /**
+     * Searches for the tickets most relevant to a keyword query.
+     * 
+     * @param keyword The words to search for in title, description and comments
+     * @param status The status to filter by (optional)
+     * @param priority The priority to filter by (optional)
+     * @param categoryId The category ID to filter by (optional)
+     * @param agentId The agent ID to filter by (optional)
+     * @param customerId The customer ID to filter by (optional)
+     * @param limit The maximum number of tickets to return
+     * @return The best matching tickets, most relevant first
+     */
+    List<Ticket> searchTickets(String keyword, TicketStatus status, TicketPriority priority, 
+                              Long categoryId, Long agentId, Long customerId, int limit);
+    
+    /**
+     * Searches for the tickets most relevant to a keyword query and counts all
+     * matching tickets by status, priority, category and agent.
+     * 
+     * @param keyword The words to search for, or null to match every ticket passing the filters
+     * @param status The status to filter by (optional)
+     * @param priority The priority to filter by (optional)
+     * @param categoryId The category ID to filter by (optional)
+     * @param agentId The agent ID to filter by (optional)
+     * @param customerId The customer ID to filter by (optional)
+     * @param limit The maximum number of tickets to return
+     * @return The best matching tickets with facet counts over every match
+     */
+    TicketSearchResult searchTicketsWithFacets(String keyword, TicketStatus status, TicketPriority priority, 
+                                               Long categoryId, Long agentId, Long customerId, int limit);
+    
+    /**
+     * Finds open tickets that are near duplicates of a ticket, so they can be
+     * linked or merged.
+     * 
+     * @param ticketId The ID of the ticket to compare against
+     * @param limit The maximum number of tickets to return
+     * @return Similar open tickets, most similar first
+     * @throws IllegalStateException if duplicate detection is not enabled
+     */
+    List<Ticket> findSimilarOpenTickets(Long ticketId, int limit);
 }
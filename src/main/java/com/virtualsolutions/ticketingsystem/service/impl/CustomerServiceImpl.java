@@ -2,9 +2,14 @@ package com.virtualsolutions.ticketingsystem.service.impl;
 
 import com.virtualsolutions.ticketingsystem.model.Customer;
 import com.virtualsolutions.ticketingsystem.repository.CustomerRepository;
+import com.virtualsolutions.ticketingsystem.service.CustomerChangeListener;
 import com.virtualsolutions.ticketingsystem.service.CustomerService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Implementation of the CustomerService interface.
@@ -15,6 +20,7 @@ import java.util.Optional;
 public class CustomerServiceImpl implements CustomerService {
     
     private final CustomerRepository customerRepository;
+    private final List<CustomerChangeListener> listeners = new CopyOnWriteArrayList<>();
     
     /**
      * Constructor for CustomerServiceImpl.
@@ -25,6 +31,24 @@ public class CustomerServiceImpl implements CustomerService {
         this.customerRepository = customerRepository;
     }
     
+    /**
+     * Registers a listener to be notified after every customer mutation.
+     * 
+     * @param listener The listener to register
+     */
+    public void addCustomerChangeListener(CustomerChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Unregisters a previously registered listener.
+     * 
+     * @param listener The listener to remove
+     */
+    public void removeCustomerChangeListener(CustomerChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
     @Override
     public Customer createCustomer(Customer customer) {
         if (customer == null) {
@@ -42,7 +66,11 @@ public class CustomerServiceImpl implements CustomerService {
             }
         }
         
-        return customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        for (CustomerChangeListener listener : listeners) {
+            listener.onCustomerCreated(savedCustomer);
+        }
+        return savedCustomer;
     }
     
     @Override
@@ -68,7 +96,11 @@ public class CustomerServiceImpl implements CustomerService {
             }
         }
         
-        return customerRepository.update(customer);
+        Customer updatedCustomer = customerRepository.update(customer);
+        for (CustomerChangeListener listener : listeners) {
+            listener.onCustomerUpdated(updatedCustomer);
+        }
+        return updatedCustomer;
     }
     
     @Override
@@ -89,7 +121,15 @@ public class CustomerServiceImpl implements CustomerService {
         if (id == null) {
             throw new IllegalArgumentException("Customer ID cannot be null");
         }
-        return customerRepository.delete(id);
+        
+        Optional<Customer> existingCustomer = customerRepository.findById(id);
+        boolean deleted = customerRepository.delete(id);
+        if (deleted && existingCustomer.isPresent()) {
+            for (CustomerChangeListener listener : listeners) {
+                listener.onCustomerDeleted(existingCustomer.get());
+            }
+        }
+        return deleted;
     }
     
     @Override
@@ -97,7 +137,25 @@ public class CustomerServiceImpl implements CustomerService {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Name cannot be null or empty");
         }
-        return customerRepository.findByName(name);
+        Map<Long, Customer> matches = new LinkedHashMap<>();
+        for (Customer customer : customerRepository.findByName(name)) {
+            matches.put(customer.getId(), customer);
+        }
+        for (Customer customer : customerRepository.findByNameSoundingLike(name)) {
+            matches.putIfAbsent(customer.getId(), customer);
+        }
+        return new ArrayList<>(matches.values());
+    }
+    
+    @Override
+    public List<Customer> searchCustomersByNameFuzzy(String name, int maxDistance) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be null or empty");
+        }
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Maximum distance cannot be negative");
+        }
+        return customerRepository.findByNameFuzzy(name, maxDistance);
     }
     
     @Override
@@ -1,5 +1,7 @@
 package com.virtualsolutions.ticketingsystem.service.impl;
 
+import com.virtualsolutions.ticketingsystem.dispatch.AutoAssignmentEngine;
+import com.virtualsolutions.ticketingsystem.dispatch.DispatchQueues;
 import com.virtualsolutions.ticketingsystem.model.Agent;
 import com.virtualsolutions.ticketingsystem.model.Comment;
 import com.virtualsolutions.ticketingsystem.model.Ticket;
@@ -7,11 +9,18 @@ import com.virtualsolutions.ticketingsystem.model.TicketPriority;
 import com.virtualsolutions.ticketingsystem.model.TicketStatus;
 import com.virtualsolutions.ticketingsystem.repository.AgentRepository;
 import com.virtualsolutions.ticketingsystem.repository.TicketRepository;
+import com.virtualsolutions.ticketingsystem.search.DuplicateTicketDetector;
+import com.virtualsolutions.ticketingsystem.search.TicketFacets;
+import com.virtualsolutions.ticketingsystem.search.TicketSearchIndex;
+import com.virtualsolutions.ticketingsystem.search.TicketSearchResult;
+import com.virtualsolutions.ticketingsystem.service.TicketChangeListener;
 import com.virtualsolutions.ticketingsystem.service.TicketService;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Implementation of the TicketService interface.
@@ -23,6 +32,11 @@ public class TicketServiceImpl implements TicketService {
     
     private final TicketRepository ticketRepository;
     private final AgentRepository agentRepository;
+    private final List<TicketChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile AutoAssignmentEngine autoAssignmentEngine;
+    private volatile DispatchQueues dispatchQueues;
+    private volatile DuplicateTicketDetector duplicateDetector;
+    private volatile TicketSearchIndex searchIndex;
     
     /**
      * Constructor for TicketServiceImpl.
@@ -35,6 +49,149 @@ public class TicketServiceImpl implements TicketService {
         this.agentRepository = agentRepository;
     }
     
+    /**
+     * Registers a listener to be notified after every ticket mutation.
+     * 
+     * @param listener The listener to register
+     */
+    public void addTicketChangeListener(TicketChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Unregisters a previously registered listener.
+     * 
+     * @param listener The listener to remove
+     */
+    public void removeTicketChangeListener(TicketChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Enables automatic assignment of new tickets. The engine is registered as a
+     * change listener so that it tracks agent loads.
+     * 
+     * @param engine The engine that chooses agents for new tickets
+     */
+    public void setAutoAssignmentEngine(AutoAssignmentEngine engine) {
+        if (autoAssignmentEngine != null) {
+            removeTicketChangeListener(autoAssignmentEngine);
+        }
+        this.autoAssignmentEngine = engine;
+        if (engine != null) {
+            addTicketChangeListener(engine);
+        }
+    }
+    
+    @Override
+    public Optional<Ticket> autoAssignTicket(Long ticketId) {
+        AutoAssignmentEngine engine = autoAssignmentEngine;
+        if (engine == null) {
+            throw new IllegalStateException("Automatic assignment is not enabled");
+        }
+        Ticket ticket = ticketRepository.findById(ticketId)
+                .orElseThrow(() -> new IllegalArgumentException("Ticket not found with ID: " + ticketId));
+        Optional<Agent> agent = engine.selectAgent(ticket);
+        if (!agent.isPresent()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(assignTicket(ticketId, agent.get().getId()));
+        } catch (RuntimeException e) {
+            engine.release(ticketId);
+            throw e;
+        }
+    }
+    
+    /**
+     * Enables pulling waiting tickets from dispatch queues. The queues are
+     * registered as a change listener so that they track waiting tickets.
+     * 
+     * @param queues The queues of unassigned NEW tickets
+     */
+    public void setDispatchQueues(DispatchQueues queues) {
+        if (dispatchQueues != null) {
+            removeTicketChangeListener(dispatchQueues);
+        }
+        this.dispatchQueues = queues;
+        if (queues != null) {
+            addTicketChangeListener(queues);
+        }
+    }
+    
+    @Override
+    public Optional<Ticket> assignNextTicket(Long agentId) {
+        DispatchQueues queues = dispatchQueues;
+        if (queues == null) {
+            throw new IllegalStateException("Dispatch queues are not enabled");
+        }
+        if (agentId == null) {
+            throw new IllegalArgumentException("Agent ID cannot be null");
+        }
+        Agent agent = agentRepository.findById(agentId)
+                .orElseThrow(() -> new IllegalArgumentException("Agent not found with ID: " + agentId));
+        Optional<Ticket> next = queues.pollNext(agent);
+        if (!next.isPresent()) {
+            return Optional.empty();
+        }
+        Long ticketId = next.get().getId();
+        try {
+            return Optional.of(assignTicket(ticketId, agentId));
+        } catch (RuntimeException e) {
+            // The ticket has left its queue; put it back unless the assignment went through
+            ticketRepository.findById(ticketId).ifPresent(queues::requeue);
+            throw e;
+        }
+    }
+    
+    /**
+     * Enables near-duplicate lookups. The detector is registered as a change
+     * listener so that it tracks open tickets and their text.
+     * 
+     * @param detector The near-duplicate detector
+     */
+    public void setDuplicateDetector(DuplicateTicketDetector detector) {
+        if (duplicateDetector != null) {
+            removeTicketChangeListener(duplicateDetector);
+        }
+        this.duplicateDetector = detector;
+        if (detector != null) {
+            addTicketChangeListener(detector);
+        }
+    }
+    
+    @Override
+    public List<Ticket> findSimilarOpenTickets(Long ticketId, int limit) {
+        DuplicateTicketDetector detector = duplicateDetector;
+        if (detector == null) {
+            throw new IllegalStateException("Duplicate detection is not enabled");
+        }
+        if (ticketId == null) {
+            throw new IllegalArgumentException("Ticket ID cannot be null");
+        }
+        List<Ticket> similar = new ArrayList<>();
+        for (DuplicateTicketDetector.Match match : detector.findSimilarOpenTickets(ticketId, limit)) {
+            ticketRepository.findById(match.getTicketId()).ifPresent(similar::add);
+        }
+        return similar;
+    }
+    
+    /**
+     * Enables relevance-ranked keyword search. The index is registered as a
+     * change listener so that it tracks ticket text.
+     * 
+     * @param index The full-text index
+     */
+    public void setSearchIndex(TicketSearchIndex index) {
+        if (searchIndex != null) {
+            removeTicketChangeListener(searchIndex);
+        }
+        this.searchIndex = index;
+        if (index != null) {
+            addTicketChangeListener(index);
+        }
+    }
+    
     @Override
     public Ticket createTicket(Ticket ticket) {
         if (ticket == null) {
@@ -62,7 +219,16 @@ public class TicketServiceImpl implements TicketService {
             ticket.setCreatedAt(LocalDateTime.now());
         }
         
-        return ticketRepository.save(ticket);
+        Ticket savedTicket = ticketRepository.save(ticket);
+        for (TicketChangeListener listener : listeners) {
+            listener.onTicketCreated(savedTicket);
+        }
+        
+        // Route unassigned tickets to the least-loaded agent when enabled
+        if (autoAssignmentEngine != null && savedTicket.getAssignedAgent() == null) {
+            return autoAssignTicket(savedTicket.getId()).orElse(savedTicket);
+        }
+        return savedTicket;
     }
     
     @Override
@@ -83,7 +249,7 @@ public class TicketServiceImpl implements TicketService {
         // Update timestamp
         ticket.setUpdatedAt(LocalDateTime.now());
         
-        return ticketRepository.update(ticket);
+        return notifyUpdated(ticketRepository.update(ticket));
     }
     
     @Override
@@ -112,7 +278,15 @@ public class TicketServiceImpl implements TicketService {
         if (id == null) {
             throw new IllegalArgumentException("Ticket ID cannot be null");
         }
-        return ticketRepository.delete(id);
+        
+        Optional<Ticket> existingTicket = ticketRepository.findById(id);
+        boolean deleted = ticketRepository.delete(id);
+        if (deleted && existingTicket.isPresent()) {
+            for (TicketChangeListener listener : listeners) {
+                listener.onTicketDeleted(existingTicket.get());
+            }
+        }
+        return deleted;
     }
     
     @Override
@@ -193,7 +367,7 @@ public class TicketServiceImpl implements TicketService {
             ticket.setStatus(TicketStatus.IN_PROGRESS);
         }
         
-        return ticketRepository.update(ticket);
+        return notifyUpdated(ticketRepository.update(ticket));
     }
     
     @Override
@@ -210,7 +384,7 @@ public class TicketServiceImpl implements TicketService {
         Ticket ticket = ticketOpt.get();
         ticket.setStatus(status);
         
-        return ticketRepository.update(ticket);
+        return notifyUpdated(ticketRepository.update(ticket));
     }
     
     @Override
@@ -227,7 +401,7 @@ public class TicketServiceImpl implements TicketService {
         Ticket ticket = ticketOpt.get();
         ticket.setPriority(priority);
         
-        return ticketRepository.update(ticket);
+        return notifyUpdated(ticketRepository.update(ticket));
     }
     
     @Override
@@ -246,7 +420,7 @@ public class TicketServiceImpl implements TicketService {
         comment.setCreatedAt(LocalDateTime.now());
         ticket.addComment(comment);
         
-        return ticketRepository.update(ticket);
+        return notifyUpdated(ticketRepository.update(ticket));
     }
     
     @Override
@@ -255,6 +429,47 @@ public class TicketServiceImpl implements TicketService {
         return ticketRepository.search(keyword, status, priority, categoryId, agentId, customerId);
     }
     
+    @Override
+    public List<Ticket> searchTickets(String keyword, TicketStatus status, TicketPriority priority, 
+                                     Long categoryId, Long agentId, Long customerId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        TicketSearchIndex index = searchIndex;
+        if (index == null || keyword == null || keyword.trim().isEmpty()) {
+            // Without an index or keywords there is nothing to rank by
+            List<Ticket> matches = searchTickets(keyword, status, priority, categoryId, agentId, customerId);
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        }
+        List<Ticket> ranked = new ArrayList<>();
+        for (TicketSearchIndex.Hit hit : index.search(keyword, status, priority, categoryId, agentId, customerId,
+                limit)) {
+            ticketRepository.findById(hit.getTicketId()).ifPresent(ranked::add);
+        }
+        return ranked;
+    }
+    
+    @Override
+    public TicketSearchResult searchTicketsWithFacets(String keyword, TicketStatus status, TicketPriority priority, 
+                                                      Long categoryId, Long agentId, Long customerId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        TicketSearchIndex index = searchIndex;
+        if (index == null) {
+            List<Ticket> matches = searchTickets(keyword, status, priority, categoryId, agentId, customerId);
+            List<Ticket> page = matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+            return new TicketSearchResult(page, TicketFacets.of(matches));
+        }
+        TicketSearchIndex.FacetedHits result = index.searchWithFacets(keyword, status, priority, categoryId,
+                agentId, customerId, limit);
+        List<Ticket> page = new ArrayList<>();
+        for (TicketSearchIndex.Hit hit : result.getHits()) {
+            ticketRepository.findById(hit.getTicketId()).ifPresent(page::add);
+        }
+        return new TicketSearchResult(page, result.getFacets());
+    }
+    
     /**
      * Validates ticket data.
      * 
@@ -279,6 +494,19 @@ public class TicketServiceImpl implements TicketService {
         }
     }
     
+    /**
+     * Notifies listeners of an updated ticket.
+     * 
+     * @param ticket The updated ticket
+     * @return The same ticket, for chaining
+     */
+    private Ticket notifyUpdated(Ticket ticket) {
+        for (TicketChangeListener listener : listeners) {
+            listener.onTicketUpdated(ticket);
+        }
+        return ticket;
+    }
+    
     /**
      * Generates a unique ticket number.
      * 
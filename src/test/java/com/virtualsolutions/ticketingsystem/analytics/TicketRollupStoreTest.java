@@ -0,0 +1,92 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Tests for counting ticket status transitions in the rollup store.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class TicketRollupStoreTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 9, 30);
+    
+    @Test
+    void ticketCreatedClosedIsCountedOnce() {
+        TicketRollupStore store = new TicketRollupStore();
+        Ticket ticket = ticket(1L, TicketStatus.CLOSED);
+        
+        store.onTicketCreated(ticket);
+        store.onTicketUpdated(ticket);
+        
+        assertEquals(1, closed(store));
+    }
+    
+    @Test
+    void loadedStatusesDecideWhatCountsAsATransition() {
+        TicketRollupStore store = new TicketRollupStore();
+        Ticket closed = ticket(1L, TicketStatus.CLOSED);
+        Ticket open = ticket(2L, TicketStatus.IN_PROGRESS);
+        store.load(List.of(closed, open));
+        assertEquals(2, total(store, TicketRollupStore.Metric.CREATED));
+        assertEquals(1, closed(store));
+        
+        // Commenting on a closed ticket is not a new closure
+        store.onTicketUpdated(closed);
+        open.setStatus(TicketStatus.CLOSED);
+        open.setUpdatedAt(NOW);
+        store.onTicketUpdated(open);
+        // A ticket the store never saw counts when it is closed
+        store.onTicketUpdated(ticket(3L, TicketStatus.CLOSED));
+        
+        assertEquals(3, closed(store));
+    }
+    
+    @Test
+    void reopenedTicketIsCountedAgainWhenResolved() {
+        TicketRollupStore store = new TicketRollupStore();
+        Ticket ticket = ticket(1L, TicketStatus.NEW);
+        store.onTicketCreated(ticket);
+        ticket.setResolvedAt(NOW);
+        
+        ticket.setStatus(TicketStatus.RESOLVED);
+        store.onTicketUpdated(ticket);
+        ticket.setStatus(TicketStatus.IN_PROGRESS);
+        store.onTicketUpdated(ticket);
+        ticket.setStatus(TicketStatus.RESOLVED);
+        store.onTicketUpdated(ticket);
+        
+        assertEquals(2, total(store, TicketRollupStore.Metric.RESOLVED));
+    }
+    
+    private static long closed(TicketRollupStore store) {
+        return total(store, TicketRollupStore.Metric.CLOSED);
+    }
+    
+    private static long total(TicketRollupStore store, TicketRollupStore.Metric metric) {
+        return store.total(metric, TicketRollupStore.Granularity.HOUR, NOW.minusHours(1), NOW.plusHours(1),
+                null, null);
+    }
+    
+    private static Ticket ticket(Long id, TicketStatus status) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setTitle("Ticket " + id);
+        ticket.setStatus(status);
+        ticket.setPriority(TicketPriority.MEDIUM);
+        ticket.setCreatedAt(NOW);
+        ticket.setUpdatedAt(NOW);
+        ticket.setResolvedAt(status == TicketStatus.CLOSED ? NOW : null);
+        return ticket;
+    }
+}
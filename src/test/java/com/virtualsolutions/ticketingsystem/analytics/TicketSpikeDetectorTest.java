@@ -0,0 +1,86 @@
+package com.virtualsolutions.ticketingsystem.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+
+/**
+ * Tests for the ticket-creation spike detector.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class TicketSpikeDetectorTest {
+    
+    private static final long INTERVAL_MILLIS = 10_000;
+    
+    @Test
+    void steadyTrafficDoesNotAlertWhileWarmingUp() throws InterruptedException {
+        MutableClock clock = new MutableClock(Instant.ofEpochMilli(1_000_000 * INTERVAL_MILLIS + 9_000));
+        BlockingQueue<SpikeAlert> alerts = new LinkedBlockingQueue<>();
+        try (TicketSpikeDetector detector = new TicketSpikeDetector(clock, Duration.ofMillis(INTERVAL_MILLIS),
+                0.05, 4.0, 10)) {
+            detector.addSpikeAlertListener(alerts::add);
+            
+            // Joined near the end of an interval, then a steady 12 tickets per interval
+            create(detector, 1);
+            for (int interval = 1; interval <= 40; interval++) {
+                clock.instant = Instant.ofEpochMilli((1_000_000 + interval) * INTERVAL_MILLIS);
+                create(detector, 11 + interval % 3);
+            }
+            assertNull(alerts.poll(200, TimeUnit.MILLISECONDS));
+            
+            clock.instant = Instant.ofEpochMilli(1_000_041 * INTERVAL_MILLIS);
+            create(detector, 60);
+            SpikeAlert alert = alerts.poll(5, TimeUnit.SECONDS);
+            assertNotNull(alert);
+            assertEquals(7L, alert.getCategoryId());
+        }
+    }
+    
+    private static void create(TicketSpikeDetector detector, int count) {
+        for (int i = 0; i < count; i++) {
+            Ticket ticket = new Ticket();
+            ticket.setCategory(new TicketCategory(7L, "Network", "Network issues"));
+            detector.onTicketCreated(ticket);
+        }
+    }
+    
+    private static final class MutableClock extends Clock {
+        
+        private volatile Instant instant;
+        
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+        
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Agent;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Tests for the per-category dispatch queues.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class DispatchQueuesTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 9, 0);
+    
+    @Test
+    void requeuedTicketKeepsItsPlace() {
+        DispatchQueues queues = new DispatchQueues();
+        Ticket older = ticket(1L, NOW.minusMinutes(10));
+        Ticket newer = ticket(2L, NOW);
+        queues.load(List.of(newer, older));
+        
+        Ticket polled = queues.pollNext(List.of(5L)).orElseThrow();
+        assertEquals(1L, polled.getId());
+        queues.requeue(polled);
+        
+        assertEquals(1L, queues.pollNext(List.of(5L)).orElseThrow().getId());
+        assertEquals(2L, queues.pollNext(List.of(5L)).orElseThrow().getId());
+    }
+    
+    @Test
+    void requeueSkipsTicketsThatAreNoLongerWaiting() {
+        DispatchQueues queues = new DispatchQueues();
+        queues.load(List.of(ticket(1L, NOW)));
+        
+        Ticket polled = queues.pollNext(List.of(5L)).orElseThrow();
+        polled.setAssignedAgent(new Agent(3L, "Alice Nakato", "alice@example.com", "EMP-3", "Support"));
+        queues.requeue(polled);
+        
+        assertEquals(0, queues.size(5L));
+        assertFalse(queues.pollNext(List.of(5L)).isPresent());
+    }
+    
+    private static Ticket ticket(Long id, LocalDateTime createdAt) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setTitle("Ticket " + id);
+        ticket.setStatus(TicketStatus.NEW);
+        ticket.setPriority(TicketPriority.MEDIUM);
+        ticket.setCategory(new TicketCategory(5L, "Network", "Network issues"));
+        ticket.setCreatedAt(createdAt);
+        return ticket;
+    }
+}
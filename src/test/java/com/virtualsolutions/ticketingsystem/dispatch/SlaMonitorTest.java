@@ -0,0 +1,78 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Tests for reporting missed SLA deadlines.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class SlaMonitorTest {
+    
+    private static final Instant START = Instant.parse("2024-03-01T09:00:00Z");
+    
+    @Test
+    void failingListenerDoesNotHideBreachesFromOthers() {
+        MutableClock clock = new MutableClock(START);
+        List<SlaBreach> received = new ArrayList<>();
+        try (SlaMonitor monitor = new SlaMonitor(SlaPolicy.defaults(), clock)) {
+            monitor.addSlaBreachListener(breach -> {
+                throw new IllegalStateException("Listener failure");
+            });
+            monitor.addSlaBreachListener(received::add);
+            Ticket ticket = new Ticket();
+            ticket.setId(1L);
+            ticket.setStatus(TicketStatus.NEW);
+            ticket.setPriority(TicketPriority.MEDIUM);
+            ticket.setCreatedAt(LocalDateTime.ofInstant(START, ZoneOffset.UTC));
+            monitor.onTicketCreated(ticket);
+            
+            clock.instant = START.plus(Duration.ofHours(5));
+            monitor.advance();
+            
+            assertEquals(1, received.size());
+            assertEquals(SlaBreach.Kind.FIRST_RESPONSE, received.get(0).getKind());
+            assertEquals(1, monitor.getFailedNotificationCount());
+        }
+    }
+    
+    private static final class MutableClock extends Clock {
+        
+        private volatile Instant instant;
+        
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+        
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.virtualsolutions.ticketingsystem.dispatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the hierarchical timing wheel.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class TimingWheelTest {
+    
+    @Test
+    void timersAtWheelBoundariesFireOnTheirExactTick() {
+        long[] deadlines = {1, 62, 63, 64, 65, 127, 128, 4095, 4096, 4097, 4159, 4160,
+            262_143, 262_144, 262_145, 266_240, 300_000};
+        for (long start : new long[] {0, 1, 37, 63, 4000, 262_100}) {
+            TimingWheel<Long> wheel = new TimingWheel<>(1, start);
+            for (long deadline : deadlines) {
+                wheel.schedule(start + deadline, start + deadline);
+            }
+            
+            List<Long> fired = new ArrayList<>();
+            for (long now = start + 1; now <= start + 300_000; now++) {
+                for (long deadline : wheel.advanceTo(now)) {
+                    assertEquals(deadline, now, "Timer started at " + start);
+                    fired.add(deadline);
+                }
+            }
+            assertEquals(deadlines.length, fired.size());
+            assertEquals(0, wheel.size());
+        }
+    }
+    
+    @Test
+    void randomTimersFireOnceInTickOrder() {
+        Random random = new Random(17);
+        long tickMillis = 10;
+        long start = 1_234_567;
+        TimingWheel<Long> wheel = new TimingWheel<>(tickMillis, start);
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            // Spread over the lowest three wheels
+            long deadline = start + 1 + random.nextInt(4_000_000);
+            wheel.schedule(deadline, deadline);
+        }
+        assertEquals(count, wheel.size());
+        
+        long previous = start;
+        long lastTick = Long.MIN_VALUE;
+        int fired = 0;
+        while (wheel.size() > 0) {
+            long now = previous + 1 + random.nextInt(5_000);
+            for (long deadline : wheel.advanceTo(now)) {
+                long tick = Math.floorDiv(deadline + tickMillis - 1, tickMillis);
+                assertTrue(deadline <= now, "Fired early: " + deadline + " at " + now);
+                assertTrue(tick > Math.floorDiv(previous, tickMillis), "Fired late: " + deadline + " at " + now);
+                assertTrue(tick >= lastTick, "Fired out of tick order: " + deadline);
+                lastTick = tick;
+                fired++;
+            }
+            previous = now;
+        }
+        assertEquals(count, fired);
+    }
+    
+    @Test
+    void deadlinesBeyondTheTopWheelWaitUntilInRange() {
+        long maxTicks = 1L << 24;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule(maxTicks + 1000, "far");
+        wheel.schedule(2 * maxTicks + 5, "farther");
+        
+        assertEquals(List.of(), wheel.advanceTo(maxTicks + 999));
+        assertEquals(List.of("far"), wheel.advanceTo(maxTicks + 1000));
+        assertEquals(List.of(), wheel.advanceTo(2 * maxTicks + 4));
+        assertEquals(List.of("farther"), wheel.advanceTo(2 * maxTicks + 5));
+    }
+    
+    @Test
+    void cancelledTimersNeverFire() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+        List<TimingWheel.Timer<Integer>> timers = new ArrayList<>();
+        for (int i = 1; i <= 10_000; i++) {
+            timers.add(wheel.schedule(i, i));
+        }
+        Set<Integer> cancelled = new HashSet<>();
+        for (int i = 0; i < timers.size(); i += 3) {
+            assertTrue(timers.get(i).cancel());
+            assertFalse(timers.get(i).cancel());
+            cancelled.add(timers.get(i).getPayload());
+        }
+        assertEquals(10_000 - cancelled.size(), wheel.size());
+        
+        List<Integer> fired = wheel.advanceTo(10_000);
+        assertEquals(10_000 - cancelled.size(), fired.size());
+        for (int i = 0; i < fired.size(); i++) {
+            assertFalse(cancelled.contains(fired.get(i)));
+            if (i > 0) {
+                assertTrue(fired.get(i - 1) < fired.get(i), "Fired out of order");
+            }
+        }
+        assertFalse(timers.get(1).cancel());
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void timersNeverFireBeforeTheirDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1000);
+        wheel.schedule(1001, "rounded up");
+        wheel.schedule(500, "past");
+        
+        // Both are due on the next tick, which starts at 1010
+        assertEquals(List.of(), wheel.advanceTo(1009));
+        assertEquals(Set.of("past", "rounded up"), new HashSet<>(wheel.advanceTo(1010)));
+    }
+}
@@ -0,0 +1,189 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+
+/**
+ * Tests for recovering and consuming the change log.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class ChangeLogTest {
+    
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void reopeningTruncatesATornRecordAtTheEnd() throws IOException {
+        try (ChangeLog log = open(1024 * 1024)) {
+            appendTickets(log, 10);
+        }
+        Path segment = lastSegment();
+        long fullSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // A crash part way through the last write
+            channel.truncate(fullSize - 7);
+        }
+        
+        try (ChangeLog log = open(1024 * 1024)) {
+            assertEquals(9, log.getNextOffset());
+            List<ChangeRecord> records = log.read(0, 100);
+            assertEquals(9, records.size());
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(i, records.get(i).getOffset());
+                assertEquals(i + 1, records.get(i).getTicket().getId());
+            }
+            assertTrue(Files.size(segment) < fullSize - 7);
+            
+            // The offset of the torn record is reused
+            assertEquals(9, log.appendTicket(ChangeRecord.Operation.UPDATE, ticket(42)));
+            assertEquals(42, log.read(9, 1).get(0).getEntityId());
+        }
+    }
+    
+    @Test
+    void reopeningTruncatesACorruptRecordAndEverythingAfterIt() throws IOException {
+        try (ChangeLog log = open(1024 * 1024)) {
+            appendTickets(log, 5);
+        }
+        Path segment = lastSegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Flip the last byte, which belongs to the final record's checksum
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~last.get(0)}), channel.size() - 1);
+        }
+        
+        try (ChangeLog log = open(1024 * 1024)) {
+            assertEquals(4, log.getNextOffset());
+            assertEquals(4, log.read(0, 100).size());
+        }
+    }
+    
+    @Test
+    void consumerResumesFromItsCommittedOffsetAfterRestart() {
+        try (ChangeLog log = open(1024 * 1024)) {
+            appendTickets(log, 20);
+            List<ChangeRecord> batch = log.read(log.getCommittedOffset("indexer"), 8);
+            assertEquals(8, batch.size());
+            log.commitOffset("indexer", batch.get(batch.size() - 1).getOffset() + 1);
+            // Processed but never committed, so delivered again after the restart
+            log.read(8, 4);
+        }
+        
+        try (ChangeLog log = open(1024 * 1024)) {
+            assertEquals(8, log.getCommittedOffset("indexer"));
+            assertEquals(0, log.getCommittedOffset("reports"));
+            List<ChangeRecord> rest = log.read(log.getCommittedOffset("indexer"), 100);
+            assertEquals(12, rest.size());
+            assertEquals(8, rest.get(0).getOffset());
+            assertEquals(19, rest.get(rest.size() - 1).getOffset());
+        }
+    }
+    
+    @Test
+    void readsAcrossSegmentsAndDeletesOnlyWhatEveryConsumerPassed() {
+        try (ChangeLog log = open(512)) {
+            appendTickets(log, 60);
+            int segments = log.getSegmentCount();
+            assertTrue(segments > 3, "Expected several segments, got " + segments);
+            
+            List<ChangeRecord> all = log.read(0, 1000);
+            assertEquals(60, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                assertEquals(i, all.get(i).getOffset());
+            }
+            assertEquals(List.of(), log.read(60, 10));
+            
+            log.commitOffset("fast", 55);
+            log.commitOffset("slow", 20);
+            int deleted = log.deleteConsumedSegments();
+            assertTrue(deleted > 0);
+            assertEquals(segments - deleted, log.getSegmentCount());
+            assertTrue(log.getStartOffset() <= 20);
+            assertEquals(20, log.read(20, 1).get(0).getOffset());
+            if (log.getStartOffset() > 0) {
+                assertThrows(IllegalArgumentException.class, () -> log.read(0, 1));
+            }
+        }
+    }
+    
+    @Test
+    void transferredBytesParseBackIntoRecords() throws IOException {
+        Path copy = directory.resolve("copy.bin");
+        try (ChangeLog log = open(1024 * 1024);
+             FileChannel target = FileChannel.open(copy, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            appendTickets(log, 10);
+            log.appendCustomer(ChangeRecord.Operation.CREATE, customer());
+            long next = 3;
+            while (next < log.getNextOffset()) {
+                next = log.transferTo(next, target, 200);
+            }
+        }
+        
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(copy));
+        List<ChangeRecord> records = new ArrayList<>();
+        for (ChangeRecord record = ChangeRecord.read(bytes); record != null; record = ChangeRecord.read(bytes)) {
+            records.add(record);
+        }
+        assertEquals(8, records.size());
+        assertEquals(3, records.get(0).getOffset());
+        ChangeRecord last = records.get(records.size() - 1);
+        assertEquals(ChangeRecord.Entity.CUSTOMER, last.getEntity());
+        assertEquals("Jane Doe", last.getCustomer().getName());
+        assertNull(last.getTicket());
+    }
+    
+    private ChangeLog open(long segmentSize) {
+        return new ChangeLog(directory, segmentSize, CLOCK);
+    }
+    
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .reduce((first, second) -> second)
+                    .orElseThrow();
+        }
+    }
+    
+    private static void appendTickets(ChangeLog log, int count) {
+        for (long id = 1; id <= count; id++) {
+            log.appendTicket(ChangeRecord.Operation.CREATE, ticket(id));
+        }
+    }
+    
+    private static Ticket ticket(long id) {
+        return new Ticket(id, "TKT-" + id, "Ticket " + id, "Description " + id, customer(),
+                new TicketCategory(1L, "Hardware", "Hardware issues"));
+    }
+    
+    private static Customer customer() {
+        return new Customer(1L, "Jane Doe", "jane@example.com", "+256700000000", "Kampala");
+    }
+}
@@ -0,0 +1,105 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+
+/**
+ * Tests for resuming subscriptions to the ticket change stream.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class TicketChangeStreamTest {
+    
+    private static final TicketChangeStream.Filter ALL = new TicketChangeStream.Filter(null, null, null);
+    
+    @Test
+    void resumesAfterTheLastSeenEventOfTheSameRun() {
+        TicketChangeStream stream = new TicketChangeStream(16, 16);
+        List<TicketEvent> events = events(0, 10);
+        stream.onEvents(events);
+        
+        TicketChangeStream.Subscription subscription = stream.subscribe(ALL, stream.eventId(events.get(6)));
+        
+        assertFalse(subscription.isReset());
+        assertEquals(List.of(7L, 8L, 9L), sequences(subscription.getReplay()));
+        assertTrue(stream.subscribe(ALL, stream.eventId(events.get(9))).getReplay().isEmpty());
+        assertFalse(stream.subscribe(ALL, stream.eventId(events.get(9))).isReset());
+    }
+    
+    @Test
+    void resetsWhenTheLastEventIsAheadOfTheStream() {
+        TicketChangeStream fresh = new TicketChangeStream(16, 16);
+        assertTrue(fresh.subscribe(ALL, 5000L).isReset());
+        
+        TicketChangeStream stream = new TicketChangeStream(16, 16);
+        stream.onEvents(events(0, 10));
+        TicketChangeStream.Subscription subscription = stream.subscribe(ALL, 5000L);
+        assertTrue(subscription.isReset());
+        assertTrue(subscription.getReplay().isEmpty());
+    }
+    
+    @Test
+    void resetsWhenTheLastEventIsFromAnotherRun() {
+        TicketChangeStream before = new TicketChangeStream(16, 16);
+        List<TicketEvent> events = events(0, 10);
+        before.onEvents(events);
+        String lastSeen = before.eventId(events.get(3));
+        
+        // After a restart, sequences start again from zero under a new epoch
+        TicketChangeStream after = new TicketChangeStream(16, 16);
+        after.onEvents(events(0, 8));
+        TicketChangeStream.Subscription subscription = after.subscribe(ALL, lastSeen);
+        
+        assertTrue(subscription.isReset());
+        assertTrue(subscription.getReplay().isEmpty());
+    }
+    
+    @Test
+    void resetsWhenTheLastEventLeftTheHistory() {
+        TicketChangeStream stream = new TicketChangeStream(4, 16);
+        stream.onEvents(events(0, 10));
+        
+        assertTrue(stream.subscribe(ALL, 2L).isReset());
+        assertEquals(List.of(7L, 8L, 9L), sequences(stream.subscribe(ALL, 6L).getReplay()));
+    }
+    
+    @Test
+    void rejectsMalformedEventIds() {
+        TicketChangeStream stream = new TicketChangeStream(16, 16);
+        
+        assertThrows(IllegalArgumentException.class, () -> stream.subscribe(ALL, "42"));
+        assertThrows(IllegalArgumentException.class, () -> stream.subscribe(ALL, "abc-x"));
+    }
+    
+    private static List<TicketEvent> events(long from, int count) {
+        List<TicketEvent> events = new ArrayList<>();
+        for (long sequence = from; sequence < from + count; sequence++) {
+            Ticket ticket = new Ticket(sequence + 1, "TKT-" + sequence, "Ticket", "Description",
+                    new Customer(1L, "Jane Doe", "jane@example.com", "+256700000000", "Kampala"),
+                    new TicketCategory(1L, "Hardware", "Hardware issues"));
+            events.add(TicketEvent.of(sequence, TicketEvent.Type.CREATED, ticket, Instant.EPOCH));
+        }
+        return events;
+    }
+    
+    private static List<Long> sequences(List<TicketEvent> events) {
+        List<Long> sequences = new ArrayList<>();
+        for (TicketEvent event : events) {
+            sequences.add(event.getSequence());
+        }
+        return sequences;
+    }
+}
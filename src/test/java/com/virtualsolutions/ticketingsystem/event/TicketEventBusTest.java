@@ -0,0 +1,179 @@
+package com.virtualsolutions.ticketingsystem.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Tests for delivering events through the ticket event bus ring.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class TicketEventBusTest {
+    
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-06-01T12:00:00Z"), ZoneOffset.UTC);
+    
+    @Test
+    void consumersReceiveEveryEventInOrderAcrossManyWraps() {
+        TicketEventBus bus = new TicketEventBus(8, CLOCK);
+        List<TicketEvent> fast = Collections.synchronizedList(new ArrayList<>());
+        List<TicketEvent> slow = Collections.synchronizedList(new ArrayList<>());
+        bus.addConsumer("fast", fast::addAll);
+        bus.addConsumer("slow", events -> {
+            slow.addAll(events);
+            sleepMillis(1);
+        });
+        
+        for (long id = 1; id <= 2_000; id++) {
+            bus.onTicketCreated(ticket(id));
+        }
+        bus.close();
+        
+        assertInSequence(fast, 2_000);
+        assertInSequence(slow, 2_000);
+        assertEquals(0, bus.getFailedBatchCount());
+    }
+    
+    @Test
+    void publisherWaitsWhileTheSlowestConsumerIsAFullRingBehind() throws InterruptedException {
+        int capacity = 4;
+        TicketEventBus bus = new TicketEventBus(capacity, CLOCK);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger firstBatchSize = new AtomicInteger();
+        List<TicketEvent> received = Collections.synchronizedList(new ArrayList<>());
+        bus.addConsumer("blocked", events -> {
+            received.addAll(events);
+            if (firstBatchSize.compareAndSet(0, events.size())) {
+                awaitQuietly(release);
+            }
+        });
+        
+        AtomicInteger completed = new AtomicInteger();
+        Thread publisher = new Thread(() -> {
+            for (long id = 1; id <= 200; id++) {
+                bus.onTicketCreated(ticket(id));
+                completed.incrementAndGet();
+            }
+        });
+        publisher.start();
+        publisher.join(500);
+        
+        assertTrue(publisher.isAlive(), "Publisher overran a blocked consumer");
+        // The blocked batch frees its slots; at most one more ring of events fits, plus the one waiting
+        assertTrue(completed.get() <= firstBatchSize.get() + capacity,
+                "Published " + completed.get() + " with a batch of " + firstBatchSize.get() + " in use");
+        
+        release.countDown();
+        publisher.join(TimeUnit.SECONDS.toMillis(10));
+        bus.close();
+        assertEquals(200, completed.get());
+        assertInSequence(received, 200);
+    }
+    
+    @Test
+    void concurrentUpdatesKeepEachTicketsEventsInChangeOrder() throws InterruptedException {
+        TicketEventBus bus = new TicketEventBus(16, CLOCK);
+        List<TicketEvent> received = Collections.synchronizedList(new ArrayList<>());
+        bus.addConsumer("recorder", received::addAll);
+        
+        int threads = 4;
+        int updates = 500;
+        TicketStatus[] cycle = {TicketStatus.IN_PROGRESS, TicketStatus.PENDING, TicketStatus.RESOLVED,
+            TicketStatus.NEW};
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Ticket ticket = ticket(t + 1);
+            bus.onTicketCreated(ticket);
+            publishers.add(new Thread(() -> {
+                for (int i = 0; i < updates; i++) {
+                    ticket.setStatus(cycle[i % cycle.length]);
+                    bus.onTicketUpdated(ticket);
+                }
+            }));
+        }
+        publishers.forEach(Thread::start);
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        bus.close();
+        
+        assertInSequence(received, threads * (updates + 1));
+        Map<Long, TicketStatus> lastStatus = new HashMap<>();
+        for (TicketEvent event : received) {
+            if (event.getType() == TicketEvent.Type.STATUS_CHANGED) {
+                assertEquals(lastStatus.get(event.getTicketId()), event.getPreviousStatus());
+            }
+            lastStatus.put(event.getTicketId(), event.getTicket().getStatus());
+        }
+    }
+    
+    @Test
+    void eventsKeepTheTicketAsItWasWhenChanged() {
+        TicketEventBus bus = new TicketEventBus(8, CLOCK);
+        List<TicketEvent> received = Collections.synchronizedList(new ArrayList<>());
+        bus.addConsumer("recorder", received::addAll);
+        
+        Ticket ticket = ticket(1);
+        bus.onTicketCreated(ticket);
+        ticket.setStatus(TicketStatus.IN_PROGRESS);
+        ticket.setTitle("Renamed");
+        bus.onTicketUpdated(ticket);
+        ticket.setStatus(TicketStatus.CLOSED);
+        bus.close();
+        
+        assertEquals(2, received.size());
+        assertEquals(TicketStatus.NEW, received.get(0).getTicket().getStatus());
+        assertEquals("Ticket 1", received.get(0).getTicket().getTitle());
+        assertEquals(TicketEvent.Type.STATUS_CHANGED, received.get(1).getType());
+        assertEquals(TicketStatus.IN_PROGRESS, received.get(1).getStatus());
+        assertEquals(TicketStatus.NEW, received.get(1).getPreviousStatus());
+    }
+    
+    private static void assertInSequence(List<TicketEvent> events, int count) {
+        assertEquals(count, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i, events.get(i).getSequence());
+        }
+    }
+    
+    private static Ticket ticket(long id) {
+        return new Ticket(id, "TKT-" + id, "Ticket " + id, "Description " + id,
+                new Customer(1L, "Jane Doe", "jane@example.com", "+256700000000", "Kampala"),
+                new TicketCategory(1L, "Hardware", "Hardware issues"));
+    }
+    
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+
+/**
+ * Tests for looking up customers in the in-memory customer repository.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class CustomerRepositoryImplTest {
+    
+    @Test
+    void emailLookupIgnoresCaseAndSurroundingSpaces() {
+        CustomerRepositoryImpl repository = new CustomerRepositoryImpl();
+        repository.save(new Customer(null, "Jane Doe", " Jane@Example.com ", "+256700000000", "Kampala"));
+        repository.save(new Customer(null, "John Okello", "john@example.com", "+256700000001", "Entebbe"));
+        
+        assertEquals("Jane Doe", repository.findByEmail("jane@example.com").orElseThrow().getName());
+        assertEquals("Jane Doe", repository.findByEmail("  JANE@example.COM").orElseThrow().getName());
+        assertEquals("John Okello", repository.findByEmail(" John@Example.com ").orElseThrow().getName());
+        assertFalse(repository.findByEmail("jane@example.org").isPresent());
+    }
+}
@@ -0,0 +1,91 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Agent;
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Tests for searching the in-memory ticket repository.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class TicketRepositoryImplTest {
+    
+    @Test
+    void columnSearchMatchesTheTicketPredicate() {
+        TicketRepositoryImpl repository = new TicketRepositoryImpl();
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tickets.add(repository.save(ticket(i)));
+        }
+        // Deleting moves the last row into the freed slot
+        repository.delete(tickets.get(10).getId());
+        tickets.remove(10);
+        Ticket moved = tickets.get(50);
+        moved.setStatus(TicketStatus.CLOSED);
+        moved.setAssignedAgent(null);
+        repository.update(moved);
+        
+        TicketStatus[] statuses = {null, TicketStatus.NEW, TicketStatus.CLOSED};
+        TicketPriority[] priorities = {null, TicketPriority.HIGH};
+        Long[] ids = {null, 1L, 2L};
+        String[] keywords = {null, "printer"};
+        for (TicketStatus status : statuses) {
+            for (TicketPriority priority : priorities) {
+                for (Long id : ids) {
+                    for (String keyword : keywords) {
+                        assertSameResults(repository, tickets, keyword, status, priority, id, id, null);
+                        assertSameResults(repository, tickets, keyword, status, priority, null, id, id);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void assertSameResults(TicketRepositoryImpl repository, List<Ticket> tickets, String keyword,
+                                          TicketStatus status, TicketPriority priority,
+                                          Long categoryId, Long agentId, Long customerId) {
+        TicketFilter filter = TicketFilter.compile(keyword, status, priority, categoryId, agentId, customerId);
+        Set<Long> expected = new TreeSet<>();
+        for (Ticket ticket : tickets) {
+            if (filter.onTicket().test(ticket)) {
+                expected.add(ticket.getId());
+            }
+        }
+        Set<Long> actual = new TreeSet<>();
+        for (Ticket ticket : repository.search(keyword, status, priority, categoryId, agentId, customerId)) {
+            assertTrue(actual.add(ticket.getId()));
+        }
+        assertEquals(expected, actual);
+    }
+    
+    private static Ticket ticket(int i) {
+        Ticket ticket = new Ticket();
+        ticket.setTitle(i % 3 == 0 ? "Printer jammed" : "Cannot log in");
+        ticket.setDescription("Report " + i);
+        ticket.setStatus(TicketStatus.values()[i % TicketStatus.values().length]);
+        ticket.setPriority(TicketPriority.values()[i % TicketPriority.values().length]);
+        if (i % 4 != 0) {
+            ticket.setCategory(new TicketCategory((long) (i % 3), "Category " + i % 3, null));
+        }
+        if (i % 5 != 0) {
+            ticket.setAssignedAgent(new Agent((long) (i % 2 + 1), "Agent", "agent@example.com", "EMP", "Support"));
+        }
+        ticket.setCustomer(new Customer((long) (i % 3), "Customer", "customer@example.com", null, null));
+        return ticket;
+    }
+}
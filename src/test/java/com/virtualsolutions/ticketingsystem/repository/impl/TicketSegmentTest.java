@@ -0,0 +1,171 @@
+package com.virtualsolutions.ticketingsystem.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.virtualsolutions.ticketingsystem.model.Agent;
+import com.virtualsolutions.ticketingsystem.model.Comment;
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Tests for writing and reopening ticket segment files.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class TicketSegmentTest {
+    
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_000_000);
+    
+    @TempDir
+    Path directory;
+    
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void reopenedSegmentReturnsEveryTicketUnchanged(boolean compressed) {
+        List<Ticket> tickets = tickets(300);
+        // Written out of order; the segment sorts by ID
+        List<Ticket> shuffled = new ArrayList<>(tickets);
+        Collections.reverse(shuffled);
+        Path file = directory.resolve("segment.seg");
+        TicketSegment.write(file, shuffled, compressed);
+        
+        TicketSegment segment = TicketSegment.open(file);
+        
+        assertEquals(compressed, segment.isCompressed());
+        assertEquals(tickets.size(), segment.size());
+        assertEquals(tickets.get(tickets.size() - 1).getId(), segment.getMaxId());
+        for (Ticket ticket : tickets) {
+            assertSameTicket(ticket, segment.findById(ticket.getId()).orElseThrow());
+            assertSameTicket(ticket, segment.findByTicketNumber(ticket.getTicketNumber()).orElseThrow());
+        }
+        assertFalse(segment.findById(0).isPresent());
+        assertFalse(segment.findById(10_000).isPresent());
+        assertFalse(segment.findByTicketNumber("TKT-MISSING").isPresent());
+    }
+    
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void scanAndRecordVisitsSeeTicketsInIdOrder(boolean compressed) {
+        List<Ticket> tickets = tickets(100);
+        TicketSegment segment = TicketSegment.write(directory.resolve("segment.seg"), tickets, compressed);
+        
+        TicketFilter filter = TicketFilter.compile("printer", TicketStatus.IN_PROGRESS, null, 2L, null, null);
+        List<Ticket> expected = new ArrayList<>();
+        for (Ticket ticket : tickets) {
+            if (filter.onTicket().test(ticket)) {
+                expected.add(ticket);
+            }
+        }
+        List<Ticket> scanned = segment.scan(filter.onHeader(), filter.keywordRefinement());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), scanned.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameTicket(expected.get(i), scanned.get(i));
+        }
+        
+        List<Long> visited = new ArrayList<>();
+        segment.forEachRecord((buffer, offset, length) -> {
+            Ticket decoded = TicketCodec.decode(buffer, offset);
+            assertSameTicket(tickets.get(visited.size()), decoded);
+            visited.add(decoded.getId());
+        });
+        assertEquals(tickets.size(), visited.size());
+    }
+    
+    @Test
+    void emptySegmentRoundTrips() {
+        TicketSegment segment = TicketSegment.write(directory.resolve("empty.seg"), List.of(), true);
+        
+        assertEquals(0, segment.size());
+        assertEquals(0, segment.getMaxId());
+        assertFalse(segment.findById(1).isPresent());
+        assertTrue(segment.scan((buffer, offset) -> true, null).isEmpty());
+    }
+    
+    @Test
+    void rejectsFilesThatAreNotSegments() throws IOException {
+        Path file = directory.resolve("garbage.seg");
+        Files.write(file, ByteBuffer.allocate(64).putInt(0xCAFEBABE).array());
+        
+        assertThrows(IllegalStateException.class, () -> TicketSegment.open(file));
+    }
+    
+    private static List<Ticket> tickets(int count) {
+        Customer customer = new Customer(7L, "Jane Doe", "jane@example.com", "+256700000000", "Kampala");
+        Agent agent = new Agent(3L, "Alice Nakato", "alice@example.com", "EMP-3", "Support");
+        TicketCategory[] categories = {
+            new TicketCategory(1L, "Hardware", "Hardware issues"),
+            new TicketCategory(2L, "Billing", "Billing \u00e9 issues")
+        };
+        List<Ticket> tickets = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            Ticket ticket = new Ticket(id * 3, "TKT-" + id, (id % 4 == 0 ? "Printer" : "Network") + " issue " + id,
+                    id % 5 == 0 ? null : "Description of ticket " + id + " with a printer jam", customer,
+                    categories[(int) (id % categories.length)]);
+            ticket.setCreatedAt(CREATED.plusMinutes(id));
+            ticket.setStatus(TicketStatus.values()[(int) (id % TicketStatus.values().length)]);
+            ticket.setPriority(TicketPriority.values()[(int) (id % TicketPriority.values().length)]);
+            if (id % 2 == 0) {
+                ticket.setAssignedAgent(agent);
+                List<Comment> comments = new ArrayList<>();
+                comments.add(new Comment(id, "Looking into it", CREATED.plusHours(id), agent, ticket.getId()));
+                ticket.setComments(comments);
+            }
+            ticket.setUpdatedAt(CREATED.plusDays(1).plusMinutes(id));
+            tickets.add(ticket);
+        }
+        return tickets;
+    }
+    
+    private static void assertSameTicket(Ticket expected, Ticket actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTicketNumber(), actual.getTicketNumber());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getPriority(), actual.getPriority());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+        assertEquals(expected.getResolvedAt(), actual.getResolvedAt());
+        assertEquals(expected.getCustomer().getId(), actual.getCustomer().getId());
+        assertEquals(expected.getCustomer().getPhone(), actual.getCustomer().getPhone());
+        assertEquals(expected.getCategory().getId(), actual.getCategory().getId());
+        assertEquals(expected.getCategory().getDescription(), actual.getCategory().getDescription());
+        if (expected.getAssignedAgent() == null) {
+            assertNull(actual.getAssignedAgent());
+        } else {
+            assertEquals(expected.getAssignedAgent().getId(), actual.getAssignedAgent().getId());
+            assertEquals(expected.getAssignedAgent().getName(), actual.getAssignedAgent().getName());
+        }
+        assertEquals(expected.getComments().size(), actual.getComments().size());
+        for (int i = 0; i < expected.getComments().size(); i++) {
+            Comment expectedComment = expected.getComments().get(i);
+            Comment actualComment = actual.getComments().get(i);
+            assertEquals(expectedComment.getContent(), actualComment.getContent());
+            assertEquals(expectedComment.getCreatedAt(), actualComment.getCreatedAt());
+            assertEquals(expectedComment.getCreatedBy().getId(), actualComment.getCreatedBy().getId());
+        }
+    }
+}
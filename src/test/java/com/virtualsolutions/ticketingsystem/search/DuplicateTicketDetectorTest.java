@@ -0,0 +1,90 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Tests for finding near-duplicate open tickets.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class DuplicateTicketDetectorTest {
+    
+    private static final int WORDS = 30;
+    // Sharing the first 20 of 30 words gives a word and word-pair Jaccard similarity of 39/79, about 0.49
+    private static final int SHARED_WORDS = 20;
+    
+    @Test
+    void pairsAtTheThresholdAlmostAlwaysShareABucket() {
+        // A threshold of zero reports every candidate, so this measures the banding alone
+        DuplicateTicketDetector detector = new DuplicateTicketDetector(32, 3, 0.0);
+        Random random = new Random(47);
+        int pairs = 300;
+        for (int pair = 0; pair < pairs; pair++) {
+            List<String> original = randomWords(random, WORDS);
+            List<String> duplicate = new ArrayList<>(original.subList(0, SHARED_WORDS));
+            duplicate.addAll(randomWords(random, WORDS - SHARED_WORDS));
+            detector.onTicketCreated(ticket(2L * pair + 1, original));
+            detector.onTicketCreated(ticket(2L * pair + 2, duplicate));
+        }
+        
+        int found = 0;
+        for (int pair = 0; pair < pairs; pair++) {
+            long duplicateId = 2L * pair + 2;
+            for (DuplicateTicketDetector.Match match : detector.findSimilarOpenTickets(2L * pair + 1, pairs)) {
+                if (match.getTicketId() == duplicateId) {
+                    found++;
+                }
+            }
+        }
+        // The expected rate is 1 - (1 - 0.49^3)^32, about 0.98
+        assertTrue(found >= pairs * 0.95, "Found only " + found + " of " + pairs + " duplicates");
+    }
+    
+    @Test
+    void defaultDetectorReportsRewordedDuplicatesAndIgnoresClosedTickets() {
+        DuplicateTicketDetector detector = new DuplicateTicketDetector();
+        Ticket outage = new Ticket(1L, "TKT-1", "Internet outage in Kampala office",
+                "The internet has been down since morning in the Kampala office, no websites load", null, null);
+        Ticket reworded = new Ticket(2L, "TKT-2", "Internet outage Kampala office",
+                "Internet down since this morning in the Kampala office and no websites load", null, null);
+        Ticket unrelated = new Ticket(3L, "TKT-3", "Refund for double charge",
+                "My card was charged twice for the same invoice last week", null, null);
+        detector.load(List.of(outage, reworded, unrelated));
+        
+        List<DuplicateTicketDetector.Match> matches = detector.findSimilarOpenTickets(1L, 10);
+        assertEquals(1, matches.size());
+        assertEquals(2L, matches.get(0).getTicketId());
+        
+        reworded.setStatus(TicketStatus.CLOSED);
+        detector.onTicketUpdated(reworded);
+        assertTrue(detector.findSimilarOpenTickets(1L, 10).isEmpty());
+    }
+    
+    private static Ticket ticket(long id, List<String> words) {
+        return new Ticket(id, "TKT-" + id, String.join(" ", words.subList(0, 5)),
+                String.join(" ", words.subList(5, words.size())), null, null);
+    }
+    
+    private static List<String> randomWords(Random random, int count) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder("q");
+            for (int j = 0; j < 7; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
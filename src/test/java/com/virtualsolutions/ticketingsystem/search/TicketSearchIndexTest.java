@@ -0,0 +1,161 @@
+package com.virtualsolutions.ticketingsystem.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.virtualsolutions.ticketingsystem.model.Customer;
+import com.virtualsolutions.ticketingsystem.model.Ticket;
+import com.virtualsolutions.ticketingsystem.model.TicketCategory;
+import com.virtualsolutions.ticketingsystem.model.TicketPriority;
+import com.virtualsolutions.ticketingsystem.model.TicketStatus;
+
+/**
+ * Tests for the BM25 ticket search index.
+ * 
+ * @author Mpairwe Lauben
+ * @version 1.0
+ */
+class TicketSearchIndexTest {
+    
+    private static final String[] WORDS = {
+        "printer", "network", "password", "invoice", "refund", "login", "screen", "battery",
+        "router", "email", "billing", "account", "slow", "broken", "error", "payment",
+        "laptop", "server", "update", "install", "crash", "timeout", "license", "backup"
+    };
+    private static final String[] QUERIES = {
+        "printer", "network error", "refund payment invoice", "login password account locked",
+        "slow server timeout crash", "broken laptop battery screen update", "unknownword printer"
+    };
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+    
+    @Test
+    void topKMatchesExhaustiveRankingWithoutBoosts() {
+        assertTopKMatchesExhaustive(new TicketSearchIndex(fixedClock(), false, null));
+    }
+    
+    @Test
+    void topKMatchesExhaustiveRankingWithPriorityAndRecencyBoosts() {
+        assertTopKMatchesExhaustive(new TicketSearchIndex(fixedClock(), true, Duration.ofDays(7)));
+    }
+    
+    @Test
+    void topKMatchesExhaustiveRankingWithFilters() {
+        TicketSearchIndex index = new TicketSearchIndex(fixedClock(), true, Duration.ofDays(7));
+        List<Ticket> tickets = corpus(2000, 7);
+        index.load(tickets);
+        TicketStatus status = TicketStatus.IN_PROGRESS;
+        for (String query : QUERIES) {
+            List<TicketSearchIndex.Hit> exhaustive = index.search(query, status, null, 2L, null, null, tickets.size());
+            for (int k : new int[] {1, 3, 10}) {
+                assertSameHits(exhaustive, index.search(query, status, null, 2L, null, null, k), k);
+            }
+        }
+    }
+    
+    @Test
+    void facetedSearchRanksLikeSearchAndCountsEveryMatch() {
+        TicketSearchIndex index = new TicketSearchIndex(fixedClock(), true, Duration.ofDays(7));
+        List<Ticket> tickets = corpus(1000, 11);
+        index.load(tickets);
+        for (String query : QUERIES) {
+            List<TicketSearchIndex.Hit> exhaustive = index.search(query, null, null, null, null, null,
+                    tickets.size());
+            TicketSearchIndex.FacetedHits faceted = index.searchWithFacets(query, null, null, null, null, null, 10);
+            assertSameHits(exhaustive, faceted.getHits(), 10);
+            assertEquals(exhaustive.size(), faceted.getFacets().getTotal(), "Facet total for \"" + query + "\"");
+        }
+    }
+    
+    @Test
+    void facetsOnlySearchCountsMatchesWithoutHits() {
+        TicketSearchIndex index = new TicketSearchIndex(fixedClock(), true, Duration.ofDays(7));
+        List<Ticket> tickets = corpus(500, 5);
+        index.load(tickets);
+        
+        for (String query : new String[] {"printer", "network error", null}) {
+            TicketSearchIndex.FacetedHits faceted = index.searchWithFacets(query, null, null, null, null, null, 0);
+            TicketSearchIndex.FacetedHits full = index.searchWithFacets(query, null, null, null, null, null, 10);
+            assertTrue(faceted.getHits().isEmpty());
+            assertTrue(faceted.getFacets().getTotal() > 0);
+            assertEquals(full.getFacets().getTotal(), faceted.getFacets().getTotal());
+            assertEquals(full.getFacets().getStatusCounts(), faceted.getFacets().getStatusCounts());
+        }
+    }
+    
+    @Test
+    void stopWordOnlyQueryMatchesNothing() {
+        TicketSearchIndex index = new TicketSearchIndex(fixedClock(), false, null);
+        index.load(corpus(50, 3));
+        
+        assertTrue(index.search("the and of", null, null, null, null, null, 10).isEmpty());
+        assertTrue(index.searchWithFacets("the and of", null, null, null, null, null, 10).getHits().isEmpty());
+        assertEquals(10, index.searchWithFacets(null, null, null, null, null, null, 10).getHits().size());
+    }
+    
+    private static void assertTopKMatchesExhaustive(TicketSearchIndex index) {
+        List<Ticket> tickets = corpus(2000, 42);
+        index.load(tickets);
+        for (String query : QUERIES) {
+            // With room for every ticket the threshold never rises, so every match is scored
+            List<TicketSearchIndex.Hit> exhaustive = index.search(query, null, null, null, null, null,
+                    tickets.size());
+            assertTrue(exhaustive.size() > 0 || query.startsWith("unknown"), "No matches for \"" + query + "\"");
+            for (int k : new int[] {1, 2, 5, 10, 50}) {
+                assertSameHits(exhaustive, index.search(query, null, null, null, null, null, k), k);
+            }
+        }
+    }
+    
+    private static void assertSameHits(List<TicketSearchIndex.Hit> exhaustive, List<TicketSearchIndex.Hit> topK,
+                                       int k) {
+        List<TicketSearchIndex.Hit> expected = exhaustive.subList(0, Math.min(k, exhaustive.size()));
+        assertEquals(expected.size(), topK.size(), "Number of hits for k=" + k);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTicketId(), topK.get(i).getTicketId(), "Ticket at rank " + i);
+            assertEquals(expected.get(i).getScore(), topK.get(i).getScore(), 1e-9, "Score at rank " + i);
+        }
+    }
+    
+    private static List<Ticket> corpus(int size, long seed) {
+        Random random = new Random(seed);
+        Customer customer = new Customer(1L, "Jane Doe", "jane@example.com", "0700000000", "Kampala");
+        TicketCategory[] categories = {
+            new TicketCategory(1L, "Hardware", "Hardware issues"),
+            new TicketCategory(2L, "Billing", "Billing issues")
+        };
+        List<Ticket> tickets = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            Ticket ticket = new Ticket(id, "TKT-" + id, words(random, 1 + random.nextInt(4)),
+                    words(random, 3 + random.nextInt(30)), customer, categories[random.nextInt(categories.length)]);
+            ticket.setStatus(TicketStatus.values()[random.nextInt(TicketStatus.values().length)]);
+            ticket.setPriority(TicketPriority.values()[random.nextInt(TicketPriority.values().length)]);
+            ticket.setUpdatedAt(NOW.minusHours(random.nextInt(24 * 30)));
+            tickets.add(ticket);
+        }
+        return tickets;
+    }
+    
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            // Skewed so that some terms are common and others rare
+            int index = (int) (WORDS.length * Math.pow(random.nextDouble(), 2));
+            text.append(i == 0 ? "" : " ").append(WORDS[index]);
+        }
+        return text.toString();
+    }
+    
+    private static Clock fixedClock() {
+        return Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    }
+}